@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+/**
+ * Test data shared by the component benchmarks.
+ */
+class BenchmarkSupport {
+  private BenchmarkSupport() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Returns a byte array of the given length with predictable contents.
+   */
+  static byte[] keyBytes(int length) {
+    byte[] keyBytes = new byte[length];
+    for (int i = 0; i < keyBytes.length; i++) {
+      keyBytes[i] = (byte) i;
+    }
+    return keyBytes;
+  }
+
+  /**
+   * Returns a plaintext of the given length.
+   */
+  static byte[] plaintext(int length) {
+    byte[] result = new byte[length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = 'x';
+    }
+    return result;
+  }
+}
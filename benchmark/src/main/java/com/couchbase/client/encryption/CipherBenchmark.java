@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.internal.AeadAes256CbcHmacSha512Cipher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import static com.couchbase.client.encryption.BenchmarkSupport.keyBytes;
+import static com.couchbase.client.encryption.BenchmarkSupport.plaintext;
+
+/**
+ * Measures the raw AEAD cipher, without keyring lookups or JSON handling.
+ */
+public class CipherBenchmark {
+  private static final byte[] NO_ASSOCIATED_DATA = new byte[0];
+
+  @State(Scope.Benchmark)
+  public static class CipherState {
+    @Param({"32", "512", "4096"})
+    public int plaintextSizeInBytes;
+
+    public final AeadAes256CbcHmacSha512Cipher cipher = new AeadAes256CbcHmacSha512Cipher();
+    public final byte[] key = keyBytes(64);
+    public byte[] plaintext;
+    public byte[] ciphertext;
+
+    @Setup
+    public void setup() throws Exception {
+      plaintext = plaintext(plaintextSizeInBytes);
+      ciphertext = cipher.encrypt(key, plaintext, NO_ASSOCIATED_DATA);
+    }
+  }
+
+  @Benchmark
+  public byte[] encrypt(CipherState state) throws Exception {
+    return state.cipher.encrypt(state.key, state.plaintext, NO_ASSOCIATED_DATA);
+  }
+
+  @Benchmark
+  public byte[] decrypt(CipherState state) throws Exception {
+    return state.cipher.decrypt(state.key, state.ciphertext, NO_ASSOCIATED_DATA);
+  }
+}
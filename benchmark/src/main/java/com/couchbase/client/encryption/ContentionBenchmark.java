@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.core.encryption.CryptoManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.couchbase.client.encryption.BenchmarkSupport.keyBytes;
+import static com.couchbase.client.encryption.BenchmarkSupport.plaintext;
+
+/**
+ * Measures encryption and decryption by many threads sharing one crypto manager,
+ * to expose contention in the shared SecureRandom, the cleaner that zeroizes
+ * key material, and cache-backed keyrings.
+ * <p>
+ * The "mixed" group runs encrypting and decrypting threads at the same time.
+ * The ratio between them is set with JMH's {@code -tg} option
+ * (for example, {@code -tg 1,3} for one encrypting thread per three decrypting threads),
+ * and the total number of threads with {@code -t}.
+ * <p>
+ * Use {@link ScalabilityRunner} to run these benchmarks with a range of thread counts
+ * and report scaling efficiency.
+ */
+public class ContentionBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class SharedState {
+    /**
+     * Number of distinct keys. Each operation uses a randomly selected key.
+     */
+    @Param({"1", "16", "1024"})
+    public int keyCount;
+
+    /**
+     * "plain" is a map-backed keyring, and "caching" wraps it in a
+     * {@link CachingKeyring}. Every lookup through either keyring
+     * returns a key handle that must be closed.
+     */
+    @Param({"plain", "caching"})
+    public String keyring;
+
+    @Param({"512"})
+    public int plaintextSizeInBytes;
+
+    public CryptoManager cryptoManager;
+    public String[] aliases;
+    public byte[] plaintext;
+
+    @Setup
+    public void setup() {
+      Map<String, byte[]> keys = new HashMap<>();
+      for (int i = 0; i < keyCount; i++) {
+        keys.put("key-" + i, keyBytes(64));
+      }
+      Keyring plain = Keyring.fromMap(keys);
+      Keyring selected = keyring.equals("caching")
+          ? CachingKeyring.builder().build(plain)
+          : plain;
+
+      AeadAes256CbcHmacSha512Provider provider = AeadAes256CbcHmacSha512Provider.builder()
+          .keyring(selected)
+          .build();
+
+      DefaultCryptoManager.Builder builder = DefaultCryptoManager.builder()
+          .decrypter(provider.decrypter());
+      aliases = new String[keyCount];
+      for (int i = 0; i < keyCount; i++) {
+        aliases[i] = "key-" + i;
+        builder.encrypter(aliases[i], provider.encrypterForKey(aliases[i]));
+      }
+      cryptoManager = builder.build();
+      plaintext = plaintext(plaintextSizeInBytes);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState {
+    private static final int NODES_PER_THREAD = 256;
+
+    public Map<String, Object>[] encryptedNodes;
+    private int next;
+    private long random;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup(SharedState shared) {
+      random = System.nanoTime() | 1;
+      encryptedNodes = new Map[NODES_PER_THREAD];
+      for (int i = 0; i < encryptedNodes.length; i++) {
+        encryptedNodes[i] = shared.cryptoManager.encrypt(shared.plaintext, nextAlias(shared));
+      }
+    }
+
+    /**
+     * Returns a randomly selected alias. Uses xorshift instead of a shared Random
+     * so the benchmark itself doesn't introduce contention.
+     */
+    public String nextAlias(SharedState shared) {
+      random ^= random << 13;
+      random ^= random >>> 7;
+      random ^= random << 17;
+      return shared.aliases[(int) ((random >>> 1) % shared.aliases.length)];
+    }
+
+    public Map<String, Object> nextEncryptedNode() {
+      Map<String, Object> result = encryptedNodes[next];
+      next = (next + 1) % encryptedNodes.length;
+      return result;
+    }
+  }
+
+  @Benchmark
+  public Map<String, Object> encrypt(SharedState shared, ThreadState thread) {
+    return shared.cryptoManager.encrypt(shared.plaintext, thread.nextAlias(shared));
+  }
+
+  @Benchmark
+  public byte[] decrypt(SharedState shared, ThreadState thread) {
+    return shared.cryptoManager.decrypt(thread.nextEncryptedNode());
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(1)
+  public Map<String, Object> mixedEncrypt(SharedState shared, ThreadState thread) {
+    return encrypt(shared, thread);
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(1)
+  public byte[] mixedDecrypt(SharedState shared, ThreadState thread) {
+    return decrypt(shared, thread);
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+
+import static com.couchbase.client.encryption.BenchmarkSupport.plaintext;
+
+/**
+ * Measures building and reading encryption results, which includes
+ * the Base64 encoding and decoding of the ciphertext.
+ */
+public class EncryptionResultBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class ResultState {
+    @Param({"32", "512", "4096"})
+    public int ciphertextSizeInBytes;
+
+    public byte[] ciphertext;
+    public Map<String, Object> node;
+
+    @Setup
+    public void setup() {
+      ciphertext = plaintext(ciphertextSizeInBytes);
+      node = EncryptionResult.forAlgorithm("AEAD_AES_256_CBC_HMAC_SHA512")
+          .put("kid", "my-key")
+          .put("ciphertext", ciphertext)
+          .asMap();
+    }
+  }
+
+  @Benchmark
+  public Map<String, Object> build(ResultState state) {
+    return EncryptionResult.forAlgorithm("AEAD_AES_256_CBC_HMAC_SHA512")
+        .put("kid", "my-key")
+        .put("ciphertext", state.ciphertext)
+        .asMap();
+  }
+
+  @Benchmark
+  public void read(ResultState state, Blackhole blackhole) {
+    EncryptionResult result = EncryptionResult.fromMap(state.node);
+    blackhole.consume(result.getString("kid"));
+    blackhole.consume(result.getBytes("ciphertext"));
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.couchbase.client.encryption.BenchmarkSupport.keyBytes;
+
+/**
+ * Measures a successful key lookup through each keyring implementation and decorator.
+ * <p>
+ * The composite and routing keyrings have several members, and the requested
+ * key is in the last one. See {@link RotatingKeyringBenchmark} for more
+ * detailed measurements of rotating keyrings.
+ */
+public class KeyringBenchmark {
+  private static final String KEY_NAME = "my-key";
+  private static final int MEMBERS = 4;
+
+  @State(Scope.Benchmark)
+  public static class KeyringState {
+    @Param({
+        "fromMap",
+        "caching",
+        "cachingKeyring",
+        "reloading",
+        "composite",
+        "routing",
+        "rotating",
+        "offHeap",
+    })
+    public String keyring;
+
+    public Keyring instance;
+    public String keyId = KEY_NAME;
+
+    private OffHeapKeyring offHeap;
+
+    @Setup
+    @SuppressWarnings("deprecation")
+    public void setup() {
+      final ListableKeyring simple = Keyring.fromMap(keys(KEY_NAME));
+
+      switch (keyring) {
+        case "fromMap":
+          instance = simple;
+          break;
+        case "caching":
+          instance = Keyring.caching(Duration.ofMinutes(1), 100, simple);
+          break;
+        case "cachingKeyring":
+          instance = CachingKeyring.builder().build(simple);
+          break;
+        case "reloading":
+          instance = Keyring.reloading(Duration.ofMinutes(1), () -> simple);
+          break;
+        case "composite":
+          instance = Keyring.composite(members());
+          break;
+        case "routing":
+          instance = RoutingKeyring.builder().build(members());
+          break;
+        case "rotating":
+          instance = Keyring.rotating("--", String::compareTo, Keyring.fromMap(keys(KEY_NAME + "--1", KEY_NAME + "--2")));
+          break;
+        case "offHeap":
+          offHeap = OffHeapKeyring.builder().build();
+          offHeap.put(KEY_NAME, keyBytes(64));
+          instance = offHeap;
+          break;
+        default:
+          throw new IllegalArgumentException("Unrecognized keyring: " + keyring);
+      }
+    }
+
+    @TearDown
+    public void tearDown() {
+      if (offHeap != null) {
+        offHeap.close();
+      }
+    }
+
+    private static List<Keyring> members() {
+      List<Keyring> members = new ArrayList<>();
+      for (int i = 1; i < MEMBERS; i++) {
+        members.add(Keyring.fromMap(keys("other-key-" + i)));
+      }
+      members.add(Keyring.fromMap(keys(KEY_NAME)));
+      return members;
+    }
+
+    private static Map<String, byte[]> keys(String... names) {
+      Map<String, byte[]> result = new HashMap<>();
+      for (String name : names) {
+        result.put(name, keyBytes(64));
+      }
+      return result;
+    }
+  }
+
+  @Benchmark
+  public String lookup(KeyringState state) {
+    try (Keyring.Key key = state.instance.acquireOrThrow(state.keyId)) {
+      return key.id();
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Stand-in for a remote key manager. Delays each lookup by a fixed base latency
+ * plus exponentially distributed jitter, then delegates to the wrapped keyring.
+ */
+class LatencyInjectingKeyring implements Keyring {
+  private final Keyring wrapped;
+  private final long baseNanos;
+  private final long meanJitterNanos;
+
+  LatencyInjectingKeyring(Keyring wrapped, Duration baseLatency, Duration meanJitter) {
+    this.wrapped = requireNonNull(wrapped);
+    this.baseNanos = baseLatency.toNanos();
+    this.meanJitterNanos = meanJitter.toNanos();
+  }
+
+  @Override
+  public Optional<Key> get(String keyId) {
+    long delayNanos = baseNanos;
+    if (meanJitterNanos > 0) {
+      // Inverse transform sampling of the exponential distribution.
+      delayNanos += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanJitterNanos);
+    }
+    if (delayNanos > 0) {
+      final long deadline = System.nanoTime() + delayNanos;
+      for (long remaining = delayNanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+        LockSupport.parkNanos(remaining);
+      }
+    }
+    return wrapped.get(keyId);
+  }
+
+  @Override
+  public String toString() {
+    return "LatencyInjectingKeyring{" +
+        "baseLatency=" + Duration.ofNanos(baseNanos) +
+        ", meanJitter=" + Duration.ofNanos(meanJitterNanos) +
+        '}';
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.internal.LegacyAesDecrypter;
+import com.couchbase.client.encryption.internal.LegacyRsaDecrypter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.OAEPParameterSpec;
+import javax.crypto.spec.PSource;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.MGF1ParameterSpec;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.couchbase.client.core.util.CbCollections.mapOf;
+import static com.couchbase.client.encryption.BenchmarkSupport.keyBytes;
+import static com.couchbase.client.encryption.BenchmarkSupport.plaintext;
+
+/**
+ * Measures decryption of fields written by version 2.x of this library.
+ */
+public class LegacyDecrypterBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class AesState {
+    public Decrypter decrypter;
+    public EncryptionResult encrypted;
+
+    @Setup
+    public void setup() {
+      Map<String, byte[]> keys = new HashMap<>();
+      keys.put("aes128Key", keyBytes(16));
+      keys.put("hmacKey", keyBytes(7));
+      decrypter = LegacyAesDecrypter.aes128(Keyring.fromMap(keys), keyName -> "hmacKey");
+
+      // Generated by Java FLE version 1
+      encrypted = EncryptionResult.fromMap(mapOf(
+          "sig", "TkpyZnha4xd+FsX1aEGqB235d495oOUBfC4Y+Gbic4U=",
+          "ciphertext", "MZI/xSiM7919UTM5CO/RWg==",
+          "alg", "AES-128-HMAC-SHA256",
+          "iv", "HIBdmnoQD4DUgkBj5LAMFw==",
+          "kid", "aes128Key"));
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class RsaState {
+    public Decrypter decrypter;
+    public EncryptionResult encrypted;
+
+    @Setup
+    public void setup() throws Exception {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+      generator.initialize(2048);
+      KeyPair keyPair = generator.generateKeyPair();
+
+      Keyring keyring = Keyring.fromMap(mapOf("private", keyPair.getPrivate().getEncoded()));
+      decrypter = new LegacyRsaDecrypter(keyring, publicKeyName -> "private");
+
+      Cipher cipher = Cipher.getInstance("RSA/ECB/OAEPWithSHA-1AndMGF1Padding");
+      cipher.init(Cipher.ENCRYPT_MODE, keyPair.getPublic(),
+          new OAEPParameterSpec("SHA-1", "MGF1", new MGF1ParameterSpec("SHA-1"), PSource.PSpecified.DEFAULT));
+      encrypted = EncryptionResult.forAlgorithm("RSA-2048-OAEP-SHA1")
+          .put("kid", "public")
+          .put("ciphertext", cipher.doFinal(plaintext(32)));
+    }
+  }
+
+  @Benchmark
+  public byte[] aes(AesState state) throws Exception {
+    return state.decrypter.decrypt(state.encrypted);
+  }
+
+  @Benchmark
+  public byte[] rsa(RsaState state) throws Exception {
+    return state.decrypter.decrypt(state.encrypted);
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.core.encryption.CryptoManager;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.couchbase.client.encryption.BenchmarkSupport.keyBytes;
+import static com.couchbase.client.encryption.BenchmarkSupport.plaintext;
+
+/**
+ * Drives a crypto manager at a fixed arrival rate and reports latency percentiles.
+ * <p>
+ * Unlike JMH, which starts the next operation when the previous one finishes,
+ * this is an open-loop generator: operations are scheduled at fixed intervals
+ * regardless of how long earlier operations take. Latency is measured from when
+ * an operation was <i>scheduled</i> to start, so time spent waiting behind slow
+ * operations is included. This avoids "coordinated omission", which hides tail latency.
+ * <p>
+ * Each operation encrypts or decrypts every encrypted field of a document.
+ * Documents have many fields of mixed sizes, encrypted with several keys.
+ * <p>
+ * Configured with system properties:
+ * <ul>
+ * <li>{@code rate} - documents per second. Default: 1000
+ * <li>{@code durationSeconds} - how long to measure. Default: 60
+ * <li>{@code warmupSeconds} - how long to run before measuring. Default: 10
+ * <li>{@code threads} - worker threads. Default: 4 times the number of processors
+ * <li>{@code mode} - "encrypt", "decrypt" or "mixed" (alternating). Default: mixed
+ * <li>{@code fieldsPerDocument} - Default: 20
+ * <li>{@code fieldSizes} - field sizes in bytes and their relative weights. Default: 32:60,512:30,4096:10
+ * <li>{@code keys} - number of distinct keys. Default: 8
+ * <li>{@code keyLatencyMicros} - base latency of each key lookup. Default: 0
+ * <li>{@code keyJitterMicros} - mean of additional exponentially distributed lookup latency. Default: 0
+ * <li>{@code cache} - if "true", wrap the keyring in a {@link CachingKeyring}. Default: false
+ * <li>{@code hgrm} - if set, write the full percentile distribution to this file
+ * (in microseconds, loadable by the HdrHistogram plotter).
+ * </ul>
+ */
+public class LoadGenerator {
+  private static final int DOCUMENT_COUNT = 1000;
+
+  public static void main(String[] args) throws Exception {
+    final int rate = Integer.getInteger("rate", 1000);
+    final Duration duration = Duration.ofSeconds(Integer.getInteger("durationSeconds", 60));
+    final Duration warmup = Duration.ofSeconds(Integer.getInteger("warmupSeconds", 10));
+    final int threads = Integer.getInteger("threads", 4 * Runtime.getRuntime().availableProcessors());
+    final String mode = System.getProperty("mode", "mixed");
+    final int fieldsPerDocument = Integer.getInteger("fieldsPerDocument", 20);
+    final String fieldSizes = System.getProperty("fieldSizes", "32:60,512:30,4096:10");
+    final int keyCount = Integer.getInteger("keys", 8);
+    final Duration keyLatency = Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(Integer.getInteger("keyLatencyMicros", 0)));
+    final Duration keyJitter = Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(Integer.getInteger("keyJitterMicros", 0)));
+    final boolean cache = Boolean.getBoolean("cache");
+    final String hgrm = System.getProperty("hgrm");
+
+    if (!mode.equals("encrypt") && !mode.equals("decrypt") && !mode.equals("mixed")) {
+      throw new IllegalArgumentException("Unrecognized mode: " + mode);
+    }
+
+    final Map<String, byte[]> keys = new HashMap<>();
+    final String[] aliases = new String[keyCount];
+    for (int i = 0; i < keyCount; i++) {
+      aliases[i] = "key-" + i;
+      keys.put(aliases[i], keyBytes(64));
+    }
+    Keyring keyring = new LatencyInjectingKeyring(Keyring.fromMap(keys), keyLatency, keyJitter);
+    if (cache) {
+      keyring = CachingKeyring.builder().build(keyring);
+    }
+
+    final AeadAes256CbcHmacSha512Provider provider = AeadAes256CbcHmacSha512Provider.builder()
+        .keyring(keyring)
+        .build();
+    final DefaultCryptoManager.Builder builder = DefaultCryptoManager.builder()
+        .decrypter(provider.decrypter());
+    for (String alias : aliases) {
+      builder.encrypter(alias, provider.encrypterForKey(alias));
+    }
+    final CryptoManager cryptoManager = builder.build();
+
+    System.out.println("Preparing " + DOCUMENT_COUNT + " documents...");
+    final List<Document> documents = Document.generate(DOCUMENT_COUNT, fieldsPerDocument, parseWeights(fieldSizes), aliases, cryptoManager);
+
+    System.out.printf("Running %s at %d documents/s with %d threads for %ds (plus %ds warmup). Keyring: %s%n",
+        mode, rate, threads, duration.getSeconds(), warmup.getSeconds(), keyring);
+
+    final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+    final long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+    final long measureStartNanos = startNanos + warmup.toNanos();
+    final long endNanos = measureStartNanos + duration.toNanos();
+
+    final AtomicLong nextOperation = new AtomicLong();
+    final Recorder recorder = new Recorder(3);
+    final AtomicLong failures = new AtomicLong();
+
+    final List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      final Thread worker = new Thread(() -> {
+        while (true) {
+          final long operation = nextOperation.getAndIncrement();
+          final long intendedStartNanos = startNanos + operation * intervalNanos;
+          if (intendedStartNanos >= endNanos) {
+            return;
+          }
+          waitUntil(intendedStartNanos);
+
+          final Document document = documents.get((int) (operation % documents.size()));
+          try {
+            final boolean encrypt = mode.equals("encrypt") || (mode.equals("mixed") && operation % 2 == 0);
+            if (encrypt) {
+              document.encrypt(cryptoManager);
+            } else {
+              document.decrypt(cryptoManager);
+            }
+          } catch (RuntimeException e) {
+            failures.incrementAndGet();
+          }
+
+          if (intendedStartNanos >= measureStartNanos) {
+            recorder.recordValue(System.nanoTime() - intendedStartNanos);
+          }
+        }
+      }, "load-generator-" + t);
+      worker.setDaemon(true);
+      worker.start();
+      workers.add(worker);
+    }
+
+    final Histogram total = new Histogram(3);
+    Histogram interval = null;
+    final long reportIntervalNanos = TimeUnit.SECONDS.toNanos(1);
+    for (long next = measureStartNanos + reportIntervalNanos; next < endNanos + reportIntervalNanos; next += reportIntervalNanos) {
+      waitUntil(next);
+      interval = recorder.getIntervalHistogram(interval);
+      total.add(interval);
+      System.out.printf("%4ds %8d docs  p50=%8.1fus  p99=%10.1fus  max=%10.1fus%n",
+          TimeUnit.NANOSECONDS.toSeconds(next - measureStartNanos),
+          interval.getTotalCount(),
+          micros(interval.getValueAtPercentile(50)),
+          micros(interval.getValueAtPercentile(99)),
+          micros(interval.getMaxValue()));
+    }
+
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    total.add(recorder.getIntervalHistogram());
+
+    System.out.println();
+    System.out.println("Latency (from scheduled start, in microseconds):");
+    for (String percentile : new String[]{"50", "90", "99", "99.9", "99.99"}) {
+      System.out.printf("  p%-6s %12.1f%n", percentile, micros(total.getValueAtPercentile(Double.parseDouble(percentile))));
+    }
+    System.out.printf("  max     %12.1f%n", micros(total.getMaxValue()));
+
+    final double achievedRate = total.getTotalCount() / (double) duration.getSeconds();
+    System.out.printf("%nDocuments: %d (%.1f/s, target %d/s). Failures: %d%n",
+        total.getTotalCount(), achievedRate, rate, failures.get());
+    if (achievedRate < rate * 0.95) {
+      System.out.println("WARNING: Could not sustain the target rate; latencies include time spent queued.");
+    }
+
+    if (hgrm != null) {
+      try (PrintStream out = new PrintStream(new FileOutputStream(hgrm))) {
+        total.outputPercentileDistribution(out, 1000.0);
+      }
+      System.out.println("Wrote percentile distribution to " + hgrm);
+    }
+  }
+
+  private static double micros(long nanos) {
+    return nanos / 1000.0;
+  }
+
+  private static void waitUntil(long deadlineNanos) {
+    for (long remaining = deadlineNanos - System.nanoTime(); remaining > 0; remaining = deadlineNanos - System.nanoTime()) {
+      LockSupport.parkNanos(remaining);
+    }
+  }
+
+  /**
+   * Parses "size:weight,size:weight..." into a list of sizes
+   * where each size appears as many times as its weight.
+   */
+  private static List<Integer> parseWeights(String spec) {
+    final List<Integer> result = new ArrayList<>();
+    for (String entry : spec.split(",")) {
+      final String[] sizeAndWeight = entry.trim().split(":");
+      final int size = Integer.parseInt(sizeAndWeight[0]);
+      final int weight = sizeAndWeight.length > 1 ? Integer.parseInt(sizeAndWeight[1]) : 1;
+      for (int i = 0; i < weight; i++) {
+        result.add(size);
+      }
+    }
+    return result;
+  }
+
+  private static class Document {
+    private final List<byte[]> plaintexts = new ArrayList<>();
+    private final List<String> aliases = new ArrayList<>();
+    private final List<Map<String, Object>> encrypted = new ArrayList<>();
+
+    static List<Document> generate(int count, int fields, List<Integer> weightedSizes, String[] aliases, CryptoManager cryptoManager) {
+      final Random random = new Random(0); // same documents every run
+      final List<Document> result = new ArrayList<>(count);
+      for (int d = 0; d < count; d++) {
+        final Document doc = new Document();
+        for (int f = 0; f < fields; f++) {
+          final byte[] plaintext = plaintext(weightedSizes.get(random.nextInt(weightedSizes.size())));
+          final String alias = aliases[random.nextInt(aliases.length)];
+          doc.plaintexts.add(plaintext);
+          doc.aliases.add(alias);
+          doc.encrypted.add(cryptoManager.encrypt(plaintext, alias));
+        }
+        result.add(doc);
+      }
+      return result;
+    }
+
+    void encrypt(CryptoManager cryptoManager) {
+      for (int i = 0; i < plaintexts.size(); i++) {
+        cryptoManager.encrypt(plaintexts.get(i), aliases.get(i));
+      }
+    }
+
+    void decrypt(CryptoManager cryptoManager) {
+      for (Map<String, Object> node : encrypted) {
+        cryptoManager.decrypt(node);
+      }
+    }
+  }
+}
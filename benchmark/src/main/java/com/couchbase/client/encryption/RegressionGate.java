@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
+import com.couchbase.client.core.json.Mapper;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ResultFormatType;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Compares JMH results against a committed baseline, and fails
+ * if throughput or allocation regressed by more than the configured tolerance.
+ * <p>
+ * Arguments are passed to JMH, which runs with the GC profiler and writes
+ * JSON results to {@code target/jmh-result.json}. To compare an existing
+ * result file instead of running the benchmarks, set the {@code result}
+ * system property to its path.
+ * <p>
+ * System properties:
+ * <ul>
+ * <li>{@code baseline} - baseline result file. Default: {@code baseline/jmh-baseline.json}
+ * <li>{@code tolerances} - tolerance file. Default: {@code baseline/tolerances.properties}
+ * <li>{@code report} - where to write the report. Default: {@code target/regression-report.txt}
+ * <li>{@code updateBaseline} - if "true", replace the baseline with the new results instead of comparing.
+ * </ul>
+ * A baseline benchmark with no new result counts as a regression, since JMH
+ * leaves out benchmarks that fail. If the arguments select a subset of the
+ * benchmarks, missing results are reported but not counted.
+ * <p>
+ * Exits with status 1 if there is a regression, or 2 if the comparison could not be made.
+ */
+public class RegressionGate {
+  private static final String ALLOCATION_METRIC_SUFFIX = "gc.alloc.rate.norm";
+
+  private static final String OK = "ok";
+  private static final String IMPROVED = "IMPROVED";
+  private static final String REGRESSION = "REGRESSION";
+
+  public static void main(String[] args) throws Exception {
+    final Path baselineFile = Paths.get(System.getProperty("baseline", "baseline/jmh-baseline.json"));
+    final Path tolerancesFile = Paths.get(System.getProperty("tolerances", "baseline/tolerances.properties"));
+    final Path reportFile = Paths.get(System.getProperty("report", "target/regression-report.txt"));
+
+    final CommandLineOptions jmhOptions = new CommandLineOptions(args);
+    // Benchmarks left out by an include pattern are expected to be missing.
+    final boolean subset = !jmhOptions.getIncludes().isEmpty();
+
+    Path resultFile;
+    if (System.getProperty("result") != null) {
+      resultFile = Paths.get(System.getProperty("result"));
+    } else {
+      resultFile = Paths.get("target/jmh-result.json");
+      Files.createDirectories(resultFile.toAbsolutePath().getParent());
+      new Runner(new OptionsBuilder()
+          .parent(jmhOptions)
+          .addProfiler("gc")
+          .resultFormat(ResultFormatType.JSON)
+          .result(resultFile.toString())
+          .build())
+          .run();
+    }
+
+    if (Boolean.getBoolean("updateBaseline")) {
+      Files.createDirectories(baselineFile.toAbsolutePath().getParent());
+      Files.copy(resultFile, baselineFile, REPLACE_EXISTING);
+      System.out.println("Updated baseline " + baselineFile);
+      return;
+    }
+
+    if (!Files.exists(baselineFile)) {
+      System.err.println("Baseline " + baselineFile + " not found. Create it with -DupdateBaseline=true");
+      System.exit(2);
+    }
+
+    final Tolerances tolerances = Tolerances.read(tolerancesFile);
+    final Comparison comparison = compare(
+        readResults(baselineFile),
+        readResults(resultFile),
+        tolerances,
+        subset);
+
+    final String report = comparison.report();
+    System.out.println(report);
+    Files.createDirectories(reportFile.toAbsolutePath().getParent());
+    Files.write(reportFile, report.getBytes(UTF_8));
+
+    if (comparison.regressions > 0) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * One benchmark result, identified by benchmark name, mode, thread count and parameters.
+   */
+  static class Measurement {
+    final String key;
+    final String benchmark;
+    final boolean higherIsBetter;
+    final double score;
+    final String unit;
+    final Double allocationBytesPerOp; // null if not profiled
+
+    Measurement(String key, String benchmark, boolean higherIsBetter, double score, String unit, Double allocationBytesPerOp) {
+      this.key = key;
+      this.benchmark = benchmark;
+      this.higherIsBetter = higherIsBetter;
+      this.score = score;
+      this.unit = unit;
+      this.allocationBytesPerOp = allocationBytesPerOp;
+    }
+  }
+
+  /**
+   * Reads a JMH result file in JSON format.
+   */
+  static Map<String, Measurement> readResults(Path file) throws IOException {
+    final JsonNode root = Mapper.decodeIntoTree(Files.readAllBytes(file));
+    final Map<String, Measurement> result = new LinkedHashMap<>();
+
+    for (JsonNode run : root) {
+      final String benchmark = run.path("benchmark").asText();
+      final String mode = run.path("mode").asText();
+
+      final StringBuilder key = new StringBuilder(benchmark)
+          .append(" mode=").append(mode)
+          .append(" threads=").append(run.path("threads").asInt());
+      final Map<String, String> params = new TreeMap<>();
+      run.path("params").fields().forEachRemaining(e -> params.put(e.getKey(), e.getValue().asText()));
+      params.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+
+      Double allocation = null;
+      final Iterator<Map.Entry<String, JsonNode>> secondary = run.path("secondaryMetrics").fields();
+      while (secondary.hasNext()) {
+        final Map.Entry<String, JsonNode> metric = secondary.next();
+        if (metric.getKey().endsWith(ALLOCATION_METRIC_SUFFIX)) {
+          allocation = metric.getValue().path("score").asDouble();
+        }
+      }
+
+      final JsonNode primary = run.path("primaryMetric");
+      result.put(key.toString(), new Measurement(
+          key.toString(),
+          benchmark,
+          mode.equals("thrpt"),
+          primary.path("score").asDouble(),
+          primary.path("scoreUnit").asText(),
+          allocation));
+    }
+    return result;
+  }
+
+  /**
+   * Allowed regression, as a percentage of the baseline, for each benchmark.
+   * <p>
+   * Each property key is a benchmark name pattern followed by {@code .throughput}
+   * or {@code .allocation}. The pattern is {@code *} (matches everything) or a prefix of
+   * "SimpleClassName.method"; the longest matching prefix wins. For example:
+   * <pre>
+   * *.throughput=10
+   * *.allocation=5
+   * LegacyDecrypterBenchmark.rsa.throughput=20
+   * </pre>
+   * Allocation also has an absolute slack in bytes per operation ({@code *.allocationSlackBytes}),
+   * so a benchmark that allocates nothing does not fail over a few bytes of measurement noise.
+   */
+  static class Tolerances {
+    private final Properties props;
+
+    private Tolerances(Properties props) {
+      this.props = props;
+    }
+
+    static Tolerances read(Path file) throws IOException {
+      final Properties props = new Properties();
+      if (Files.exists(file)) {
+        try (Reader reader = Files.newBufferedReader(file, UTF_8)) {
+          props.load(reader);
+        }
+      }
+      return new Tolerances(props);
+    }
+
+    double throughputPercent(String benchmark) {
+      return lookup(benchmark, "throughput", 10);
+    }
+
+    double allocationPercent(String benchmark) {
+      return lookup(benchmark, "allocation", 5);
+    }
+
+    double allocationSlackBytes(String benchmark) {
+      return lookup(benchmark, "allocationSlackBytes", 16);
+    }
+
+    private double lookup(String benchmark, String metric, double defaultValue) {
+      final String shortName = shortName(benchmark);
+      String bestKey = null;
+      int bestRank = -1;
+      for (String key : props.stringPropertyNames()) {
+        if (!key.endsWith("." + metric)) {
+          continue;
+        }
+        final String pattern = key.substring(0, key.length() - metric.length() - 1);
+        // The wildcard ranks below any matching prefix.
+        final int rank = pattern.equals("*") ? 0 : shortName.startsWith(pattern) ? pattern.length() : -1;
+        if (rank > bestRank) {
+          bestKey = key;
+          bestRank = rank;
+        }
+      }
+      return bestKey == null ? defaultValue : Double.parseDouble(props.getProperty(bestKey));
+    }
+
+    /**
+     * Returns the "SimpleClassName.method" form of a fully qualified benchmark name.
+     */
+    private static String shortName(String benchmark) {
+      final int methodDot = benchmark.lastIndexOf('.');
+      final int classDot = methodDot <= 0 ? -1 : benchmark.lastIndexOf('.', methodDot - 1);
+      return benchmark.substring(classDot + 1);
+    }
+  }
+
+  static class Comparison {
+    private final StringWriter text = new StringWriter();
+    private final PrintWriter out = new PrintWriter(text);
+    int regressions;
+    int improvements;
+
+    String report() {
+      out.flush();
+      return text.toString() + System.lineSeparator()
+          + (regressions == 0 ? "PASSED" : "FAILED") + ": "
+          + regressions + " regression(s), " + improvements + " improvement(s)";
+    }
+  }
+
+  static Comparison compare(Map<String, Measurement> baseline, Map<String, Measurement> current, Tolerances tolerances, boolean subset) {
+    final Comparison c = new Comparison();
+
+    baseline.forEach((key, before) -> {
+      final Measurement after = current.get(key);
+      if (after == null) {
+        if (subset) {
+          c.out.println("MISSING     " + key + " (not selected)");
+        } else {
+          c.out.println("MISSING     " + key + " " + REGRESSION);
+          c.regressions++;
+        }
+        return;
+      }
+
+      // Positive change is always an improvement.
+      final double scoreChange = (after.score - before.score) / before.score * 100 * (before.higherIsBetter ? 1 : -1);
+      final double scoreTolerance = tolerances.throughputPercent(before.benchmark);
+      final String scoreVerdict = scoreChange < -scoreTolerance ? REGRESSION : scoreChange > scoreTolerance ? IMPROVED : OK;
+      final String scoreLine = String.format("              score: %.3f -> %.3f %s (%+.1f%%, tolerance %.1f%%) %s",
+          before.score, after.score, after.unit, scoreChange, scoreTolerance, scoreVerdict);
+
+      String allocationVerdict = OK;
+      String allocationLine = null;
+      if (before.allocationBytesPerOp != null && after.allocationBytesPerOp != null) {
+        final double slack = tolerances.allocationSlackBytes(before.benchmark);
+        final double allowed = before.allocationBytesPerOp * (1 + tolerances.allocationPercent(before.benchmark) / 100) + slack;
+        allocationVerdict = after.allocationBytesPerOp > allowed ? REGRESSION
+            : after.allocationBytesPerOp < before.allocationBytesPerOp - slack ? IMPROVED
+            : OK;
+        allocationLine = String.format("              allocation: %.1f -> %.1f B/op (allowed %.1f) %s",
+            before.allocationBytesPerOp, after.allocationBytesPerOp, allowed, allocationVerdict);
+      }
+
+      final String overall = scoreVerdict.equals(REGRESSION) || allocationVerdict.equals(REGRESSION) ? REGRESSION
+          : scoreVerdict.equals(IMPROVED) || allocationVerdict.equals(IMPROVED) ? IMPROVED
+          : OK;
+      c.out.printf("%-11s %s%n", overall, key);
+      c.out.println(scoreLine);
+      if (allocationLine != null) {
+        c.out.println(allocationLine);
+      }
+      count(c, scoreVerdict);
+      count(c, allocationVerdict);
+    });
+
+    current.keySet().stream()
+        .filter(key -> !baseline.containsKey(key))
+        .forEach(key -> c.out.println("NEW         " + key));
+
+    return c;
+  }
+
+  private static void count(Comparison c, String verdict) {
+    if (verdict.equals(REGRESSION)) {
+      c.regressions++;
+    } else if (verdict.equals(IMPROVED)) {
+      c.improvements++;
+    }
+  }
+}
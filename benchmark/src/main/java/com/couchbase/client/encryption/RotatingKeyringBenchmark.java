@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Measures key lookups through rotating keyrings, by base name
+ * (the encryption path) and by versioned name (the decryption path).
+ */
+public class RotatingKeyringBenchmark {
+
+  private static final String BASE_NAME = "my-key";
+  private static final String VERSIONED_NAME = BASE_NAME + "--2";
+
+  /**
+   * A rotating keyring backed by a map, with a simulated cost for resolving
+   * the primary version (as if it came from a remote service).
+   */
+  static class InMemoryRotatingKeyring extends RotatingKeyring {
+    private final Map<String, byte[]> keys = new HashMap<>();
+    private final String primaryVersion;
+
+    InMemoryRotatingKeyring(Duration primaryVersionExpiry, int versions) {
+      super("--", primaryVersionExpiry);
+      for (int i = 1; i <= versions; i++) {
+        keys.put(BASE_NAME + "--" + i, keyBytes());
+      }
+      this.primaryVersion = String.valueOf(versions);
+    }
+
+    @Override
+    protected String getPrimaryVersion(String baseName) {
+      Blackhole.consumeCPU(100); // simulate a lookup that isn't free
+      return primaryVersion;
+    }
+
+    @Override
+    protected Optional<byte[]> getKeyBytes(KeyNameAndVersion keyNameAndVersion) {
+      byte[] bytes = keys.get(keyNameAndVersion.format());
+      return bytes == null ? Optional.empty() : Optional.of(bytes.clone());
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class InMemoryState {
+    @Param({"false", "true"})
+    public boolean cachePrimaryVersion;
+
+    public RotatingKeyring keyring;
+
+    @Setup
+    public void setup() {
+      keyring = new InMemoryRotatingKeyring(cachePrimaryVersion ? Duration.ofMinutes(1) : Duration.ZERO, 3);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class FilesystemState {
+    @Param({"false", "true"})
+    public boolean hotReloading;
+
+    public Path dir;
+    public FilesystemRotatingKeyring keyring;
+
+    @Setup
+    public void setup() throws IOException {
+      dir = Files.createTempDirectory("rotating-keyring-benchmark");
+      Files.write(dir.resolve(BASE_NAME + "--1.key"), keyBytes());
+      Files.write(dir.resolve(BASE_NAME + "--2.key"), keyBytes());
+      Files.write(dir.resolve(BASE_NAME + "--3.key.primary"), keyBytes());
+      keyring = hotReloading ? FilesystemRotatingKeyring.hotReloading(dir) : new FilesystemRotatingKeyring(dir);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+      keyring.close();
+      try (Stream<Path> files = Files.list(dir)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(dir);
+    }
+  }
+
+  private static byte[] keyBytes() {
+    byte[] keyBytes = new byte[64];
+    for (int i = 0; i < keyBytes.length; i++) {
+      keyBytes[i] = (byte) i;
+    }
+    return keyBytes;
+  }
+
+  private static String use(Keyring.Key key) {
+    try (Keyring.Key k = key) {
+      return k.id();
+    }
+  }
+
+  @Benchmark
+  public String inMemoryByBaseName(InMemoryState state) {
+    return use(state.keyring.acquireOrThrow(BASE_NAME));
+  }
+
+  @Benchmark
+  public String inMemoryByVersionedName(InMemoryState state) {
+    return use(state.keyring.acquireOrThrow(VERSIONED_NAME));
+  }
+
+  @Benchmark
+  public String filesystemByBaseName(FilesystemState state) {
+    return use(state.keyring.acquireOrThrow(BASE_NAME));
+  }
+
+  @Benchmark
+  public String filesystemByVersionedName(FilesystemState state) {
+    return use(state.keyring.acquireOrThrow(VERSIONED_NAME));
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs benchmarks with a range of thread counts, and reports how well
+ * throughput scales with the number of threads.
+ * <p>
+ * Scaling efficiency is the speedup relative to the smallest thread count,
+ * divided by the increase in thread count. An efficiency of 100% means
+ * doubling the threads doubles the throughput.
+ * <p>
+ * Arguments are passed to JMH, so the usual options for selecting benchmarks
+ * and parameters apply. If no benchmarks are selected, runs {@link ContentionBenchmark}.
+ * The thread counts are 1, 2, 4 ... up to twice the number of available processors,
+ * unless the {@code threads} system property specifies a comma-separated list.
+ * <p>
+ * Example:
+ * <pre>
+ * java -Dthreads=1,4,16 -cp target/benchmarks.jar com.couchbase.client.encryption.ScalabilityRunner \
+ *     ContentionBenchmark.mixed -tg 1,3 -p keyCount=16
+ * </pre>
+ */
+public class ScalabilityRunner {
+
+  public static void main(String[] args) throws Exception {
+    final CommandLineOptions commandLine = new CommandLineOptions(args);
+
+    // Results for the same benchmark and parameters, indexed by thread count.
+    final Map<String, TreeMap<Integer, Double>> scores = new TreeMap<>();
+    final Map<String, String> units = new TreeMap<>();
+
+    for (int threads : threadCounts()) {
+      final ChainedOptionsBuilder options = new OptionsBuilder()
+          .parent(commandLine)
+          .threads(threads);
+      if (commandLine.getIncludes().isEmpty()) {
+        options.include(ContentionBenchmark.class.getSimpleName());
+      }
+
+      for (RunResult result : new Runner(options.build()).run()) {
+        final String key = describe(result.getParams());
+        scores.computeIfAbsent(key, k -> new TreeMap<>())
+            .put(result.getParams().getThreads(), result.getPrimaryResult().getScore());
+        units.put(key, result.getPrimaryResult().getScoreUnit());
+      }
+    }
+
+    System.out.println();
+    System.out.println("Scaling efficiency (relative to the smallest thread count):");
+    scores.forEach((key, byThreads) -> {
+      System.out.println();
+      System.out.println(key);
+      System.out.printf("  %8s %16s %10s %10s%n", "threads", units.get(key), "speedup", "efficiency");
+
+      final int baseThreads = byThreads.firstKey();
+      final double baseScore = byThreads.firstEntry().getValue();
+      byThreads.forEach((threads, score) -> {
+        final double speedup = score / baseScore;
+        final double efficiency = speedup / ((double) threads / baseThreads);
+        System.out.printf("  %8d %16.1f %9.2fx %9.0f%%%n", threads, score, speedup, efficiency * 100);
+      });
+    });
+  }
+
+  private static List<Integer> threadCounts() {
+    final List<Integer> result = new ArrayList<>();
+    final String property = System.getProperty("threads");
+    if (property != null) {
+      for (String s : property.split(",")) {
+        result.add(Integer.parseInt(s.trim()));
+      }
+      return result;
+    }
+
+    final int max = 2 * Runtime.getRuntime().availableProcessors();
+    for (int i = 1; i < max; i *= 2) {
+      result.add(i);
+    }
+    result.add(max);
+    return result;
+  }
+
+  private static String describe(BenchmarkParams params) {
+    final StringBuilder sb = new StringBuilder(params.getBenchmark());
+    for (String paramName : params.getParamsKeys()) {
+      sb.append(' ').append(paramName).append('=').append(params.getParam(paramName));
+    }
+    final int[] threadGroups = params.getThreadGroups();
+    if (threadGroups.length > 1) {
+      sb.append(" threadGroups=");
+      for (int i = 0; i < threadGroups.length; i++) {
+        sb.append(i == 0 ? "" : ":").append(threadGroups[i]);
+      }
+    }
+    return sb.toString();
+  }
+}
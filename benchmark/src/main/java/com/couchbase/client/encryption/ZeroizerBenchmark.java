@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.internal.KeyImpl;
+import com.couchbase.client.encryption.internal.Zeroizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import static com.couchbase.client.encryption.BenchmarkSupport.keyBytes;
+
+/**
+ * Measures the cost of key material hygiene: zeroizing buffers,
+ * registering key material with the cleaner, and key handle reference counting.
+ */
+public class ZeroizerBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class KeyState {
+    public final byte[] keyBytes = keyBytes(64);
+    public KeyImpl sharedKey;
+
+    @Setup
+    public void setup() {
+      sharedKey = KeyImpl.closeable("my-key", keyBytes);
+    }
+
+    @TearDown
+    public void tearDown() {
+      sharedKey.close();
+    }
+  }
+
+  /**
+   * Allocating a buffer and zeroizing it.
+   */
+  @Benchmark
+  public byte[] zeroizer() {
+    try (Zeroizer zeroizer = new Zeroizer()) {
+      return zeroizer.add(new byte[64]);
+    }
+  }
+
+  /**
+   * Creating a key and closing it, which zeroizes the material
+   * and unregisters it from the cleaner.
+   */
+  @Benchmark
+  public String closeableKey(KeyState state) {
+    try (Keyring.Key key = KeyImpl.closeable("my-key", state.keyBytes)) {
+      return key.id();
+    }
+  }
+
+  /**
+   * Creating a key that is never closed, so the cleaner zeroizes it
+   * after garbage collection.
+   */
+  @Benchmark
+  public Keyring.Key unclosedKey(KeyState state) {
+    return Keyring.Key.create("my-key", state.keyBytes);
+  }
+
+  /**
+   * Obtaining and releasing a handle to existing key material,
+   * as caching keyrings do on every lookup.
+   */
+  @Benchmark
+  public String retainAndClose(KeyState state) {
+    try (Keyring.Key key = state.sharedKey.retain()) {
+      return key.id();
+    }
+  }
+}
@@ -8,7 +8,6 @@
 package com.couchbase.client.encryption;
 
 import com.couchbase.client.encryption.internal.AeadAes256CbcHmacSha512Cipher;
-import com.couchbase.client.encryption.internal.Zeroizer;
 
 import java.security.Provider;
 import java.security.SecureRandom;
@@ -109,13 +108,26 @@ public class AeadAes256CbcHmacSha512Provider {
    * Returns a new encrypter that uses the encryption key with the given name.
    */
   public Encrypter encrypterForKey(String keyName) {
-    return plaintext -> {
-      try (Zeroizer zeroizer = new Zeroizer()) {
-        final Keyring.Key key = keyring.getOrThrow(keyName);
-        return EncryptionResult.forAlgorithm(ALGORITHM)
-            .put("kid", key.id())
-            .put("ciphertext", cipher.encrypt(
-                zeroizer.add(key.bytes()), plaintext, NO_ASSOCIATED_DATA));
+    return new Encrypter() {
+      @Override
+      public EncryptionResult encrypt(byte[] plaintext) throws Exception {
+        try (Keyring.Key key = keyring.acquireOrThrow(keyName)) {
+          final byte[] ciphertext = key.withBytes(keyBytes -> cipher.encrypt(keyBytes, plaintext, NO_ASSOCIATED_DATA));
+          return EncryptionResult.forAlgorithm(ALGORITHM)
+              .put("kid", key.id())
+              .put("ciphertext", ciphertext);
+        }
+      }
+
+      @Override
+      public boolean isCurrent(EncryptionResult encrypted) {
+        if (!ALGORITHM.equals(encrypted.getAlgorithm())) {
+          return false;
+        }
+        // For a rotating keyring, the key ID includes the primary version.
+        try (Keyring.Key key = keyring.acquireOrThrow(keyName)) {
+          return key.id().equals(encrypted.getString("kid"));
+        }
       }
     };
   }
@@ -132,9 +144,9 @@ public class AeadAes256CbcHmacSha512Provider {
 
       @Override
       public byte[] decrypt(EncryptionResult encrypted) throws Exception {
-        try (Zeroizer zeroizer = new Zeroizer()) {
-          final Keyring.Key key = keyring.getOrThrow(encrypted.getString("kid"));
-          return cipher.decrypt(zeroizer.add(key.bytes()), encrypted.getBytes("ciphertext"), NO_ASSOCIATED_DATA);
+        final byte[] ciphertext = encrypted.getBytes("ciphertext");
+        try (Keyring.Key key = keyring.acquireOrThrow(encrypted.getString("kid"))) {
+          return key.withBytes(keyBytes -> cipher.decrypt(keyBytes, ciphertext, NO_ASSOCIATED_DATA));
         }
       }
     };
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.internal.Zeroizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A decrypter decorator that remembers the plaintext of recently decrypted messages.
+ * <p>
+ * Useful for documents that are read far more often than they are written,
+ * like configuration or reference data. A cache hit skips the key lookup,
+ * authentication, and decryption.
+ * <p>
+ * Cached plaintext is keyed by a SHA-256 digest of the encryption result's attributes
+ * (algorithm, key ID, ciphertext, and any algorithm-specific parameters).
+ * Plaintext is zeroized when evicted. Concurrent requests to decrypt the same
+ * message are coalesced, so only one decryption is performed.
+ * <p>
+ * Create new instances by calling {@link #builder()}.
+ * <p>
+ * <b>Caution:</b> Cached plaintext remains available until it expires or is evicted,
+ * even if the key used to encrypt it is removed from the keyring in the meantime.
+ * Choose an expiry that is consistent with how quickly key revocation must take effect.
+ */
+public class CachingDecrypter implements Decrypter {
+  private final Decrypter wrapped;
+  private final Cache<Fingerprint, CachedPlaintext> cache;
+  private final boolean offHeap;
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private Optional<Long> maximumSize = Optional.empty();
+    private Optional<Long> maximumWeight = Optional.empty();
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+    private boolean offHeap;
+
+    /**
+     * Limits the number of cached messages.
+     * <p>
+     * Optional. Mutually exclusive with {@link #maximumWeight(long)}.
+     * If neither is called, the cache holds at most 1000 messages.
+     */
+    public Builder maximumSize(long maximumSize) {
+      if (maximumSize < 0) {
+        throw new IllegalArgumentException("Maximum size must be non-negative, but got " + maximumSize);
+      }
+      this.maximumSize = Optional.of(maximumSize);
+      return this;
+    }
+
+    /**
+     * Limits the total length in bytes of cached plaintext.
+     * <p>
+     * Optional. Mutually exclusive with {@link #maximumSize(long)}.
+     */
+    public Builder maximumWeight(long maximumBytes) {
+      if (maximumBytes < 0) {
+        throw new IllegalArgumentException("Maximum weight must be non-negative, but got " + maximumBytes);
+      }
+      this.maximumWeight = Optional.of(maximumBytes);
+      return this;
+    }
+
+    /**
+     * Sets how long plaintext remains cached after it was decrypted.
+     * <p>
+     * Optional. If not called, defaults to 5 minutes.
+     */
+    public Builder expireAfterWrite(Duration expiry) {
+      this.expireAfterWrite = requireNonNull(expiry);
+      return this;
+    }
+
+    /**
+     * If true, cached plaintext is stored in direct (off-heap) memory
+     * so it does not count against the Java heap, and is not copied
+     * around by the garbage collector.
+     * <p>
+     * Optional. If not called, plaintext is stored on the heap.
+     */
+    public Builder offHeap(boolean offHeap) {
+      this.offHeap = offHeap;
+      return this;
+    }
+
+    /**
+     * Returns a new decrypter that caches the results of the given decrypter.
+     */
+    public CachingDecrypter build(Decrypter wrapped) {
+      if (maximumSize.isPresent() && maximumWeight.isPresent()) {
+        throw new IllegalStateException("Maximum size and maximum weight are mutually exclusive.");
+      }
+
+      Caffeine<Fingerprint, CachedPlaintext> builder = Caffeine.newBuilder()
+          .expireAfterWrite(expireAfterWrite)
+          .removalListener((Fingerprint k, CachedPlaintext v, RemovalCause cause) -> {
+            if (v != null) {
+              v.zeroize();
+            }
+          });
+
+      if (maximumWeight.isPresent()) {
+        builder.maximumWeight(maximumWeight.get())
+            .weigher((k, v) -> v.length());
+      } else {
+        builder.maximumSize(maximumSize.orElse(1000L));
+      }
+
+      return new CachingDecrypter(wrapped, builder.build(), offHeap);
+    }
+  }
+
+  private CachingDecrypter(Decrypter wrapped, Cache<Fingerprint, CachedPlaintext> cache, boolean offHeap) {
+    this.wrapped = requireNonNull(wrapped);
+    this.cache = requireNonNull(cache);
+    this.offHeap = offHeap;
+  }
+
+  @Override
+  public String algorithm() {
+    return wrapped.algorithm();
+  }
+
+  @Override
+  public byte[] decrypt(EncryptionResult encrypted) throws Exception {
+    final Fingerprint fingerprint = Fingerprint.of(encrypted);
+
+    final CachedPlaintext cached;
+    try {
+      cached = cache.get(fingerprint, ignore -> {
+        try (Zeroizer zeroizer = new Zeroizer()) {
+          final byte[] plaintext = zeroizer.add(wrapped.decrypt(encrypted));
+          return offHeap ? new DirectPlaintext(plaintext) : new HeapPlaintext(plaintext);
+        } catch (RuntimeException e) {
+          throw e;
+        } catch (Exception e) {
+          throw new CheckedExceptionWrapper(e);
+        }
+      });
+    } catch (CheckedExceptionWrapper e) {
+      throw (Exception) e.getCause();
+    }
+
+    final byte[] plaintext = cached.copy();
+    if (plaintext != null) {
+      return plaintext;
+    }
+
+    // Lost a race with eviction; the cached copy was already zeroized.
+    return wrapped.decrypt(encrypted);
+  }
+
+  /**
+   * Discards all cached plaintext.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  @Override
+  public String toString() {
+    return "CachingDecrypter{" +
+        "wrapped=" + wrapped +
+        ", offHeap=" + offHeap +
+        '}';
+  }
+
+  private static class CheckedExceptionWrapper extends RuntimeException {
+    CheckedExceptionWrapper(Exception cause) {
+      super(cause);
+    }
+  }
+
+  /**
+   * SHA-256 digest of an encryption result's attributes.
+   */
+  private static final class Fingerprint {
+    private final byte[] digest;
+    private final int hashCode;
+
+    private Fingerprint(byte[] digest) {
+      this.digest = digest;
+      this.hashCode = Arrays.hashCode(digest);
+    }
+
+    static Fingerprint of(EncryptionResult encrypted) {
+      final MessageDigest md = newSha256();
+
+      // Sort the attributes so the digest doesn't depend on map iteration order.
+      for (Map.Entry<String, Object> e : new TreeMap<>(encrypted.asMap()).entrySet()) {
+        update(md, e.getKey());
+        update(md, String.valueOf(e.getValue()));
+      }
+      return new Fingerprint(md.digest());
+    }
+
+    private static void update(MessageDigest md, String s) {
+      final byte[] bytes = s.getBytes(UTF_8);
+      // Length prefix prevents ambiguity between adjacent values.
+      md.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+      md.update(bytes);
+    }
+
+    private static MessageDigest newSha256() {
+      try {
+        return MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new AssertionError("Every Java platform is required to support SHA-256", e);
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Fingerprint && Arrays.equals(digest, ((Fingerprint) o).digest);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private interface CachedPlaintext {
+    /**
+     * Returns a copy of the plaintext, or null if already zeroized.
+     */
+    byte[] copy();
+
+    int length();
+
+    void zeroize();
+  }
+
+  private static class HeapPlaintext implements CachedPlaintext {
+    private final byte[] bytes;
+    private boolean zeroized;
+
+    HeapPlaintext(byte[] plaintext) {
+      this.bytes = plaintext.clone();
+    }
+
+    @Override
+    public synchronized byte[] copy() {
+      return zeroized ? null : bytes.clone();
+    }
+
+    @Override
+    public int length() {
+      return bytes.length;
+    }
+
+    @Override
+    public synchronized void zeroize() {
+      zeroized = true;
+      Zeroizer.zeroize(bytes);
+    }
+  }
+
+  private static class DirectPlaintext implements CachedPlaintext {
+    private final ByteBuffer buffer;
+    private boolean zeroized;
+
+    DirectPlaintext(byte[] plaintext) {
+      this.buffer = ByteBuffer.allocateDirect(plaintext.length);
+      buffer.put(plaintext);
+    }
+
+    @Override
+    public synchronized byte[] copy() {
+      if (zeroized) {
+        return null;
+      }
+      final byte[] result = new byte[buffer.capacity()];
+      buffer.position(0);
+      buffer.get(result);
+      return result;
+    }
+
+    @Override
+    public int length() {
+      return buffer.capacity();
+    }
+
+    @Override
+    public synchronized void zeroize() {
+      zeroized = true;
+      buffer.position(0);
+      while (buffer.hasRemaining()) {
+        buffer.put((byte) 0);
+      }
+    }
+  }
+}
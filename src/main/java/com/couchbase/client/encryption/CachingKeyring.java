@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.internal.CryptoEvents;
+import com.couchbase.client.encryption.internal.KeyImpl;
+import com.couchbase.client.encryption.internal.TimedEvent;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A keyring decorator that caches "get" results and refreshes them in the background.
+ * <p>
+ * Unlike {@link Keyring#caching}, a lookup does not block when a cached key is due
+ * for a refresh. Instead, the cached key is returned immediately, and the wrapped
+ * keyring is consulted asynchronously using the configured executor.
+ * If the refresh fails, the stale key continues to be served until it expires.
+ * A lookup only blocks if the key is not cached at all, or has expired.
+ * <p>
+ * Missing keys are cached too, with their own (typically shorter) expiry.
+ * <p>
+ * Cached keys are acquired from the wrapped keyring (see {@link Keyring#acquire(String)}),
+ * and closed when evicted or replaced by a refresh. Each call to {@link #acquire(String)}
+ * returns a separate handle, which the caller should close. Keys returned by
+ * {@link #get(String)} do not keep the key material from being zeroized,
+ * and stop working once every acquired handle and the cache entry are closed.
+ * <p>
+ * Create new instances by calling {@link #builder()}.
+ * <p>
+ * If multiple decorators are applied to a keyring, caching should be
+ * the outermost decorator.
+ */
+public class CachingKeyring implements Keyring {
+  private final Keyring wrapped;
+  private final LoadingCache<String, Optional<Key>> cache;
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private Duration refreshAfterWrite = Duration.ofMinutes(1);
+    private Duration expireAfterWrite = Duration.ofHours(1);
+    private Duration negativeExpireAfterWrite = Duration.ofSeconds(10);
+    private long maximumSize = 1000;
+    private Optional<Executor> executor = Optional.empty();
+    private boolean recordStats;
+
+    /**
+     * Sets how long after a key is fetched it becomes eligible for a background refresh.
+     * The refresh is triggered by the first lookup after this time.
+     * <p>
+     * Optional. If not called, defaults to 1 minute.
+     */
+    public Builder refreshAfterWrite(Duration refreshAfterWrite) {
+      this.refreshAfterWrite = requirePositive(refreshAfterWrite);
+      return this;
+    }
+
+    /**
+     * Sets how long after a key is fetched (or successfully refreshed) it is evicted.
+     * This bounds how long a stale key may be served if refreshes keep failing.
+     * <p>
+     * Optional. If not called, defaults to 1 hour.
+     */
+    public Builder expireAfterWrite(Duration expireAfterWrite) {
+      this.expireAfterWrite = requirePositive(expireAfterWrite);
+      return this;
+    }
+
+    /**
+     * Sets how long to remember that the wrapped keyring does not have a key.
+     * <p>
+     * Optional. If not called, defaults to 10 seconds.
+     * Use {@link Duration#ZERO} to disable caching of missing keys.
+     */
+    public Builder negativeExpireAfterWrite(Duration negativeExpireAfterWrite) {
+      requireNonNull(negativeExpireAfterWrite);
+      if (negativeExpireAfterWrite.isNegative()) {
+        throw new IllegalArgumentException("Negative expiry must not be negative, but got " + negativeExpireAfterWrite);
+      }
+      this.negativeExpireAfterWrite = negativeExpireAfterWrite;
+      return this;
+    }
+
+    /**
+     * Limits the number of cached lookup results.
+     * <p>
+     * Optional. If not called, defaults to 1000.
+     */
+    public Builder maximumSize(long maximumSize) {
+      if (maximumSize < 0) {
+        throw new IllegalArgumentException("Maximum size must be non-negative, but got " + maximumSize);
+      }
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * Sets the executor for background refreshes.
+     * <p>
+     * Optional. If not called, defaults to {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+     */
+    public Builder executor(Executor executor) {
+      this.executor = Optional.of(executor);
+      return this;
+    }
+
+    /**
+     * Enables the statistics returned by {@link CachingKeyring#stats()}.
+     * Recording statistics has a small cost on every lookup.
+     * <p>
+     * Optional. If not called, statistics are not recorded.
+     */
+    public Builder recordStats() {
+      this.recordStats = true;
+      return this;
+    }
+
+    /**
+     * Returns a new keyring that caches the results of the given keyring.
+     */
+    public CachingKeyring build(Keyring wrapped) {
+      requireNonNull(wrapped);
+
+      if (refreshAfterWrite.compareTo(expireAfterWrite) >= 0) {
+        throw new IllegalStateException("Refresh interval (" + refreshAfterWrite + ") must be shorter than expiry (" + expireAfterWrite + ").");
+      }
+
+      final long positiveNanos = expireAfterWrite.toNanos();
+      final long negativeNanos = negativeExpireAfterWrite.toNanos();
+
+      Caffeine<String, Optional<Key>> builder = Caffeine.newBuilder()
+          .removalListener((String keyId, Optional<Key> key, RemovalCause cause) -> {
+            if (key != null) {
+              key.ifPresent(Key::close);
+            }
+          })
+          .maximumSize(maximumSize)
+          .refreshAfterWrite(refreshAfterWrite)
+          .expireAfter(new Expiry<String, Optional<Key>>() {
+            @Override
+            public long expireAfterCreate(String key, Optional<Key> value, long currentTime) {
+              return value.isPresent() ? positiveNanos : negativeNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, Optional<Key> value, long currentTime, long currentDuration) {
+              return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, Optional<Key> value, long currentTime, long currentDuration) {
+              return currentDuration;
+            }
+          });
+
+      executor.ifPresent(builder::executor);
+      if (recordStats) {
+        builder.recordStats();
+      }
+
+      return new CachingKeyring(wrapped, builder.build(new CacheLoader<String, Optional<Key>>() {
+        @Override
+        public Optional<Key> load(String keyId) {
+          return getOnCacheMiss(wrapped, keyId);
+        }
+
+        @Override
+        public Optional<Key> reload(String keyId, Optional<Key> oldValue) {
+          return wrapped.acquire(keyId);
+        }
+      }));
+    }
+
+    private static Duration requirePositive(Duration d) {
+      requireNonNull(d);
+      if (d.isNegative() || d.isZero()) {
+        throw new IllegalArgumentException("Duration must be positive, but got " + d);
+      }
+      return d;
+    }
+  }
+
+  /**
+   * Acquires a key that was not in a cache, recording a JFR event.
+   */
+  static Optional<Key> getOnCacheMiss(Keyring wrapped, String keyId) {
+    final TimedEvent event = CryptoEvents.beginKeyCacheMiss(wrapped, keyId);
+    boolean found = false;
+    try {
+      final Optional<Key> result = wrapped.acquire(keyId);
+      found = result.isPresent();
+      return result;
+    } finally {
+      event.complete(found);
+    }
+  }
+
+  private CachingKeyring(Keyring wrapped, LoadingCache<String, Optional<Key>> cache) {
+    this.wrapped = requireNonNull(wrapped);
+    this.cache = requireNonNull(cache);
+  }
+
+  @Override
+  public Optional<Key> get(String keyId) {
+    return lookup(keyId, false);
+  }
+
+  @Override
+  public Optional<Key> acquire(String keyId) {
+    return lookup(keyId, true);
+  }
+
+  private Optional<Key> lookup(String keyId, boolean acquire) {
+    while (true) {
+      final Optional<Key> cached = cache.get(keyId);
+      if (!cached.isPresent()) {
+        return cached;
+      }
+      final Key handle = acquire ? KeyImpl.tryRetain(cached.get()) : KeyImpl.tryPin(cached.get());
+      if (handle != null) {
+        return Optional.of(handle);
+      }
+      // evicted or replaced (and closed) since we looked it up
+      cache.asMap().remove(keyId, cached);
+    }
+  }
+
+  /**
+   * Discards the cached result for the given key ID.
+   */
+  public void invalidate(String keyId) {
+    cache.invalidate(keyId);
+  }
+
+  /**
+   * Discards all cached results.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Returns a snapshot of the cache statistics. All values are zero
+   * unless statistics were enabled by calling {@link Builder#recordStats()}.
+   */
+  public Stats stats() {
+    return new Stats(cache.stats());
+  }
+
+  /**
+   * A point-in-time snapshot of cache statistics.
+   */
+  public static class Stats {
+    private final CacheStats stats;
+
+    private Stats(CacheStats stats) {
+      this.stats = requireNonNull(stats);
+    }
+
+    /**
+     * Number of lookups that returned a cached result.
+     */
+    public long hitCount() {
+      return stats.hitCount();
+    }
+
+    /**
+     * Number of lookups that had to wait for the wrapped keyring.
+     */
+    public long missCount() {
+      return stats.missCount();
+    }
+
+    /**
+     * Ratio of hits to lookups, or 1.0 if there were no lookups.
+     */
+    public double hitRate() {
+      return stats.hitRate();
+    }
+
+    /**
+     * Number of times the wrapped keyring was consulted successfully,
+     * including background refreshes.
+     */
+    public long loadSuccessCount() {
+      return stats.loadSuccessCount();
+    }
+
+    /**
+     * Number of times the wrapped keyring threw an exception,
+     * including during background refreshes.
+     */
+    public long loadFailureCount() {
+      return stats.loadFailureCount();
+    }
+
+    /**
+     * Total time spent consulting the wrapped keyring.
+     */
+    public Duration totalLoadTime() {
+      return Duration.ofNanos(stats.totalLoadTime());
+    }
+
+    /**
+     * Average time spent consulting the wrapped keyring.
+     */
+    public Duration averageLoadPenalty() {
+      return Duration.ofNanos((long) stats.averageLoadPenalty());
+    }
+
+    /**
+     * Number of results evicted because of size or expiry.
+     */
+    public long evictionCount() {
+      return stats.evictionCount();
+    }
+
+    @Override
+    public String toString() {
+      return stats.toString();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "CachingKeyring{" +
+        "wrapped=" + wrapped +
+        '}';
+  }
+}
@@ -7,15 +7,30 @@
 
 package com.couchbase.client.encryption;
 
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.RequestTracer;
+import com.couchbase.client.core.cnc.metrics.NoopMeter;
+import com.couchbase.client.core.cnc.tracing.NoopRequestTracer;
 import com.couchbase.client.core.encryption.CryptoManager;
 import com.couchbase.client.encryption.errors.DecrypterNotFoundException;
 import com.couchbase.client.encryption.errors.DecryptionFailureException;
 import com.couchbase.client.encryption.errors.EncrypterNotFoundException;
 import com.couchbase.client.encryption.errors.EncryptionFailureException;
+import com.couchbase.client.encryption.internal.CryptoEvents;
+import com.couchbase.client.encryption.internal.CryptoMetrics;
+import com.couchbase.client.encryption.internal.CryptoOperationEvent;
+import com.couchbase.client.encryption.internal.CryptoTracing;
 import com.couchbase.client.encryption.internal.LegacyAesDecrypter;
 import com.couchbase.client.encryption.internal.LegacyRsaDecrypter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -23,6 +38,7 @@ import static com.couchbase.client.encryption.internal.LangHelper.defaultIfNull;
 import static com.couchbase.client.encryption.internal.LangHelper.isNullOrEmpty;
 import static com.couchbase.client.encryption.internal.LangHelper.removeStart;
 import static com.couchbase.client.encryption.internal.LangHelper.throwIfInstanceOf;
+import static com.couchbase.client.encryption.internal.Zeroizer.zeroize;
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Objects.requireNonNull;
 
@@ -32,12 +48,20 @@ import static java.util.Objects.requireNonNull;
  * New instances may be created via the builder returned by {@link #builder()}.
  */
 public class DefaultCryptoManager implements CryptoManager {
+  private static final Logger log = LoggerFactory.getLogger(DefaultCryptoManager.class);
+
   private final String encryptedFieldNamePrefix;
   private final Map<String, Encrypter> aliasToEncrypter;
   private final Map<String, Decrypter> algorithmToDecrypter;
+  private final CryptoMetrics metrics;
+  private final CryptoTracing tracing;
+  private final SlowOperationReporter slowOperationReporter; // nullable
 
   public static class Builder {
     private String encryptedFieldNamePrefix = DEFAULT_ENCRYPTED_FIELD_NAME_PREFIX;
+    private Meter meter = NoopMeter.INSTANCE;
+    private RequestTracer requestTracer = NoopRequestTracer.INSTANCE;
+    private SlowOperationReporter slowOperationReporter;
     private final Map<String, Decrypter> algorithmToDecrypter = new HashMap<>();
     private final Map<String, Encrypter> aliasToEncrypter = new HashMap<>();
 
@@ -129,19 +153,73 @@ public class DefaultCryptoManager implements CryptoManager {
       return this;
     }
 
+    /**
+     * Specify the meter for recording encryption and decryption metrics.
+     * To send them wherever the SDK sends its own metrics, pass the meter
+     * from the cluster environment: {@code cluster.environment().meter()}.
+     * <p>
+     * For each encrypter alias, and for each decrypter algorithm, the crypto manager records:
+     * <ul>
+     * <li>{@value CryptoMetrics#METER_OPERATIONS} - number of operations, including failures
+     * <li>{@value CryptoMetrics#METER_DURATION} - duration of each operation, in microseconds
+     * <li>{@value CryptoMetrics#METER_BYTES_IN} and {@value CryptoMetrics#METER_BYTES_OUT} -
+     * plaintext bytes and Base64 ciphertext characters
+     * <li>{@value CryptoMetrics#METER_FAILURES} - failed operations, tagged with the exception type
+     * </ul>
+     * <p>
+     * Optional. If not called, defaults to {@link NoopMeter}, which records nothing.
+     */
+    public Builder meter(Meter meter) {
+      this.meter = requireNonNull(meter);
+      return this;
+    }
+
+    /**
+     * Specify the tracer for recording a span around each encryption and decryption.
+     * To send them wherever the SDK sends its own spans, pass the tracer
+     * from the cluster environment: {@code cluster.environment().requestTracer()}.
+     * <p>
+     * Spans are tagged with the algorithm, key ID, and payload size.
+     * To also see key lookups as child spans, decorate the keyring with
+     * {@link Keyring#traced(RequestTracer, Keyring)} before giving it to a provider.
+     * <p>
+     * The {@link CryptoManager} methods called by the SDK have no parent span.
+     * To make the crypto span a child of your own span, call
+     * {@link #encrypt(byte[], String, RequestSpan)} or {@link #decrypt(Map, RequestSpan)}.
+     * <p>
+     * Optional. If not called, defaults to {@link NoopRequestTracer}, which disables tracing.
+     */
+    public Builder requestTracer(RequestTracer requestTracer) {
+      this.requestTracer = requireNonNull(requestTracer);
+      return this;
+    }
+
+    /**
+     * Specify a reporter for encryptions and decryptions slower than a threshold.
+     * To see how much of a slow operation was spent looking up keys, decorate the keyring
+     * with {@link SlowOperationReporter#timed(Keyring)} before giving it to a provider.
+     * <p>
+     * The crypto manager does not close the reporter.
+     * <p>
+     * Optional. If not called, slow operations are not reported.
+     */
+    public Builder slowOperationReporter(SlowOperationReporter slowOperationReporter) {
+      this.slowOperationReporter = requireNonNull(slowOperationReporter);
+      return this;
+    }
+
     public DefaultCryptoManager build() {
-      return new DefaultCryptoManager(algorithmToDecrypter, aliasToEncrypter, encryptedFieldNamePrefix);
+      return new DefaultCryptoManager(this);
     }
   }
 
-  private DefaultCryptoManager(
-      Map<String, Decrypter> algorithmToDecrypter,
-      Map<String, Encrypter> aliasToEncrypter,
-      String encryptedFieldNamePrefix) {
-
-    this.algorithmToDecrypter = unmodifiableMap(new HashMap<>(algorithmToDecrypter));
-    this.aliasToEncrypter = unmodifiableMap(new HashMap<>(aliasToEncrypter));
-    this.encryptedFieldNamePrefix = requireNonNull(encryptedFieldNamePrefix);
+  private DefaultCryptoManager(Builder builder) {
+    this.algorithmToDecrypter = unmodifiableMap(new HashMap<>(builder.algorithmToDecrypter));
+    this.aliasToEncrypter = unmodifiableMap(new HashMap<>(builder.aliasToEncrypter));
+    this.encryptedFieldNamePrefix = requireNonNull(builder.encryptedFieldNamePrefix);
+    this.metrics = new CryptoMetrics(builder.meter, this.aliasToEncrypter.keySet(), this.algorithmToDecrypter.keySet());
+    this.tracing = CryptoTracing.create(builder.requestTracer);
+    this.slowOperationReporter = builder.slowOperationReporter;
   }
 
   public static Builder builder() {
@@ -150,27 +228,284 @@ public class DefaultCryptoManager implements CryptoManager {
 
   @Override
   public Map<String, Object> encrypt(byte[] plaintext, String encrypterAlias) {
-    try {
-      final Encrypter encrypter = getEncrypterByAlias(encrypterAlias);
-      final EncryptionResult encrypted = encrypter.encrypt(plaintext);
+    return encrypt(plaintext, encrypterAlias, null);
+  }
+
+  /**
+   * Like {@link #encrypt(byte[], String)}, but if tracing is enabled,
+   * records the encryption span as a child of the given span.
+   *
+   * @param parentSpan parent of the encryption span, or null to use
+   * the crypto span in progress on the current thread, if any.
+   * @see Builder#requestTracer(RequestTracer)
+   */
+  public Map<String, Object> encrypt(byte[] plaintext, String encrypterAlias, RequestSpan parentSpan) {
+    final long startNanos = System.nanoTime();
+    final String alias = defaultIfNull(encrypterAlias, DEFAULT_ENCRYPTER_ALIAS);
+    final long keyLookupBaseline = slowOperationReporter == null ? 0 : slowOperationReporter.begin();
+    final CryptoOperationEvent event = CryptoEvents.beginEncrypt(alias);
+    try (CryptoTracing.Scope scope = tracing.start(CryptoTracing.SPAN_ENCRYPT, parentSpan)) {
+      final EncryptionResult encrypted;
+      try {
+        encrypted = getEncrypterByAlias(alias).encrypt(plaintext);
+      } catch (Exception e) {
+        recordEncryptionFailure(alias, startNanos, keyLookupBaseline, event, scope, plaintext, e);
+        throwIfInstanceOf(e, EncryptionFailureException.class);
+        throw new EncryptionFailureException("Encryption failed; " + e.getMessage(), e);
+      }
+      recordEncryption(alias, startNanos, keyLookupBaseline, event, scope, plaintext, encrypted);
       return encrypted.asMap();
+    }
+  }
+
+  @Override
+  public byte[] decrypt(Map<String, Object> encryptedNode) {
+    return decrypt(encryptedNode, null);
+  }
+
+  /**
+   * Like {@link #decrypt(Map)}, but if tracing is enabled,
+   * records the decryption span as a child of the given span.
+   *
+   * @param parentSpan parent of the decryption span, or null to use
+   * the crypto span in progress on the current thread, if any.
+   * @see Builder#requestTracer(RequestTracer)
+   */
+  public byte[] decrypt(Map<String, Object> encryptedNode, RequestSpan parentSpan) {
+    final long startNanos = System.nanoTime();
+    final long keyLookupBaseline = slowOperationReporter == null ? 0 : slowOperationReporter.begin();
+    final CryptoOperationEvent event = CryptoEvents.beginDecrypt();
+    try (CryptoTracing.Scope scope = tracing.start(CryptoTracing.SPAN_DECRYPT, parentSpan)) {
+      try {
+        scope.decrypting(encryptedNode);
+      } catch (RuntimeException e) {
+        logBookkeepingFailure("tracing", e);
+      }
+      final EncryptionResult encrypted;
+      final byte[] plaintext;
+      try {
+        encrypted = EncryptionResult.fromMap(encryptedNode);
+        plaintext = getDecrypter(encrypted).decrypt(encrypted);
+      } catch (Exception e) {
+        recordDecryptionFailure(startNanos, keyLookupBaseline, event, scope, encryptedNode, e);
+        throwIfInstanceOf(e, DecryptionFailureException.class);
+        throw new DecryptionFailureException("Decryption failed; " + e.getMessage(), e);
+      }
+      recordDecryption(startNanos, keyLookupBaseline, event, encryptedNode, encrypted, plaintext);
+      return plaintext;
+    }
+  }
+
+  // Metrics, tracing, slow operation reports and JFR events are recorded outside
+  // the crypto try block, and each is guarded separately, so a failing meter or
+  // tracer neither fails the operation nor gets counted as a crypto failure.
+
+  private void recordEncryption(String alias, long startNanos, long keyLookupBaseline, CryptoOperationEvent event,
+                                CryptoTracing.Scope scope, byte[] plaintext, EncryptionResult encrypted) {
+    try {
+      metrics.encrypted(alias, startNanos, plaintext, encrypted);
+    } catch (RuntimeException e) {
+      logBookkeepingFailure("metrics", e);
+    }
+    try {
+      scope.encrypted(alias, plaintext, encrypted);
+    } catch (RuntimeException e) {
+      logBookkeepingFailure("tracing", e);
+    }
+    try {
+      reportIfSlow(startNanos, keyLookupBaseline, plaintext, encrypted, true);
+      completeEncryptEvent(event, plaintext, encrypted);
+    } catch (RuntimeException e) {
+      logBookkeepingFailure("diagnostics", e);
+    }
+  }
+
+  private void recordEncryptionFailure(String alias, long startNanos, long keyLookupBaseline, CryptoOperationEvent event,
+                                       CryptoTracing.Scope scope, byte[] plaintext, Exception failure) {
+    try {
+      metrics.encryptionFailed(alias, startNanos, failure);
+    } catch (RuntimeException e) {
+      logBookkeepingFailure("metrics", e);
+    }
+    try {
+      scope.failed(failure);
+    } catch (RuntimeException e) {
+      logBookkeepingFailure("tracing", e);
+    }
+    try {
+      reportIfSlow(startNanos, keyLookupBaseline, plaintext, null, false);
+      completeEncryptEvent(event, plaintext, null);
+    } catch (RuntimeException e) {
+      logBookkeepingFailure("diagnostics", e);
+    }
+  }
+
+  private void recordDecryption(long startNanos, long keyLookupBaseline, CryptoOperationEvent event,
+                                Map<String, Object> encryptedNode, EncryptionResult encrypted, byte[] plaintext) {
+    try {
+      metrics.decrypted(encrypted.getAlgorithm(), startNanos, encryptedNode, plaintext);
+    } catch (RuntimeException e) {
+      logBookkeepingFailure("metrics", e);
+    }
+    try {
+      reportIfSlow(startNanos, keyLookupBaseline, encryptedNode, true);
+      completeDecryptEvent(event, encryptedNode, plaintext.length, true);
+    } catch (RuntimeException e) {
+      logBookkeepingFailure("diagnostics", e);
+    }
+  }
+
+  private void recordDecryptionFailure(long startNanos, long keyLookupBaseline, CryptoOperationEvent event,
+                                       CryptoTracing.Scope scope, Map<String, Object> encryptedNode, Exception failure) {
+    try {
+      metrics.decryptionFailed(stringAttributeOrNull(encryptedNode, "alg"), startNanos, failure);
+    } catch (RuntimeException e) {
+      logBookkeepingFailure("metrics", e);
+    }
+    try {
+      scope.failed(failure);
+    } catch (RuntimeException e) {
+      logBookkeepingFailure("tracing", e);
+    }
+    try {
+      reportIfSlow(startNanos, keyLookupBaseline, encryptedNode, false);
+      completeDecryptEvent(event, encryptedNode, -1, false);
+    } catch (RuntimeException e) {
+      logBookkeepingFailure("diagnostics", e);
+    }
+  }
+
+  private static void logBookkeepingFailure(String what, RuntimeException e) {
+    log.warn("Failed to record crypto operation {}; the operation itself was not affected.", what, e);
+  }
 
+  private static void completeEncryptEvent(CryptoOperationEvent event, byte[] plaintext, EncryptionResult encrypted) {
+    if (event == CryptoOperationEvent.NOOP) {
+      return;
+    }
+    final String ciphertext = encrypted == null ? null : encrypted.getString("ciphertext");
+    event.complete(
+        encrypted == null ? null : encrypted.getAlgorithm(),
+        encrypted == null ? null : encrypted.getString("kid"),
+        plaintext == null ? -1 : plaintext.length,
+        ciphertext == null ? -1 : ciphertext.length(),
+        encrypted != null);
+  }
+
+  private static void completeDecryptEvent(CryptoOperationEvent event, Map<String, Object> encryptedNode, long plaintextLength, boolean succeeded) {
+    if (event == CryptoOperationEvent.NOOP) {
+      return;
+    }
+    final String ciphertext = stringAttributeOrNull(encryptedNode, "ciphertext");
+    event.complete(
+        stringAttributeOrNull(encryptedNode, "alg"),
+        stringAttributeOrNull(encryptedNode, "kid"),
+        ciphertext == null ? -1 : ciphertext.length(),
+        plaintextLength,
+        succeeded);
+  }
+
+  private void reportIfSlow(long startNanos, long keyLookupBaseline, byte[] plaintext, EncryptionResult encrypted, boolean succeeded) {
+    if (slowOperationReporter != null) {
+      slowOperationReporter.end(SlowOperationReporter.ENCRYPT, startNanos, keyLookupBaseline,
+          encrypted == null ? null : encrypted.getAlgorithm(),
+          encrypted == null ? null : encrypted.getString("kid"),
+          plaintext == null ? -1 : plaintext.length,
+          succeeded);
+    }
+  }
+
+  private void reportIfSlow(long startNanos, long keyLookupBaseline, Map<String, Object> encryptedNode, boolean succeeded) {
+    if (slowOperationReporter != null) {
+      final String ciphertext = stringAttributeOrNull(encryptedNode, "ciphertext");
+      slowOperationReporter.end(SlowOperationReporter.DECRYPT, startNanos, keyLookupBaseline,
+          stringAttributeOrNull(encryptedNode, "alg"),
+          stringAttributeOrNull(encryptedNode, "kid"),
+          ciphertext == null ? -1 : ciphertext.length(),
+          succeeded);
+    }
+  }
+
+  /**
+   * Decrypts the given node and encrypts the plaintext using the encrypter
+   * registered under the given alias, without exposing the plaintext to the caller.
+   * The intermediate plaintext is zeroized.
+   * <p>
+   * Useful for re-encrypting existing data after rotating a key.
+   *
+   * @param encrypterAlias alias of the target encrypter, or null for the default encrypter
+   * @return the re-encrypted node, or the given node (same instance) if the target encrypter
+   * says the node is already current.
+   * @see Encrypter#isCurrent(EncryptionResult)
+   */
+  public Map<String, Object> reencrypt(Map<String, Object> encryptedNode, String encrypterAlias) {
+    final Encrypter encrypter = getEncrypterByAlias(encrypterAlias);
+    final EncryptionResult encrypted = EncryptionResult.fromMap(encryptedNode);
+    return isCurrent(encrypter, encrypted) ? encryptedNode : reencrypt(encrypted, encrypter);
+  }
+
+  /**
+   * Like {@link #reencrypt(Map, String)}, but for many nodes at once.
+   * <p>
+   * Nodes are processed in groups that share an algorithm and key ID,
+   * so the target encrypter is asked whether a group is current only once,
+   * and each source key is used for consecutive decryptions.
+   *
+   * @return the results, in the same order as the given nodes
+   */
+  public List<Map<String, Object>> reencryptAll(List<Map<String, Object>> encryptedNodes, String encrypterAlias) {
+    final Encrypter encrypter = getEncrypterByAlias(encrypterAlias);
+
+    final Map<List<Object>, List<Integer>> groups = new LinkedHashMap<>();
+    for (int i = 0; i < encryptedNodes.size(); i++) {
+      final Map<String, Object> node = encryptedNodes.get(i);
+      groups.computeIfAbsent(Arrays.asList(node.get("alg"), node.get("kid")), k -> new ArrayList<>()).add(i);
+    }
+
+    final List<Map<String, Object>> result = new ArrayList<>(encryptedNodes);
+    for (List<Integer> group : groups.values()) {
+      final EncryptionResult first = EncryptionResult.fromMap(encryptedNodes.get(group.get(0)));
+      if (isCurrent(encrypter, first)) {
+        continue;
+      }
+      for (int i : group) {
+        result.set(i, reencrypt(EncryptionResult.fromMap(encryptedNodes.get(i)), encrypter));
+      }
+    }
+    return result;
+  }
+
+  private static String stringAttributeOrNull(Map<String, Object> encryptedNode, String name) {
+    final Object value = encryptedNode == null ? null : encryptedNode.get(name);
+    return value instanceof String ? (String) value : null;
+  }
+
+  private static boolean isCurrent(Encrypter encrypter, EncryptionResult encrypted) {
+    try {
+      return encrypter.isCurrent(encrypted);
     } catch (Exception e) {
       throwIfInstanceOf(e, EncryptionFailureException.class);
       throw new EncryptionFailureException("Encryption failed; " + e.getMessage(), e);
     }
   }
 
-  @Override
-  public byte[] decrypt(Map<String, Object> encryptedNode) {
+  private Map<String, Object> reencrypt(EncryptionResult encrypted, Encrypter encrypter) {
+    final byte[] plaintext;
     try {
-      final EncryptionResult encrypted = EncryptionResult.fromMap(encryptedNode);
-      return getDecrypter(encrypted).decrypt(encrypted);
-
+      plaintext = getDecrypter(encrypted).decrypt(encrypted);
     } catch (Exception e) {
       throwIfInstanceOf(e, DecryptionFailureException.class);
       throw new DecryptionFailureException("Decryption failed; " + e.getMessage(), e);
     }
+
+    try {
+      return encrypter.encrypt(plaintext).asMap();
+    } catch (Exception e) {
+      throwIfInstanceOf(e, EncryptionFailureException.class);
+      throw new EncryptionFailureException("Encryption failed; " + e.getMessage(), e);
+    } finally {
+      zeroize(plaintext);
+    }
   }
 
   @Override
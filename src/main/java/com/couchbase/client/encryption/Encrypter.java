@@ -22,4 +22,15 @@ public interface Encrypter {
    * @param plaintext the bytes to encrypt
    */
   EncryptionResult encrypt(byte[] plaintext) throws Exception;
+
+  /**
+   * Returns true if the given message was encrypted the same way this encrypter
+   * would encrypt it now (same algorithm and same key version), in which case
+   * there is no benefit in re-encrypting it.
+   * <p>
+   * The default implementation returns false.
+   */
+  default boolean isCurrent(EncryptionResult encrypted) {
+    return false;
+  }
 }
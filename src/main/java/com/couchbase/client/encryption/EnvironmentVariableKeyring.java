@@ -7,26 +7,48 @@
 
 package com.couchbase.client.encryption;
 
+import com.couchbase.client.encryption.internal.KeyImpl;
+import com.couchbase.client.encryption.internal.Zeroizer;
+
 import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+import static java.util.Collections.unmodifiableMap;
 import static java.util.Objects.requireNonNull;
 
 /**
  * Reads keys from environment variables.
  * <p>
  * Environment variable value must be the Base64-encoded form of the key.
+ * <p>
+ * Keyrings created with a public constructor read and decode the
+ * environment variable on every lookup. A key obtained by calling
+ * {@link #acquire(String)} may be closed to zeroize its material immediately.
+ * <p>
+ * Since environment variables cannot change while the JVM is running,
+ * it's usually better to use one of the {@code snapshot} factory methods,
+ * which read and decode the relevant variables once.
  */
 public class EnvironmentVariableKeyring implements Keyring {
   private final Function<String, String> keyNameToEnvironmentVariableName;
 
+  // Snapshot mode only; otherwise null.
+  // Each variable is decoded into a key once, when the snapshot is taken.
+  // A lookup under a different key name gets a handle that shares the key material.
+  private final Map<String, KeyImpl> variableNameToKey;
+  private final Map<String, Key> keyNameToKey;
+
   /**
    * Derives environment variable name from key name by replacing
    * '.' and '-' characters in the key name with underscores.
    */
   public EnvironmentVariableKeyring() {
-    this(keyName -> keyName.replaceAll("[.-]", "_"));
+    this(EnvironmentVariableKeyring::defaultVariableName);
   }
 
   /**
@@ -34,13 +56,121 @@ public class EnvironmentVariableKeyring implements Keyring {
    * the given mapping function.
    */
   public EnvironmentVariableKeyring(Function<String, String> keyNameToEnvironmentVariableName) {
+    this(keyNameToEnvironmentVariableName, null);
+  }
+
+  private EnvironmentVariableKeyring(Function<String, String> keyNameToEnvironmentVariableName, Map<String, KeyImpl> variableNameToKey) {
     this.keyNameToEnvironmentVariableName = requireNonNull(keyNameToEnvironmentVariableName);
+    this.variableNameToKey = variableNameToKey;
+    this.keyNameToKey = variableNameToKey == null ? null : new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns a keyring with the given keys, read from environment variables
+   * whose names are derived by replacing '.' and '-' characters in the key name
+   * with underscores.
+   * <p>
+   * Keys whose environment variable is not set are not present in the keyring.
+   */
+  public static EnvironmentVariableKeyring snapshot(Collection<String> keyNames) {
+    return snapshot(keyNames, EnvironmentVariableKeyring::defaultVariableName);
+  }
+
+  /**
+   * Returns a keyring with the given keys, read from environment variables
+   * whose names are derived by applying the given mapping function.
+   * <p>
+   * Keys whose environment variable is not set are not present in the keyring.
+   */
+  public static EnvironmentVariableKeyring snapshot(Collection<String> keyNames, Function<String, String> keyNameToEnvironmentVariableName) {
+    return snapshot(System.getenv(), keyNames, keyNameToEnvironmentVariableName);
+  }
+
+  static EnvironmentVariableKeyring snapshot(Map<String, String> env, Collection<String> keyNames, Function<String, String> keyNameToEnvironmentVariableName) {
+    final Map<String, KeyImpl> variables = new HashMap<>();
+    for (String keyName : keyNames) {
+      final String varName = keyNameToEnvironmentVariableName.apply(keyName);
+      final String value = env.get(varName);
+      if (value != null && !variables.containsKey(varName)) {
+        variables.put(varName, decodeKey(keyName, value));
+      }
+    }
+    return new EnvironmentVariableKeyring(keyNameToEnvironmentVariableName, unmodifiableMap(variables));
+  }
+
+  /**
+   * Returns a keyring with the keys stored in all environment variables
+   * whose names start with the given prefix. The variable for a key is located
+   * by applying the given mapping function to the key name.
+   * <p>
+   * For example, if the prefix is "MYAPP_KEY_" and the mapping function is
+   * {@code name -> "MYAPP_KEY_" + name.replace('-', '_')}, then key "my-key"
+   * is read from environment variable "MYAPP_KEY_my_key".
+   */
+  public static EnvironmentVariableKeyring snapshotByPrefix(String variableNamePrefix, Function<String, String> keyNameToEnvironmentVariableName) {
+    return snapshotByPrefix(System.getenv(), variableNamePrefix, keyNameToEnvironmentVariableName);
+  }
+
+  static EnvironmentVariableKeyring snapshotByPrefix(Map<String, String> env, String variableNamePrefix, Function<String, String> keyNameToEnvironmentVariableName) {
+    requireNonNull(variableNamePrefix);
+    final Map<String, KeyImpl> variables = new HashMap<>();
+    env.forEach((varName, value) -> {
+      if (varName.startsWith(variableNamePrefix)) {
+        // The key name is not known until lookup, so use the variable name for now.
+        variables.put(varName, decodeKey(varName, value));
+      }
+    });
+    return new EnvironmentVariableKeyring(keyNameToEnvironmentVariableName, unmodifiableMap(variables));
+  }
+
+  private static String defaultVariableName(String keyName) {
+    return keyName.replace('.', '_').replace('-', '_');
+  }
+
+  private static byte[] decode(String value) {
+    return Base64.getMimeDecoder().decode(value);
+  }
+
+  private static KeyImpl decodeKey(String id, String value) {
+    try (Zeroizer zeroizer = new Zeroizer()) {
+      return new KeyImpl(id, zeroizer.add(decode(value)));
+    }
   }
 
   @Override
   public Optional<Key> get(String keyId) {
+    return keyNameToKey != null ? getFromSnapshot(keyId) : read(keyId, false);
+  }
+
+  @Override
+  public Optional<Key> acquire(String keyId) {
+    return keyNameToKey != null ? getFromSnapshot(keyId) : read(keyId, true);
+  }
+
+  private Optional<Key> read(String keyId, boolean closeable) {
     final String varName = keyNameToEnvironmentVariableName.apply(keyId);
     return Optional.ofNullable(System.getenv(varName))
-        .map(value -> Key.create(keyId, Base64.getMimeDecoder().decode(value)));
+        .<Key>map(value -> {
+          try (Zeroizer zeroizer = new Zeroizer()) {
+            final byte[] keyBytes = zeroizer.add(decode(value));
+            return closeable ? KeyImpl.closeable(keyId, keyBytes) : new KeyImpl(keyId, keyBytes);
+          }
+        });
+  }
+
+  private Optional<Key> getFromSnapshot(String keyId) {
+    final Key cached = keyNameToKey.get(keyId);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+
+    final KeyImpl key = variableNameToKey.get(keyNameToEnvironmentVariableName.apply(keyId));
+    if (key == null) {
+      // Not remembered, since a caller could use arbitrarily many missing key names.
+      return Optional.empty();
+    }
+
+    // Snapshot keys are not closeable, so they can be shared by all callers.
+    return Optional.of(keyNameToKey.computeIfAbsent(keyId, id -> id.equals(key.id()) ? key : key.withId(id)));
   }
 }
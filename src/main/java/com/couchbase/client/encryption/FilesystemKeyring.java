@@ -7,20 +7,30 @@
 
 package com.couchbase.client.encryption;
 
+import com.couchbase.client.encryption.internal.ChangeListeners;
+import com.couchbase.client.encryption.internal.DirectoryWatcher;
+import com.couchbase.client.encryption.internal.KeyImpl;
 import com.couchbase.client.encryption.internal.Zeroizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static java.util.Collections.unmodifiableMap;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
@@ -29,15 +39,32 @@ import static java.util.stream.Collectors.toList;
  * <p>
  * Suitable for containerized environments where secrets can be
  * injected into the filesystem.
+ * <p>
+ * A keyring created with one of the constructors reads the key file
+ * on every lookup. A keyring created by {@link #hotReloading(Path, KeyFileFormat)}
+ * reads all key files up front, and serves lookups from memory.
  */
-public class FilesystemKeyring implements ListableKeyring {
+public class FilesystemKeyring implements ListableKeyring, ObservableKeyring, Closeable {
   private static final Logger log = LoggerFactory.getLogger(FilesystemKeyring.class);
 
+  private static final Duration WATCH_DEBOUNCE = Duration.ofMillis(250);
+  private static final Duration POLL_INTERVAL = Duration.ofSeconds(5);
+
   private final Path basedir;
   private final KeyFileFormat format;
 
+  // Null unless hot reloading.
+  private volatile Map<String, KeyImpl> snapshot;
+  private final DirectoryWatcher watcher;
+  private final ChangeListeners changeListeners = new ChangeListeners();
+
   @Override
   public Collection<String> keyIds() {
+    final Map<String, KeyImpl> currentSnapshot = snapshot;
+    return currentSnapshot != null ? currentSnapshot.keySet() : listKeyFiles();
+  }
+
+  private List<String> listKeyFiles() {
     try {
       return Files.list(basedir)
           .map(path -> path.toFile().getName())
@@ -62,20 +89,90 @@ public class FilesystemKeyring implements ListableKeyring {
   }
 
   public FilesystemKeyring(Path basedir, KeyFileFormat format) {
+    this(basedir, format, false);
+  }
+
+  /**
+   * Returns a keyring that reads all key files into memory immediately,
+   * and serves lookups from this in-memory snapshot.
+   * <p>
+   * When the directory changes, the keyring builds a new snapshot in the background
+   * and then swaps it in atomically. Key material that is superseded (because the
+   * file was modified or removed) is zeroized as soon as every key acquired
+   * from this keyring that refers to it has been closed. Keys obtained by calling
+   * {@link #get(String)} do not delay zeroization, and stop working afterwards.
+   * There is no need to wrap this keyring with {@link Keyring#caching}.
+   * <p>
+   * Call {@link #close()} to stop watching the directory.
+   */
+  public static FilesystemKeyring hotReloading(Path basedir, KeyFileFormat format) {
+    return new FilesystemKeyring(basedir, format, true);
+  }
+
+  /**
+   * @see #hotReloading(Path, KeyFileFormat)
+   */
+  public static FilesystemKeyring hotReloading(String basedir, KeyFileFormat format) {
+    return hotReloading(Paths.get(basedir), format);
+  }
+
+  private FilesystemKeyring(Path basedir, KeyFileFormat format, boolean hotReloading) {
     this.basedir = requireNonNull(basedir).toAbsolutePath();
     this.format = requireNonNull(format);
 
     // fail fast if not a directory, etc.
-    keyIds();
+    listKeyFiles();
+
+    if (hotReloading) {
+      // Start watching before the initial load, so no changes are missed.
+      this.watcher = DirectoryWatcher.start(this.basedir, WATCH_DEBOUNCE, POLL_INTERVAL, this::reload);
+      reload();
+    } else {
+      this.watcher = null;
+    }
   }
 
   @Override
   public Optional<Key> get(String keyId) {
+    return lookup(keyId, false);
+  }
+
+  @Override
+  public Optional<Key> acquire(String keyId) {
+    return lookup(keyId, true);
+  }
+
+  private Optional<Key> lookup(String keyId, boolean acquire) {
+    Map<String, KeyImpl> currentSnapshot = snapshot;
+    while (currentSnapshot != null) {
+      final KeyImpl key = currentSnapshot.get(keyId);
+      if (key == null) {
+        return Optional.empty();
+      }
+      final KeyImpl handle = acquire ? key.tryRetain() : key.tryPin();
+      if (handle != null) {
+        return Optional.of(handle);
+      }
+      // Superseded and closed since we read the snapshot; try again with the new one.
+      // If there's no new one, the key was closed without being replaced,
+      // so read the file instead of spinning.
+      final Map<String, KeyImpl> latestSnapshot = snapshot;
+      if (latestSnapshot == currentSnapshot) {
+        break;
+      }
+      currentSnapshot = latestSnapshot;
+    }
+
+    return readKey(keyId, acquire);
+  }
+
+  private Optional<Key> readKey(String keyId, boolean closeable) {
     final Path keyFile = basedir.resolve(keyId);
 
     try (Zeroizer zeroizer = new Zeroizer()) {
       final byte[] fileBytes = zeroizer.add(Files.readAllBytes(keyFile));
-      return Optional.of(Key.create(keyId, format.decode(fileBytes)));
+      final byte[] keyBytes = zeroizer.add(format.decode(fileBytes));
+      return Optional.of(closeable ? KeyImpl.closeable(keyId, keyBytes) : new KeyImpl(keyId, keyBytes));
 
     } catch (FileNotFoundException | NoSuchFileException e) {
       log.debug("Failed to get key '{}'", keyId, e);
@@ -86,6 +183,87 @@ public class FilesystemKeyring implements ListableKeyring {
     }
   }
 
+  /**
+   * Builds a new snapshot of the key directory and publishes it,
+   * then closes any keys that were superseded.
+   */
+  private synchronized void reload() {
+    final Map<String, KeyImpl> previous = snapshot == null ? new HashMap<>() : snapshot;
+    final Map<String, KeyImpl> next = new HashMap<>();
+
+    final List<String> keyIds;
+    try {
+      keyIds = listKeyFiles();
+    } catch (RuntimeException e) {
+      if (snapshot == null) {
+        throw e;
+      }
+      log.warn("Failed to list key directory {} ; will keep using previous snapshot.", basedir, e);
+      return;
+    }
+
+    for (String keyId : keyIds) {
+      final Path keyFile = basedir.resolve(keyId);
+      if (Files.isDirectory(keyFile)) {
+        continue;
+      }
+
+      final KeyImpl old = previous.get(keyId);
+      try (Zeroizer zeroizer = new Zeroizer()) {
+        final byte[] material = zeroizer.add(format.decode(zeroizer.add(Files.readAllBytes(keyFile))));
+        if (old != null && old.withBytes(oldMaterial -> MessageDigest.isEqual(material, oldMaterial))) {
+          next.put(keyId, old); // unchanged
+        } else {
+          next.put(keyId, KeyImpl.closeable(keyId, material));
+        }
+
+      } catch (FileNotFoundException | NoSuchFileException e) {
+        log.debug("Key file '{}' disappeared while loading snapshot", keyId, e);
+
+      } catch (IOException | RuntimeException e) {
+        if (old != null) {
+          log.warn("Failed to reload key '{}' ; will keep using previous version.", keyId, e);
+          next.put(keyId, old);
+        } else {
+          log.warn("Failed to load key '{}'", keyId, e);
+        }
+      }
+    }
+
+    snapshot = unmodifiableMap(next);
+    log.debug("Loaded snapshot of key directory {} ; key IDs: {}", basedir, next.keySet());
+    changeListeners.notifyChanged();
+
+    previous.forEach((keyId, key) -> {
+      if (next.get(keyId) != key) {
+        key.close();
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Listeners are only called by keyrings created by {@link #hotReloading(Path, KeyFileFormat)},
+   * after a new snapshot is loaded.
+   */
+  @Override
+  public void addChangeListener(Runnable listener) {
+    changeListeners.add(listener);
+  }
+
+  /**
+   * Stops watching the key directory, if this keyring was created by
+   * {@link #hotReloading(Path, KeyFileFormat)}. The most recent snapshot
+   * remains available.
+   */
+  @Override
+  public void close() {
+    if (watcher != null) {
+      watcher.close();
+    }
+  }
+
   private static String removeWhitespace(String s) {
     return s.replaceAll("\\s", "");
   }
@@ -8,15 +8,24 @@
 package com.couchbase.client.encryption;
 
 import com.couchbase.client.encryption.errors.CryptoKeyNotFoundException;
+import com.couchbase.client.encryption.internal.ChangeListeners;
+import com.couchbase.client.encryption.internal.DirectoryWatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.util.Objects;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
-import static com.couchbase.client.encryption.internal.LangHelper.substringBetween;
+import static java.util.Collections.unmodifiableMap;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -39,62 +48,255 @@ import static java.util.Objects.requireNonNull;
  * it to all application nodes. When distribution is complete, rename it
  * with the primary extension, so it gets used for encryption.
  * <p>
+ * If more than one version of a key has the primary filename extension,
+ * the highest version is used. Versions consisting only of digits are compared
+ * numerically; other versions are compared as strings.
+ * <p>
+ * A keyring created by one of the constructors lists the directory on every lookup.
+ * A keyring created by {@link #hotReloading(Path)} instead keeps an in-memory index
+ * of the key files, which is rebuilt in the background whenever the directory changes.
+ * <p>
+ * The key material is read from the filesystem on every lookup.
  * For better performance, wrap this keyring using {@link Keyring#caching}.
  */
-public class FilesystemRotatingKeyring extends RotatingKeyring {
+public class FilesystemRotatingKeyring extends RotatingKeyring implements ObservableKeyring, Closeable {
+  private static final Logger log = LoggerFactory.getLogger(FilesystemRotatingKeyring.class);
+
+  private static final Duration WATCH_DEBOUNCE = Duration.ofMillis(100);
+  private static final Duration POLL_INTERVAL = Duration.ofSeconds(5);
+
+  // Cached primary versions are invalidated whenever the index is rebuilt;
+  // the expiry only bounds staleness if a lookup races with a rebuild.
+  private static final Duration PRIMARY_VERSION_EXPIRY = Duration.ofMinutes(1);
+
   private final String filenameExtension;
   private final String primaryFilenameExtension;
   private final Path directory;
 
+  private final boolean hotReloading;
+  private volatile Map<String, KeyVersions> index; // always null unless hot reloading
+  private DirectoryWatcher watcher; // guarded by "this"
+  private boolean closed; // guarded by "this"
+  private final ChangeListeners changeListeners = new ChangeListeners();
+
   public FilesystemRotatingKeyring(Path directory) {
     this(directory, "--", ".key", ".key.primary");
   }
 
   public FilesystemRotatingKeyring(Path directory, String versionDelimiter, String filenameExtension, String primaryFilenameExtension) {
-    super(versionDelimiter);
+    this(directory, versionDelimiter, filenameExtension, primaryFilenameExtension, false);
+  }
+
+  /**
+   * Returns a keyring that keeps an in-memory index of the key files, so finding a key
+   * does not require listing the directory.
+   * <p>
+   * The index is built on first use, and rebuilt in the background whenever the
+   * directory changes. A rebuilt index replaces the old one atomically, so lookups
+   * never see a partially updated directory (for example, while a Kubernetes secret
+   * volume swaps its {@code ..data} symbolic link).
+   * <p>
+   * Watching the directory uses a background thread. Call {@link #close()} to stop it.
+   */
+  public static FilesystemRotatingKeyring hotReloading(Path directory) {
+    return hotReloading(directory, "--", ".key", ".key.primary");
+  }
+
+  /**
+   * @see #hotReloading(Path)
+   */
+  public static FilesystemRotatingKeyring hotReloading(Path directory, String versionDelimiter, String filenameExtension, String primaryFilenameExtension) {
+    return new FilesystemRotatingKeyring(directory, versionDelimiter, filenameExtension, primaryFilenameExtension, true);
+  }
+
+  private FilesystemRotatingKeyring(Path directory, String versionDelimiter, String filenameExtension, String primaryFilenameExtension, boolean hotReloading) {
+    // Without an index that tracks changes, any cached primary version could be stale.
+    super(versionDelimiter, hotReloading ? PRIMARY_VERSION_EXPIRY : Duration.ZERO);
     this.directory = requireNonNull(directory);
     this.filenameExtension = requireNonNull(filenameExtension);
     this.primaryFilenameExtension = requireNonNull(primaryFilenameExtension);
+    this.hotReloading = hotReloading;
   }
 
   @Override
   protected String getPrimaryVersion(String baseName) {
-    try (Stream<Path> paths = Files.list(directory)){
-      return paths
-          .map(path -> substringBetween(
-                  path.getFileName().toString(),
-                  versionDelimiter,
-                  primaryFilenameExtension
-              )
-          )
-          .filter(Objects::nonNull)
-          .findFirst()
-          .orElseThrow(() -> new CryptoKeyNotFoundException("Failed to locate primary version of key " + baseName));
-    } catch (IOException e) {
-      throw new CryptoKeyNotFoundException("Failed to locate primary version of key " + baseName, e);
+    final KeyVersions versions = index().get(baseName);
+    if (versions == null || versions.primaryVersion == null) {
+      throw new CryptoKeyNotFoundException("Failed to locate primary version of key " + baseName);
     }
+    return versions.primaryVersion;
   }
 
   @Override
   protected Optional<byte[]> getKeyBytes(KeyNameAndVersion keyNameAndVersion) {
-    String nameIfPrimary = keyNameAndVersion.format() + primaryFilenameExtension;
-    String nameIfNotPrimary = keyNameAndVersion.format() + filenameExtension;
-    try (Stream<Path> paths = Files.list(directory)){
-      return paths
-          .filter(path -> {
-            String filename = path.getFileName().toString();
-            return filename.equals(nameIfNotPrimary) || filename.equals(nameIfPrimary);
-          })
-          .map(path -> {
-            try {
-              return Files.readAllBytes(path);
-            } catch (IOException e) {
-              throw new RuntimeException("Failed to read crypto key " + keyNameAndVersion.format(), e);
-            }
-          })
-          .findFirst();
+    final KeyVersions versions = index().get(keyNameAndVersion.name());
+    final Path path = versions == null ? null : versions.versionToPath.get(keyNameAndVersion.version());
+    if (path == null) {
+      return Optional.empty();
+    }
+
+    try {
+      return Optional.of(Files.readAllBytes(path));
+
+    } catch (FileNotFoundException | NoSuchFileException e) {
+      // Removed since the directory was listed; if hot reloading, the watcher will catch up.
+      log.debug("Failed to read crypto key {}", keyNameAndVersion, e);
+      return Optional.empty();
+
     } catch (IOException e) {
-      throw new RuntimeException("Failed to locate crypto key " + keyNameAndVersion.format(), e);
+      throw new RuntimeException("Failed to read crypto key " + keyNameAndVersion.format(), e);
+    }
+  }
+
+  private Map<String, KeyVersions> index() {
+    if (!hotReloading) {
+      return scan();
+    }
+    final Map<String, KeyVersions> result = index;
+    return result != null ? result : initIndex();
+  }
+
+  private synchronized Map<String, KeyVersions> initIndex() {
+    if (index == null) {
+      if (watcher == null && !closed) {
+        // Start watching before the initial scan, so no changes are missed.
+        watcher = DirectoryWatcher.start(directory, WATCH_DEBOUNCE, POLL_INTERVAL, this::reindex);
+      }
+      index = scan();
+    }
+    return index;
+  }
+
+  private void reindex() {
+    try {
+      index = scan();
+      invalidatePrimaryVersions();
+      log.debug("Rebuilt index of key directory {}", directory);
+      changeListeners.notifyChanged();
+    } catch (RuntimeException e) {
+      log.warn("Failed to rebuild index of key directory {} ; will keep using previous index.", directory, e);
+    }
+  }
+
+  private Map<String, KeyVersions> scan() {
+    final Map<String, KeyVersions> baseNameToVersions = new HashMap<>();
+
+    try (Stream<Path> paths = Files.list(directory)) {
+      paths.forEach(path -> {
+        final String filename = path.getFileName().toString();
+        if (filename.startsWith(".")) {
+          return;
+        }
+
+        final boolean primary = filename.endsWith(primaryFilenameExtension);
+        final String stem;
+        if (primary) {
+          stem = filename.substring(0, filename.length() - primaryFilenameExtension.length());
+        } else if (filename.endsWith(filenameExtension)) {
+          stem = filename.substring(0, filename.length() - filenameExtension.length());
+        } else {
+          return;
+        }
+
+        final int i = stem.indexOf(versionDelimiter);
+        if (i == -1) {
+          return;
+        }
+        final String baseName = stem.substring(0, i);
+        final String version = stem.substring(i + versionDelimiter.length());
+
+        baseNameToVersions.computeIfAbsent(baseName, KeyVersions::new)
+            .add(version, path, primary);
+      });
+
+    } catch (IOException e) {
+      throw new CryptoKeyNotFoundException("Failed to list key directory " + directory, e);
+    }
+
+    return unmodifiableMap(baseNameToVersions);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Listeners are only called by keyrings created by {@link #hotReloading(Path)},
+   * after the index is rebuilt in response to a directory change.
+   */
+  @Override
+  public void addChangeListener(Runnable listener) {
+    changeListeners.add(listener);
+  }
+
+  /**
+   * Stops watching the key directory, if this keyring was created by {@link #hotReloading(Path)}.
+   * <p>
+   * After the keyring is closed, the index is no longer updated.
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    if (watcher != null) {
+      watcher.close();
+    }
+  }
+
+  private static class KeyVersions {
+    private final String baseName;
+    private final Map<String, Path> versionToPath = new HashMap<>();
+    private String primaryVersion;
+
+    KeyVersions(String baseName) {
+      this.baseName = requireNonNull(baseName);
+    }
+
+    void add(String version, Path path, boolean primary) {
+      if (primary) {
+        // If both files exist, prefer the primary one.
+        versionToPath.put(version, path);
+
+        if (primaryVersion != null && !primaryVersion.equals(version)) {
+          String winner = compareVersions(version, primaryVersion) > 0 ? version : primaryVersion;
+          log.warn("Key '{}' has more than one primary version ({} and {}); using {}",
+              baseName, primaryVersion, version, winner);
+          version = winner;
+        }
+        primaryVersion = version;
+
+      } else {
+        versionToPath.putIfAbsent(version, path);
+      }
+    }
+  }
+
+  static int compareVersions(String a, String b) {
+    if (isDigits(a) && isDigits(b)) {
+      // Compare as unbounded integers: ignore leading zeros, then a longer number is larger.
+      final String strippedA = stripLeadingZeros(a);
+      final String strippedB = stripLeadingZeros(b);
+      final int result = Integer.compare(strippedA.length(), strippedB.length());
+      return result != 0 ? result : strippedA.compareTo(strippedB);
+    }
+    return a.compareTo(b);
+  }
+
+  private static boolean isDigits(String s) {
+    if (s.isEmpty()) {
+      return false;
+    }
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String stripLeadingZeros(String digits) {
+    int i = 0;
+    while (i < digits.length() - 1 && digits.charAt(i) == '0') {
+      i++;
     }
+    return digits.substring(i);
   }
 }
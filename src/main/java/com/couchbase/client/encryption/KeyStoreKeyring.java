@@ -11,25 +11,55 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.function.Function;
 
 import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
 import static java.util.Objects.requireNonNull;
 
 /**
  * A Keyring backed by a Java KeyStore.
+ * <p>
+ * Unlocking a password-protected entry can be slow, since it involves
+ * a deliberately expensive key derivation. For key stores with many entries,
+ * use {@link #builder()} to unlock entries in parallel, or on first use.
  */
 public class KeyStoreKeyring implements ListableKeyring {
   private static final Logger log = LoggerFactory.getLogger(KeyStoreKeyring.class);
 
-  private final Map<String, Key> keyNameToKey;
+  // Throwaway integrity password for in-memory copies of a key store.
+  private static final char[] COPY_PASSWORD = "copy".toCharArray();
+
+  // Eager mode only; otherwise null.
+  private final Map<String, Optional<Key>> keyNameToKey;
+
+  // Lazy mode only; otherwise null.
+  // Each entry is unlocked by the first thread to request it, outside the map's lock,
+  // so a slow unlock does not block lookups of other keys.
+  // Failures are cached too, so an unrecoverable key is only logged once.
+  private final ConcurrentMap<String, FutureTask<Optional<Key>>> lazyKeys;
+  private final KeyStore keyStore;
+  private final Function<String, String> keyNameToPassword;
+  private final Set<String> lazyKeyIds;
 
   /**
    * Creates a new Keyring backed by the given Java KeyStore
@@ -50,24 +80,191 @@ public class KeyStoreKeyring implements ListableKeyring {
     // that would arise if the KeyStore were modified externally after this point,
     // and also so that warnings about unrecoverable keys are logged on startup
     // instead of after the first retrieval attempt.
-    this.keyNameToKey = unmodifiableMap(getAllSecretKeys(keyStore, keyNameToPassword));
+    this(wrapValues(getAllSecretKeys(keyStore, keyNameToPassword, null)), null, null, null);
+  }
+
+  private KeyStoreKeyring(Map<String, Optional<Key>> keyNameToKey, KeyStore keyStore, Function<String, String> keyNameToPassword, Set<String> lazyKeyIds) {
+    this.keyNameToKey = keyNameToKey;
+    this.keyStore = keyStore;
+    this.keyNameToPassword = keyNameToPassword;
+    this.lazyKeyIds = lazyKeyIds;
+    this.lazyKeys = lazyKeyIds == null ? null : new ConcurrentHashMap<>();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private Optional<Executor> executor = Optional.empty();
+    private boolean lazy;
+
+    /**
+     * Unlocks entries concurrently using the given executor.
+     * <p>
+     * Since KeyStore is not thread-safe, each task unlocks its entry in a private
+     * in-memory copy of the key store. If the key store cannot be copied
+     * (for example, it is backed by a hardware token), entries are unlocked one at a time.
+     * <p>
+     * Optional. If not called, entries are unlocked one at a time
+     * on the thread that calls {@link #build}.
+     * Has no effect if {@link #lazy()} is called.
+     */
+    public Builder parallelUnlock(Executor executor) {
+      this.executor = Optional.of(executor);
+      return this;
+    }
+
+    /**
+     * Defers unlocking each entry until its key is first requested.
+     * <p>
+     * In lazy mode, the keyring keeps a reference to the KeyStore,
+     * which must not be modified afterwards. Warnings about unrecoverable keys
+     * are logged on first retrieval instead of on startup.
+     * {@link KeyStoreKeyring#keyIds()} returns the aliases of all key entries
+     * whose password is known, even if they turn out to be unrecoverable.
+     * <p>
+     * Optional. If not called, all entries are unlocked when the keyring is built.
+     */
+    public Builder lazy() {
+      this.lazy = true;
+      return this;
+    }
+
+    /**
+     * @param keyStore The backing key store.
+     * @param keyNameToPassword A callback function that takes a key name
+     * and returns the password that protects the key, or returns null if the password is unknown.
+     * @see KeyStoreKeyring#KeyStoreKeyring(KeyStore, Function)
+     */
+    public KeyStoreKeyring build(KeyStore keyStore, Function<String, String> keyNameToPassword) throws KeyStoreException {
+      requireNonNull(keyStore);
+      requireNonNull(keyNameToPassword);
+
+      if (lazy) {
+        final Set<String> keyIds = unmodifiableSet(new HashSet<>(candidateAliases(keyStore, keyNameToPassword)));
+        return new KeyStoreKeyring(null, keyStore, keyNameToPassword, keyIds);
+      }
+
+      return new KeyStoreKeyring(wrapValues(getAllSecretKeys(keyStore, keyNameToPassword, executor.orElse(null))), null, null, null);
+    }
   }
 
   @Override
   public Optional<Key> get(String keyId) {
-    return Optional.ofNullable(keyNameToKey.get(keyId));
+    if (lazyKeyIds == null) {
+      return keyNameToKey.getOrDefault(keyId, Optional.empty());
+    }
+
+    if (!lazyKeyIds.contains(keyId)) {
+      return Optional.empty();
+    }
+
+    final FutureTask<Optional<Key>> task = lazyKeys.computeIfAbsent(keyId, alias -> new FutureTask<>(() -> {
+      // KeyStore is not thread-safe, and lookups of different keys may unlock concurrently.
+      synchronized (keyStore) {
+        return Optional.ofNullable(unlock(keyStore, alias, keyNameToPassword.apply(alias)));
+      }
+    }));
+    task.run(); // no-op if another thread already ran it
+    return getUninterruptibly(task);
+  }
+
+  private static <T> T getUninterruptibly(FutureTask<T> task) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return task.get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          // unlock() handles its own failures, so this is unexpected
+          throw new IllegalStateException(e.getCause());
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
   }
 
   @Override
   public Set<String> keyIds() {
-    return keyNameToKey.keySet();
+    return lazyKeyIds != null ? lazyKeyIds : keyNameToKey.keySet();
   }
 
   public Map<String, Key> getAllSecretKeys(KeyStore keyStore, Function<String, String> keyNameToPassword) throws KeyStoreException {
+    return getAllSecretKeys(keyStore, keyNameToPassword, null);
+  }
+
+  private static Map<String, Key> getAllSecretKeys(KeyStore keyStore, Function<String, String> keyNameToPassword, Executor executor) throws KeyStoreException {
     requireNonNull(keyNameToPassword);
 
+    final List<String> aliases = candidateAliases(keyStore, keyNameToPassword);
     final Map<String, Key> aliasToKey = new HashMap<>();
 
+    final byte[] serialized = executor == null ? null : serialize(keyStore);
+    if (serialized == null) {
+      for (String alias : aliases) {
+        final Key key = unlock(keyStore, alias, keyNameToPassword.apply(alias));
+        if (key != null) {
+          aliasToKey.put(alias, key);
+        }
+      }
+      return aliasToKey;
+    }
+
+    final List<CompletableFuture<Key>> futures = new ArrayList<>(aliases.size());
+    for (String alias : aliases) {
+      final String password = keyNameToPassword.apply(alias);
+      futures.add(CompletableFuture.supplyAsync(() -> unlock(copy(keyStore, serialized), alias, password), executor));
+    }
+    try {
+      for (int i = 0; i < aliases.size(); i++) {
+        final Key key = futures.get(i).join();
+        if (key != null) {
+          aliasToKey.put(aliases.get(i), key);
+        }
+      }
+    } catch (CompletionException e) {
+      throw new KeyStoreException("Failed to copy key store for parallel unlock", e.getCause());
+    }
+    return aliasToKey;
+  }
+
+  /**
+   * Returns the key store's contents, or null if it can't be written to a stream.
+   * Entries stay protected by their own passwords.
+   */
+  private static byte[] serialize(KeyStore keyStore) {
+    try {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      keyStore.store(out, COPY_PASSWORD);
+      return out.toByteArray();
+    } catch (Exception e) {
+      log.debug("Can't copy KeyStore of type {}; unlocking entries one at a time.", keyStore.getType(), e);
+      return null;
+    }
+  }
+
+  private static KeyStore copy(KeyStore original, byte[] serialized) {
+    try {
+      final KeyStore copy = KeyStore.getInstance(original.getType(), original.getProvider());
+      copy.load(new ByteArrayInputStream(serialized), COPY_PASSWORD);
+      return copy;
+    } catch (Exception e) {
+      throw new CompletionException(e);
+    }
+  }
+
+  /**
+   * Returns the aliases of key entries whose password is known, without unlocking them.
+   */
+  private static List<String> candidateAliases(KeyStore keyStore, Function<String, String> keyNameToPassword) throws KeyStoreException {
+    final List<String> result = new ArrayList<>();
+
     for (Enumeration<String> aliases = keyStore.aliases(); aliases.hasMoreElements(); ) {
       final String alias = aliases.nextElement();
 
@@ -76,29 +273,47 @@ public class KeyStoreKeyring implements ListableKeyring {
         continue;
       }
 
-      final String password = keyNameToPassword.apply(alias);
-      if (password == null) {
+      if (keyNameToPassword.apply(alias) == null) {
         log.debug("Ignoring key '{}' because the password is not known.", alias);
         continue;
       }
 
-      try {
-        final KeyStore.Entry entry = keyStore.getEntry(alias, new KeyStore.PasswordProtection(password.toCharArray()));
-        if (!(entry instanceof KeyStore.SecretKeyEntry)) {
-          log.debug("Ignoring key '{}' because the KeyStore entry type is not SecretKeyEntry; actual type is {}",
-              alias, entry.getClass().getSimpleName());
-          continue;
-        }
+      result.add(alias);
+    }
+
+    return result;
+  }
 
-        byte[] keyBytes = ((KeyStore.SecretKeyEntry) entry).getSecretKey().getEncoded();
-        aliasToKey.put(alias, Key.create(alias, keyBytes));
+  /**
+   * Returns the key for the given alias, or null if it could not be retrieved.
+   */
+  private static Key unlock(KeyStore keyStore, String alias, String password) {
+    if (password == null) {
+      log.debug("Ignoring key '{}' because the password is not known.", alias);
+      return null;
+    }
 
-      } catch (Exception e) {
-        log.warn("Ignoring key '{}' because it could not be retrieved (wrong password?)", alias, e);
+    try {
+      final KeyStore.Entry entry = keyStore.getEntry(alias, new KeyStore.PasswordProtection(password.toCharArray()));
+      if (!(entry instanceof KeyStore.SecretKeyEntry)) {
+        log.debug("Ignoring key '{}' because the KeyStore entry type is not SecretKeyEntry; actual type is {}",
+            alias, entry.getClass().getSimpleName());
+        return null;
       }
+
+      byte[] keyBytes = ((KeyStore.SecretKeyEntry) entry).getSecretKey().getEncoded();
+      return Key.create(alias, keyBytes);
+
+    } catch (Exception e) {
+      log.warn("Ignoring key '{}' because it could not be retrieved (wrong password?)", alias, e);
+      return null;
     }
+  }
 
-    return aliasToKey;
+  private static Map<String, Optional<Key>> wrapValues(Map<String, Key> map) {
+    final Map<String, Optional<Key>> result = new HashMap<>();
+    map.forEach((k, v) -> result.put(k, Optional.of(v)));
+    return unmodifiableMap(result);
   }
 
   /**
@@ -7,11 +7,14 @@
 
 package com.couchbase.client.encryption;
 
+import com.couchbase.client.core.cnc.RequestTracer;
 import com.couchbase.client.encryption.errors.CryptoKeyNotFoundException;
+import com.couchbase.client.encryption.internal.CryptoTracing;
 import com.couchbase.client.encryption.internal.KeyImpl;
 import com.couchbase.client.encryption.internal.Zeroizer;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 
 import java.time.Duration;
 import java.util.Arrays;
@@ -22,6 +25,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static com.couchbase.client.encryption.internal.LangHelper.copyToUnmodifiableList;
@@ -44,9 +48,13 @@ import static java.util.Objects.requireNonNull;
  * <p>
  *
  * @see #caching(Duration, int, Keyring)
+ * @see CachingKeyring
  * @see #reloading(Duration, Supplier)
+ * @see ReloadingKeyring
  * @see #composite(Keyring...)
+ * @see RoutingKeyring
  * @see #fromMap(Map)
+ * @see #traced(RequestTracer, Keyring)
  * @see RotatingKeyring
  * @see FilesystemRotatingKeyring
  */
@@ -56,8 +64,21 @@ public interface Keyring {
    * An encryption key.
    * <p>
    * Create new instances by calling {@link #create(String, byte[])}.
+   * <p>
+   * A key returned by {@link Keyring#get(String)} belongs to the keyring, not the caller.
+   * The caller may share it, and must not close it. A keyring that closes its own keys
+   * (for example, when evicting them from a cache) zeroizes the key material even if
+   * callers still refer to keys it returned from {@code get}; using such a key afterwards
+   * throws IllegalStateException. To keep using a key for longer, acquire it instead.
+   * Otherwise, key material is zeroized after the key is garbage collected.
+   * <p>
+   * A key returned by {@link Keyring#acquire(String)} belongs to the caller,
+   * who should close it when no longer needed, and must not use it afterwards.
+   * For keys from the built-in keyrings, closing zeroizes the key material
+   * as soon as no other handle refers to it. Closing is optional; key material
+   * that is never closed is zeroized after the key is garbage collected.
    */
-  interface Key {
+  interface Key extends AutoCloseable {
     /**
      * Creates a new key with the given ID and material,
      * then zeroizes the given material.
@@ -77,8 +98,48 @@ public interface Keyring {
      * Returns a copy of the key material.
      * <p>
      * Caller is responsible for zeroizing the returned byte array.
+     *
+     * @see #withBytes(BytesFunction)
      */
     byte[] bytes();
+
+    /**
+     * Passes the key material to the given function, and returns the function's result.
+     * <p>
+     * The array passed to the function is valid only for the duration of the call.
+     * The function must not modify the array, and must not retain a reference to it.
+     * <p>
+     * The default implementation passes a copy obtained from {@link #bytes()},
+     * and zeroizes the copy when the function returns. Implementations may instead
+     * pass their own internal array, avoiding the copy.
+     */
+    default <R, E extends Exception> R withBytes(BytesFunction<R, E> function) throws E {
+      try (Zeroizer zeroizer = new Zeroizer()) {
+        return function.apply(zeroizer.add(bytes()));
+      }
+    }
+
+    /**
+     * A function that uses key material.
+     *
+     * @see #withBytes(BytesFunction)
+     */
+    @FunctionalInterface
+    interface BytesFunction<R, E extends Exception> {
+      R apply(byte[] keyBytes) throws E;
+    }
+
+    /**
+     * Releases this key. Subsequent calls to {@link #bytes()} may throw {@link IllegalStateException}.
+     * <p>
+     * Only the owner of a key may close it; see {@link Keyring#acquire(String)}.
+     * <p>
+     * The default implementation does nothing. Keys created by {@link #create(String, byte[])}
+     * are not closeable, since they are typically shared.
+     */
+    @Override
+    default void close() {
+    }
   }
 
   /**
@@ -103,6 +164,34 @@ public interface Keyring {
         new CryptoKeyNotFoundException("Failed to locate crypto key '" + keyId + "'"));
   }
 
+  /**
+   * Like {@link #get(String)}, but the caller takes ownership of the returned key,
+   * and should close it as soon as it is no longer needed.
+   * <p>
+   * The built-in keyrings return a separate handle from each call, so closing
+   * a key never affects other callers. The built-in crypto providers use this method,
+   * so keys they look up are zeroized deterministically instead of when garbage collected.
+   * <p>
+   * The default implementation returns the result of {@link #get(String)}.
+   * A keyring that overrides this method to return closeable keys must not return
+   * the same key instance more than once. A decorator that delegates {@code get}
+   * to another keyring should delegate this method too.
+   */
+  default Optional<Key> acquire(String keyId) {
+    return get(keyId);
+  }
+
+  /**
+   * Like {@link #getOrThrow(String)}, but the caller takes ownership of the returned key.
+   *
+   * @throws CryptoKeyNotFoundException if the key was not found.
+   * @see #acquire(String)
+   */
+  default Key acquireOrThrow(String keyId) {
+    return acquire(keyId).orElseThrow(() ->
+        new CryptoKeyNotFoundException("Failed to locate crypto key '" + keyId + "'"));
+  }
+
   /**
    * Returns the given keyring decorated to cache "get" results.
    * <p>
@@ -110,19 +199,60 @@ public interface Keyring {
    * <p>
    * If multiple decorators are applied to a keyring, caching should be
    * the outermost decorator.
+   * <p>
+   * When an entry expires, the next lookup for that key blocks while the wrapped
+   * keyring is consulted. To refresh keys in the background instead, use {@link CachingKeyring}.
+   * <p>
+   * Cached keys are acquired from the wrapped keyring, and closed when evicted.
+   * The key material stays usable by callers who acquired it until they close it.
+   * Keys returned by {@code get} do not keep the material from being zeroized.
    */
   static Keyring caching(Duration expiry, int maxEntries, Keyring wrapped) {
     requireNonNull(wrapped);
     Cache<String, Optional<Key>> cache = Caffeine.newBuilder()
         .expireAfterWrite(expiry)
         .maximumSize(maxEntries)
+        .removalListener((String keyId, Optional<Key> key, RemovalCause cause) -> {
+          if (key != null) {
+            key.ifPresent(Key::close);
+          }
+        })
         .build();
-    return keyId -> cache.get(keyId, wrapped::get);
+    final Function<String, Optional<Key>> loader = keyId -> CachingKeyring.getOnCacheMiss(wrapped, keyId);
+    return new Keyring() {
+      @Override
+      public Optional<Key> get(String keyId) {
+        return lookup(keyId, false);
+      }
+
+      @Override
+      public Optional<Key> acquire(String keyId) {
+        return lookup(keyId, true);
+      }
+
+      private Optional<Key> lookup(String keyId, boolean acquire) {
+        while (true) {
+          final Optional<Key> cached = cache.get(keyId, loader);
+          if (!cached.isPresent()) {
+            return cached;
+          }
+          final Key handle = acquire ? KeyImpl.tryRetain(cached.get()) : KeyImpl.tryPin(cached.get());
+          if (handle != null) {
+            return Optional.of(handle);
+          }
+          // evicted and closed since we looked it up
+          cache.asMap().remove(keyId, cached);
+        }
+      }
+    };
   }
 
   /**
    * Returns a keyring wrapper whose backing keyring is periodically refreshed
    * by calling the given supplier.
+   * <p>
+   * When the reload interval elapses, lookups block until the supplier returns.
+   * To reload in the background instead, use {@link ReloadingKeyring}.
    */
   static Keyring reloading(Duration reloadInterval, Supplier<Keyring> loader) {
     requireNonNull(loader);
@@ -130,7 +260,17 @@ public interface Keyring {
         .expireAfterWrite(reloadInterval)
         .maximumSize(1)
         .build();
-    return keyId -> cache.get("", ignore -> loader.get()).get(keyId);
+    return new Keyring() {
+      @Override
+      public Optional<Key> get(String keyId) {
+        return cache.get("", ignore -> loader.get()).get(keyId);
+      }
+
+      @Override
+      public Optional<Key> acquire(String keyId) {
+        return cache.get("", ignore -> loader.get()).acquire(keyId);
+      }
+    };
   }
 
   /**
@@ -219,6 +359,9 @@ public interface Keyring {
 
   /**
    * Returns a composite keyring that consults the given keyrings in order.
+   * <p>
+   * Every lookup consults the keyrings in order, even ones that never hold the requested key.
+   * If some of the keyrings are slow, consider using {@link RoutingKeyring} instead.
    */
   static Keyring composite(List<Keyring> keyrings) {
     if (keyrings.stream().anyMatch(Objects::isNull)) {
@@ -227,17 +370,59 @@ public interface Keyring {
 
     final List<Keyring> chain = copyToUnmodifiableList(keyrings);
 
-    return keyId -> {
-      for (Keyring keyring : chain) {
-        Optional<Key> key = keyring.get(keyId);
-        if (key.isPresent()) {
-          return key;
+    return new Keyring() {
+      @Override
+      public Optional<Key> get(String keyId) {
+        for (Keyring keyring : chain) {
+          Optional<Key> key = keyring.get(keyId);
+          if (key.isPresent()) {
+            return key;
+          }
         }
+        return Optional.empty();
+      }
+
+      @Override
+      public Optional<Key> acquire(String keyId) {
+        for (Keyring keyring : chain) {
+          Optional<Key> key = keyring.acquire(keyId);
+          if (key.isPresent()) {
+            return key;
+          }
+        }
+        return Optional.empty();
       }
-      return Optional.empty();
     };
   }
 
+  /**
+   * Returns the given keyring decorated to open a request span around each lookup.
+   * The span is tagged with the ID of the returned key (or the requested ID, if not found).
+   * <p>
+   * A lookup made while {@link DefaultCryptoManager} is tracing an encryption or decryption
+   * on the same thread is recorded as a child of that span.
+   * <p>
+   * The parent span is found using thread-local state, so a lookup the wrapped
+   * keyring performs on another thread is recorded without a parent.
+   * <p>
+   * To trace only the lookups that miss a cache, apply this decorator
+   * to the keyring inside the cache. To trace every lookup, apply it outside.
+   * <p>
+   * The returned keyring forwards {@link ObservableKeyring#addChangeListener}
+   * and {@link AutoCloseable#close()} to the given keyring, if it supports them.
+   * <p>
+   * If the given tracer is a no-op tracer, returns the given keyring.
+   */
+  static Keyring traced(RequestTracer tracer, Keyring wrapped) {
+    requireNonNull(wrapped);
+    final CryptoTracing tracing = CryptoTracing.create(tracer);
+    if (!tracing.enabled()) {
+      return wrapped;
+    }
+
+    return new TracedKeyring(tracing, wrapped);
+  }
+
   /**
    * Returns a static keyring with the given keys.
    * <p>
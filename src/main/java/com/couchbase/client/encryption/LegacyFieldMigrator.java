@@ -0,0 +1,637 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.DeserializationFeature;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.ObjectMapper;
+import com.couchbase.client.core.encryption.CryptoManager;
+import com.couchbase.client.core.json.Mapper;
+import com.couchbase.client.encryption.errors.CryptoException;
+import com.couchbase.client.encryption.errors.EncryptionFailureException;
+import com.couchbase.client.encryption.internal.DaemonThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static com.couchbase.client.encryption.internal.LangHelper.isNullOrEmpty;
+import static com.couchbase.client.encryption.internal.Zeroizer.zeroize;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Re-encrypts fields written by the obsolete version 2.x providers
+ * ({@code AES-128-HMAC-SHA256}, {@code AES-256-HMAC-SHA256} and
+ * {@code RSA-2048-OAEP-SHA1}) using a current {@link Encrypter}.
+ * <p>
+ * Intended for offline migration of exported documents. Documents are
+ * migrated concurrently on a bounded worker pool, and written in input order.
+ * Decryption happens on the worker threads, so CPU-bound
+ * {@code RSA-2048-OAEP-SHA1} decryption is spread across the pool.
+ * Decrypted field values are never parsed or converted to strings;
+ * the plaintext bytes are re-encrypted and then zeroized.
+ * <p>
+ * Encrypted fields whose algorithm is not a legacy algorithm are left alone.
+ * A migrated field is renamed using the new encrypted field name prefix.
+ * <p>
+ * Create new instances by calling {@link #builder()}.
+ */
+public class LegacyFieldMigrator {
+  private static final Logger log = LoggerFactory.getLogger(LegacyFieldMigrator.class);
+
+  /**
+   * Names of the encryption algorithms used by version 2.x of this library.
+   */
+  public static final Set<String> LEGACY_ALGORITHMS = unmodifiableSet(new HashSet<>(Arrays.asList(
+      "AES-128-HMAC-SHA256",
+      "AES-256-HMAC-SHA256",
+      "RSA-2048-OAEP-SHA1")));
+
+  private static final ObjectMapper mapper = Mapper.newObjectMapper()
+      // Don't lose precision when re-writing a document.
+      .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+  private final CryptoManager legacyCryptoManager;
+  private final Encrypter encrypter;
+  private final String encryptedFieldNamePrefix;
+  private final Set<String> algorithms;
+  private final int threads;
+  private final int maxDocumentsInFlight;
+  private final int checkpointInterval;
+  private final Duration progressInterval;
+  private final Consumer<Stats> progressListener;
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private CryptoManager legacyCryptoManager;
+    private Encrypter encrypter;
+    private String encryptedFieldNamePrefix = CryptoManager.DEFAULT_ENCRYPTED_FIELD_NAME_PREFIX;
+    private Set<String> algorithms = LEGACY_ALGORITHMS;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxDocumentsInFlight;
+    private int checkpointInterval = 1000;
+    private Duration progressInterval = Duration.ofSeconds(10);
+    private Consumer<Stats> progressListener = stats -> log.info("Legacy field migration progress: {}", stats);
+
+    /**
+     * Sets the crypto manager that recognizes and decrypts legacy fields.
+     * It should have the legacy decrypters registered, and use the legacy
+     * encrypted field name prefix (typically {@code "__crypt_"}).
+     * <p>
+     * Required.
+     *
+     * @see DefaultCryptoManager.Builder#legacyAesDecrypters
+     * @see DefaultCryptoManager.Builder#legacyRsaDecrypter
+     */
+    public Builder legacyCryptoManager(CryptoManager legacyCryptoManager) {
+      this.legacyCryptoManager = requireNonNull(legacyCryptoManager);
+      return this;
+    }
+
+    /**
+     * Sets the encrypter used to re-encrypt legacy fields.
+     * <p>
+     * Required.
+     */
+    public Builder encrypter(Encrypter encrypter) {
+      this.encrypter = requireNonNull(encrypter);
+      return this;
+    }
+
+    /**
+     * Sets the prefix for the names of migrated fields.
+     * <p>
+     * Optional. If not called, defaults to
+     * {@value CryptoManager#DEFAULT_ENCRYPTED_FIELD_NAME_PREFIX}.
+     */
+    public Builder encryptedFieldNamePrefix(String encryptedFieldNamePrefix) {
+      if (isNullOrEmpty(encryptedFieldNamePrefix)) {
+        throw new IllegalArgumentException("Encrypted field prefix cannot be null or empty");
+      }
+      this.encryptedFieldNamePrefix = encryptedFieldNamePrefix;
+      return this;
+    }
+
+    /**
+     * Sets the algorithms whose fields should be migrated.
+     * <p>
+     * Optional. If not called, defaults to {@link #LEGACY_ALGORITHMS}.
+     */
+    public Builder algorithms(Collection<String> algorithms) {
+      if (algorithms.isEmpty()) {
+        throw new IllegalArgumentException("Must specify at least one algorithm.");
+      }
+      this.algorithms = unmodifiableSet(new HashSet<>(algorithms));
+      return this;
+    }
+
+    /**
+     * Sets the number of worker threads.
+     * <p>
+     * Optional. If not called, defaults to the number of available processors.
+     */
+    public Builder threads(int threads) {
+      if (threads < 1) {
+        throw new IllegalArgumentException("Thread count must be positive, but got " + threads);
+      }
+      this.threads = threads;
+      return this;
+    }
+
+    /**
+     * Limits the number of documents read but not yet written,
+     * which bounds memory usage.
+     * <p>
+     * Optional. If not called, defaults to 64 times the number of threads.
+     */
+    public Builder maxDocumentsInFlight(int maxDocumentsInFlight) {
+      if (maxDocumentsInFlight < 1) {
+        throw new IllegalArgumentException("Max documents in flight must be positive, but got " + maxDocumentsInFlight);
+      }
+      this.maxDocumentsInFlight = maxDocumentsInFlight;
+      return this;
+    }
+
+    /**
+     * Sets how many documents to write between checkpoints
+     * when migrating a JSON lines file.
+     * <p>
+     * Optional. If not called, defaults to 1000.
+     */
+    public Builder checkpointInterval(int checkpointInterval) {
+      if (checkpointInterval < 1) {
+        throw new IllegalArgumentException("Checkpoint interval must be positive, but got " + checkpointInterval);
+      }
+      this.checkpointInterval = checkpointInterval;
+      return this;
+    }
+
+    /**
+     * Sets how often to report progress, and who to report it to.
+     * <p>
+     * Optional. If not called, progress is logged every 10 seconds.
+     */
+    public Builder progressListener(Duration interval, Consumer<Stats> listener) {
+      requireNonNull(interval);
+      if (interval.isNegative() || interval.isZero()) {
+        throw new IllegalArgumentException("Progress interval must be positive, but got " + interval);
+      }
+      this.progressInterval = interval;
+      this.progressListener = requireNonNull(listener);
+      return this;
+    }
+
+    public LegacyFieldMigrator build() {
+      return new LegacyFieldMigrator(this);
+    }
+  }
+
+  private LegacyFieldMigrator(Builder builder) {
+    this.legacyCryptoManager = requireNonNull(builder.legacyCryptoManager, "Must specify legacy crypto manager.");
+    this.encrypter = requireNonNull(builder.encrypter, "Must specify encrypter.");
+    this.encryptedFieldNamePrefix = builder.encryptedFieldNamePrefix;
+    this.algorithms = builder.algorithms;
+    this.threads = builder.threads;
+    this.maxDocumentsInFlight = builder.maxDocumentsInFlight > 0 ? builder.maxDocumentsInFlight : builder.threads * 64;
+    this.checkpointInterval = builder.checkpointInterval;
+    this.progressInterval = builder.progressInterval;
+    this.progressListener = builder.progressListener;
+  }
+
+  /**
+   * Migrates the legacy fields of a single document, on the calling thread.
+   *
+   * @return a migrated copy of the document, or the given document
+   * if it has no legacy fields.
+   */
+  public Map<String, Object> migrate(Map<String, Object> document) {
+    final Map<String, Object> migrated = migrateObject(document, null);
+    return migrated == null ? document : migrated;
+  }
+
+  /**
+   * Migrates the given documents concurrently, passing the results to the output
+   * consumer (on the calling thread) in the same order as the input.
+   */
+  public Stats migrate(Iterator<Map<String, Object>> documents, Consumer<Map<String, Object>> output) {
+    final Progress progress = new Progress();
+    run(documents, progress,
+        document -> {
+          final Map<String, Object> migrated = migrateObject(document, progress);
+          return migrated == null ? document : migrated;
+        },
+        output::accept);
+    return progress.report();
+  }
+
+  /**
+   * Migrates a file where each line is a JSON Object (a "JSON lines" export),
+   * writing the result to the output file.
+   * <p>
+   * Lines without legacy fields are copied verbatim.
+   * <p>
+   * Progress is periodically recorded in the checkpoint file. If the checkpoint file
+   * exists when this method is called, migration resumes from the checkpoint:
+   * output written after the last checkpoint is discarded, and input lines
+   * before the checkpoint are skipped.
+   * To start over, delete the checkpoint file.
+   */
+  public Stats migrateJsonLines(Path input, Path output, Path checkpointFile) throws IOException {
+    final Checkpoint start = Checkpoint.read(checkpointFile);
+    if (start.lines > 0) {
+      log.info("Resuming migration of {} after line {}", input, start.lines);
+    }
+
+    final Progress progress = new Progress();
+    try (BufferedReader reader = Files.newBufferedReader(input, UTF_8);
+         FileChannel channel = FileChannel.open(output, CREATE, WRITE)) {
+
+      if (channel.size() < start.outputBytes) {
+        throw new IOException("Output file " + output + " is shorter than checkpoint " + checkpointFile + " says it should be.");
+      }
+      channel.truncate(start.outputBytes);
+      channel.position(start.outputBytes);
+
+      for (long i = 0; i < start.lines; i++) {
+        if (reader.readLine() == null) {
+          throw new IOException("Input file " + input + " is shorter than checkpoint " + checkpointFile + " says it should be.");
+        }
+      }
+
+      final OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+      final Checkpoint current = new Checkpoint(start.lines, start.outputBytes);
+
+      try {
+        run(new LineIterator(reader), progress,
+            line -> {
+              if (line.trim().isEmpty()) {
+                return line.getBytes(UTF_8);
+              }
+              @SuppressWarnings("unchecked") final Map<String, Object> document = mapper.readValue(line, Map.class);
+              final Map<String, Object> migrated = migrateObject(document, progress);
+              return migrated == null ? line.getBytes(UTF_8) : mapper.writeValueAsBytes(migrated);
+            },
+            lineBytes -> {
+              out.write(lineBytes);
+              out.write('\n');
+              current.lines++;
+              current.outputBytes += lineBytes.length + 1;
+
+              if (current.lines % checkpointInterval == 0) {
+                out.flush();
+                channel.force(false);
+                current.write(checkpointFile);
+              }
+            });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+
+      out.flush();
+      channel.force(false);
+      current.write(checkpointFile);
+    }
+
+    return progress.report();
+  }
+
+  private interface Task<I, O> {
+    O apply(I input) throws Exception;
+  }
+
+  private interface Sink<O> {
+    void accept(O output) throws IOException;
+  }
+
+  /**
+   * Applies the task to each input on the worker pool, and passes the results
+   * to the sink (on the calling thread) in input order.
+   *
+   * @throws CryptoException if a task fails
+   * @throws UncheckedIOException if the sink fails
+   */
+  private <I, O> void run(Iterator<I> inputs, Progress progress, Task<I, O> task, Sink<O> sink) {
+    final ExecutorService executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("legacy-field-migrator"));
+    final Deque<Future<O>> inFlight = new ArrayDeque<>(maxDocumentsInFlight);
+    try {
+      while (inputs.hasNext() || !inFlight.isEmpty()) {
+        while (inFlight.size() < maxDocumentsInFlight && inputs.hasNext()) {
+          final I input = inputs.next();
+          progress.documentsRead.increment();
+          inFlight.add(executor.submit(() -> task.apply(input)));
+        }
+
+        final long documentNumber = progress.documentsWritten.sum() + 1;
+        final O result;
+        try {
+          result = inFlight.remove().get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new CryptoException("Interrupted while migrating document #" + documentNumber, e);
+        } catch (ExecutionException e) {
+          final Throwable cause = e.getCause();
+          throw new CryptoException("Failed to migrate document #" + documentNumber + "; " + cause.getMessage(), cause);
+        }
+
+        try {
+          sink.accept(result);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        progress.documentsWritten.increment();
+        progress.reportIfDue();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns a migrated copy of the given JSON Object, or null if it has no legacy fields.
+   *
+   * @param progress receives counts, or null if not tracking progress
+   */
+  private Map<String, Object> migrateObject(Map<String, Object> object, Progress progress) {
+    boolean changed = false;
+    final Map<String, Object> result = new LinkedHashMap<>(object.size() * 2);
+
+    for (Map.Entry<String, Object> entry : object.entrySet()) {
+      final String name = entry.getKey();
+      final Object value = entry.getValue();
+
+      if (legacyCryptoManager.isMangled(name) && isLegacyEncryptedNode(value)) {
+        @SuppressWarnings("unchecked") final Map<String, Object> encrypted = (Map<String, Object>) value;
+        result.put(encryptedFieldNamePrefix + legacyCryptoManager.demangle(name), reencrypt(encrypted));
+        if (progress != null) {
+          progress.fieldsMigrated.increment();
+        }
+        changed = true;
+        continue;
+      }
+
+      final Object migrated = migrateValue(value, progress);
+      result.put(name, migrated == null ? value : migrated);
+      changed |= migrated != null;
+    }
+
+    if (!changed) {
+      return null;
+    }
+    if (progress != null) {
+      progress.documentsMigrated.increment();
+    }
+    return result;
+  }
+
+  private List<Object> migrateArray(List<Object> array, Progress progress) {
+    boolean changed = false;
+    final List<Object> result = new ArrayList<>(array.size());
+    for (Object value : array) {
+      final Object migrated = migrateValue(value, progress);
+      result.add(migrated == null ? value : migrated);
+      changed |= migrated != null;
+    }
+    return changed ? result : null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object migrateValue(Object value, Progress progress) {
+    if (value instanceof Map) {
+      return migrateObject((Map<String, Object>) value, progress);
+    }
+    if (value instanceof List) {
+      return migrateArray((List<Object>) value, progress);
+    }
+    return null;
+  }
+
+  private boolean isLegacyEncryptedNode(Object value) {
+    return value instanceof Map && algorithms.contains(((Map<?, ?>) value).get("alg"));
+  }
+
+  private Map<String, Object> reencrypt(Map<String, Object> encrypted) {
+    final byte[] plaintext = legacyCryptoManager.decrypt(encrypted);
+    try {
+      return encrypter.encrypt(plaintext).asMap();
+    } catch (Exception e) {
+      throw new EncryptionFailureException("Encryption failed; " + e.getMessage(), e);
+    } finally {
+      zeroize(plaintext);
+    }
+  }
+
+  private class Progress {
+    private final long startNanos = System.nanoTime();
+    private long lastReportNanos = startNanos;
+
+    private final LongAdder documentsRead = new LongAdder();
+    private final LongAdder documentsWritten = new LongAdder();
+    private final LongAdder documentsMigrated = new LongAdder();
+    private final LongAdder fieldsMigrated = new LongAdder();
+
+    private Stats stats() {
+      return new Stats(
+          documentsRead.sum(),
+          documentsWritten.sum(),
+          documentsMigrated.sum(),
+          fieldsMigrated.sum(),
+          Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    private void reportIfDue() {
+      final long now = System.nanoTime();
+      if (now - lastReportNanos >= progressInterval.toNanos()) {
+        lastReportNanos = now;
+        progressListener.accept(stats());
+      }
+    }
+
+    private Stats report() {
+      final Stats stats = stats();
+      progressListener.accept(stats);
+      return stats;
+    }
+  }
+
+  /**
+   * Progress of a migration.
+   */
+  public static class Stats {
+    private final long documentsRead;
+    private final long documentsWritten;
+    private final long documentsMigrated;
+    private final long fieldsMigrated;
+    private final Duration elapsed;
+
+    private Stats(long documentsRead, long documentsWritten, long documentsMigrated, long fieldsMigrated, Duration elapsed) {
+      this.documentsRead = documentsRead;
+      this.documentsWritten = documentsWritten;
+      this.documentsMigrated = documentsMigrated;
+      this.fieldsMigrated = fieldsMigrated;
+      this.elapsed = elapsed;
+    }
+
+    /**
+     * Number of documents read from the input (excluding any skipped when resuming from a checkpoint).
+     */
+    public long documentsRead() {
+      return documentsRead;
+    }
+
+    /**
+     * Number of documents written to the output.
+     */
+    public long documentsWritten() {
+      return documentsWritten;
+    }
+
+    /**
+     * Number of documents that had at least one legacy field.
+     */
+    public long documentsMigrated() {
+      return documentsMigrated;
+    }
+
+    /**
+     * Number of legacy fields re-encrypted.
+     */
+    public long fieldsMigrated() {
+      return fieldsMigrated;
+    }
+
+    /**
+     * Time since the migration started.
+     */
+    public Duration elapsed() {
+      return elapsed;
+    }
+
+    /**
+     * Average number of documents written per second.
+     */
+    public double documentsPerSecond() {
+      final long nanos = elapsed.toNanos();
+      return nanos == 0 ? 0 : documentsWritten * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+      return "Stats{" +
+          "documentsRead=" + documentsRead +
+          ", documentsWritten=" + documentsWritten +
+          ", documentsMigrated=" + documentsMigrated +
+          ", fieldsMigrated=" + fieldsMigrated +
+          ", elapsed=" + elapsed +
+          ", documentsPerSecond=" + String.format("%.1f", documentsPerSecond()) +
+          '}';
+    }
+  }
+
+  /**
+   * The number of input lines fully migrated, and the size of the corresponding output.
+   */
+  private static class Checkpoint {
+    private long lines;
+    private long outputBytes;
+
+    private Checkpoint(long lines, long outputBytes) {
+      this.lines = lines;
+      this.outputBytes = outputBytes;
+    }
+
+    private static Checkpoint read(Path file) throws IOException {
+      if (!Files.exists(file)) {
+        return new Checkpoint(0, 0);
+      }
+      final Properties props = new Properties();
+      try (BufferedReader reader = Files.newBufferedReader(file, UTF_8)) {
+        props.load(reader);
+      }
+      try {
+        return new Checkpoint(
+            Long.parseLong(props.getProperty("lines")),
+            Long.parseLong(props.getProperty("outputBytes")));
+      } catch (NumberFormatException e) {
+        throw new IOException("Malformed checkpoint file: " + file, e);
+      }
+    }
+
+    private void write(Path file) throws IOException {
+      final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+      Files.write(temp, ("lines=" + lines + "\noutputBytes=" + outputBytes + "\n").getBytes(UTF_8));
+      Files.move(temp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+  }
+
+  private static class LineIterator implements Iterator<String> {
+    private final BufferedReader reader;
+    private String next;
+
+    private LineIterator(BufferedReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null) {
+        try {
+          next = reader.readLine();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public String next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final String result = next;
+      next = null;
+      return result;
+    }
+  }
+}
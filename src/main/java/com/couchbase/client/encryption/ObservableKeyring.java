@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+/**
+ * A Keyring that can tell interested parties when its contents may have changed.
+ * <p>
+ * Decorators that remember something about the keyring's contents
+ * (like {@link RoutingKeyring}) use this to discard stale information.
+ */
+public interface ObservableKeyring extends Keyring {
+  /**
+   * Registers a listener to call after the contents of this keyring may have changed.
+   * <p>
+   * The listener may be called from any thread, and should return quickly.
+   */
+  void addChangeListener(Runnable listener);
+}
@@ -0,0 +1,459 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.internal.Zeroizer;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A mutable keyring that stores key material outside the Java heap.
+ * <p>
+ * Intended for applications with a very large number of keys
+ * (one per tenant, for example). All keys must have the same length.
+ * Key material is stored in fixed-size slots of direct byte buffers,
+ * and located using an open-addressing hash table, so the keyring
+ * does not create a heap object per key (other than the key ID),
+ * and does not register a cleanup action per key.
+ * <p>
+ * A slot is zeroized as soon as its key is removed or replaced,
+ * and all slots are zeroized when the keyring is closed.
+ * <p>
+ * The keys returned by {@link #get(String)} are lightweight views of a slot.
+ * They do not hold a copy of the key material. If the key is removed
+ * or replaced after the view is obtained, calling {@link Key#bytes()} on the
+ * view throws {@link IllegalStateException}. For that reason, this keyring
+ * should not be wrapped by a cache.
+ * <p>
+ * Create new instances by calling {@link #builder()}.
+ */
+public class OffHeapKeyring implements ListableKeyring, Closeable {
+  private static final int EMPTY = 0;
+  private static final int TOMBSTONE = -1;
+
+  private final int keySize;
+  private final int slotsPerSegment;
+
+  private final StampedLock lock = new StampedLock();
+
+  // All fields below are guarded by the lock.
+
+  private final List<ByteBuffer> segments = new ArrayList<>();
+  private String[] slotIds = new String[0];
+  private int[] slotGenerations = new int[0];
+  private int[] freeSlots = new int[0];
+  private int freeSlotCount;
+
+  // Open-addressing table. Each entry is EMPTY, TOMBSTONE, or (slot index + 1).
+  private int[] table;
+  private int size;
+  private int tombstones;
+  private boolean closed;
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private int keySize = 64;
+    private int slotsPerSegment = 4096;
+    private int expectedKeys = 1024;
+
+    /**
+     * Sets the length in bytes of every key in the keyring.
+     * <p>
+     * Optional. If not called, defaults to 64 (the key size
+     * of {@link AeadAes256CbcHmacSha512Provider}).
+     */
+    public Builder keySize(int keySize) {
+      if (keySize <= 0) {
+        throw new IllegalArgumentException("Key size must be positive, but got " + keySize);
+      }
+      this.keySize = keySize;
+      return this;
+    }
+
+    /**
+     * Sets the number of keys stored in each direct byte buffer.
+     * The keyring allocates another buffer of this size whenever it runs out of slots.
+     * <p>
+     * Optional. If not called, defaults to 4096.
+     */
+    public Builder slotsPerSegment(int slotsPerSegment) {
+      if (slotsPerSegment <= 0) {
+        throw new IllegalArgumentException("Slots per segment must be positive, but got " + slotsPerSegment);
+      }
+      this.slotsPerSegment = slotsPerSegment;
+      return this;
+    }
+
+    /**
+     * Sets the number of keys the index is initially sized for.
+     * The index grows as needed.
+     * <p>
+     * Optional. If not called, defaults to 1024.
+     */
+    public Builder expectedKeys(int expectedKeys) {
+      if (expectedKeys < 0) {
+        throw new IllegalArgumentException("Expected keys must be non-negative, but got " + expectedKeys);
+      }
+      this.expectedKeys = expectedKeys;
+      return this;
+    }
+
+    public OffHeapKeyring build() {
+      if ((long) keySize * slotsPerSegment > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Segment size (keySize * slotsPerSegment) must not exceed " + Integer.MAX_VALUE + " bytes.");
+      }
+      return new OffHeapKeyring(this);
+    }
+  }
+
+  private OffHeapKeyring(Builder builder) {
+    this.keySize = builder.keySize;
+    this.slotsPerSegment = builder.slotsPerSegment;
+    this.table = new int[tableCapacityFor(builder.expectedKeys)];
+  }
+
+  private static int tableCapacityFor(int keys) {
+    // keep the load factor at or below 0.5
+    long capacity = 16;
+    while (capacity < (long) keys * 2) {
+      capacity <<= 1;
+    }
+    if (capacity > 1 << 30) {
+      throw new IllegalStateException("Too many keys.");
+    }
+    return (int) capacity;
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Adds a key to the keyring, replacing any existing key with the same ID.
+   * Zeroizes the given material.
+   *
+   * @throws IllegalArgumentException if the material is not the configured key size.
+   */
+  public void put(String keyId, byte[] material) {
+    requireNonNull(keyId);
+    try (Zeroizer zeroizer = new Zeroizer()) {
+      zeroizer.add(material);
+      if (material.length != keySize) {
+        throw new IllegalArgumentException("Expected key '" + keyId + "' to be " + keySize + " bytes, but got " + material.length);
+      }
+
+      final long stamp = lock.writeLock();
+      try {
+        checkNotClosed();
+
+        final int existing = findSlot(keyId);
+        if (existing >= 0) {
+          // Replace in a fresh slot, so outstanding views of the old key fail
+          // instead of silently returning different material.
+          removeFromTable(keyId);
+          freeSlot(existing);
+        }
+
+        final int slot = allocateSlot();
+        writeSlot(slot, material);
+        slotIds[slot] = keyId;
+        insertIntoTable(keyId, slot);
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  /**
+   * Removes the key with the given ID, and zeroizes its slot.
+   *
+   * @return true if the key was present.
+   */
+  public boolean remove(String keyId) {
+    requireNonNull(keyId);
+    final long stamp = lock.writeLock();
+    try {
+      checkNotClosed();
+      final int slot = findSlot(keyId);
+      if (slot < 0) {
+        return false;
+      }
+      removeFromTable(keyId);
+      freeSlot(slot);
+      return true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public Optional<Key> get(String keyId) {
+    final long stamp = lock.readLock();
+    try {
+      checkNotClosed();
+      final int slot = findSlot(keyId);
+      return slot < 0
+          ? Optional.empty()
+          : Optional.of(new SlotKey(slotIds[slot], slot, slotGenerations[slot]));
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  @Override
+  public Collection<String> keyIds() {
+    final long stamp = lock.readLock();
+    try {
+      checkNotClosed();
+      final List<String> result = new ArrayList<>(size);
+      for (int entry : table) {
+        if (entry > 0) {
+          result.add(slotIds[entry - 1]);
+        }
+      }
+      return Collections.unmodifiableList(result);
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Returns the number of keys in the keyring.
+   */
+  public int size() {
+    final long stamp = lock.readLock();
+    try {
+      return size;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Zeroizes all key material and releases the keyring's references to its buffers.
+   * Subsequent lookups throw {@link IllegalStateException}.
+   * <p>
+   * The direct memory itself is returned to the operating system
+   * when the buffers are garbage collected.
+   */
+  @Override
+  public void close() {
+    final long stamp = lock.writeLock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      for (ByteBuffer segment : segments) {
+        for (int i = 0, len = segment.capacity(); i < len; i++) {
+          segment.put(i, (byte) 0);
+        }
+      }
+      segments.clear();
+      Arrays.fill(slotIds, null);
+      Arrays.fill(table, EMPTY);
+      size = 0;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  private void checkNotClosed() {
+    if (closed) {
+      throw new IllegalStateException("Keyring is closed.");
+    }
+  }
+
+  // Caller must hold the read or write lock.
+  private int findSlot(String keyId) {
+    final int mask = table.length - 1;
+    for (int i = spread(keyId.hashCode()) & mask; ; i = (i + 1) & mask) {
+      final int entry = table[i];
+      if (entry == EMPTY) {
+        return -1;
+      }
+      if (entry > 0 && keyId.equals(slotIds[entry - 1])) {
+        return entry - 1;
+      }
+    }
+  }
+
+  // Caller must hold the write lock.
+  private void insertIntoTable(String keyId, int slot) {
+    if ((size + tombstones + 1) * 2 > table.length) {
+      rehash(tableCapacityFor(size + 1));
+    }
+    final int mask = table.length - 1;
+    int i = spread(keyId.hashCode()) & mask;
+    while (table[i] > 0) {
+      i = (i + 1) & mask;
+    }
+    if (table[i] == TOMBSTONE) {
+      tombstones--;
+    }
+    table[i] = slot + 1;
+    size++;
+  }
+
+  // Caller must hold the write lock. Key must be present.
+  private void removeFromTable(String keyId) {
+    final int mask = table.length - 1;
+    for (int i = spread(keyId.hashCode()) & mask; ; i = (i + 1) & mask) {
+      final int entry = table[i];
+      if (entry > 0 && keyId.equals(slotIds[entry - 1])) {
+        table[i] = TOMBSTONE;
+        tombstones++;
+        size--;
+        return;
+      }
+    }
+  }
+
+  // Caller must hold the write lock.
+  private void rehash(int newCapacity) {
+    final int[] oldTable = table;
+    table = new int[newCapacity];
+    tombstones = 0;
+    final int mask = newCapacity - 1;
+    for (int entry : oldTable) {
+      if (entry > 0) {
+        int i = spread(slotIds[entry - 1].hashCode()) & mask;
+        while (table[i] != EMPTY) {
+          i = (i + 1) & mask;
+        }
+        table[i] = entry;
+      }
+    }
+  }
+
+  // Caller must hold the write lock.
+  private int allocateSlot() {
+    if (freeSlotCount == 0) {
+      addSegment();
+    }
+    return freeSlots[--freeSlotCount];
+  }
+
+  // Caller must hold the write lock.
+  private void addSegment() {
+    final int firstSlot = slotIds.length;
+    final int newSlotCount = firstSlot + slotsPerSegment;
+    if (newSlotCount < 0) {
+      throw new IllegalStateException("Too many keys.");
+    }
+
+    segments.add(ByteBuffer.allocateDirect(keySize * slotsPerSegment));
+    slotIds = Arrays.copyOf(slotIds, newSlotCount);
+    slotGenerations = Arrays.copyOf(slotGenerations, newSlotCount);
+    freeSlots = Arrays.copyOf(freeSlots, newSlotCount);
+
+    // push in reverse so slots are handed out in ascending order
+    for (int slot = newSlotCount - 1; slot >= firstSlot; slot--) {
+      freeSlots[freeSlotCount++] = slot;
+    }
+  }
+
+  // Caller must hold the write lock.
+  private void freeSlot(int slot) {
+    final ByteBuffer segment = segments.get(slot / slotsPerSegment);
+    final int offset = (slot % slotsPerSegment) * keySize;
+    for (int i = 0; i < keySize; i++) {
+      segment.put(offset + i, (byte) 0);
+    }
+    slotIds[slot] = null;
+    slotGenerations[slot]++;
+    freeSlots[freeSlotCount++] = slot;
+  }
+
+  // Caller must hold the write lock.
+  private void writeSlot(int slot, byte[] material) {
+    final ByteBuffer segment = segments.get(slot / slotsPerSegment);
+    final int offset = (slot % slotsPerSegment) * keySize;
+    for (int i = 0; i < keySize; i++) {
+      segment.put(offset + i, material[i]);
+    }
+  }
+
+  // Caller must hold the read or write lock.
+  private void readSlot(int slot, byte[] dest) {
+    // Absolute reads, since concurrent readers share the buffer's position.
+    final ByteBuffer segment = segments.get(slot / slotsPerSegment);
+    final int offset = (slot % slotsPerSegment) * keySize;
+    for (int i = 0; i < keySize; i++) {
+      dest[i] = segment.get(offset + i);
+    }
+  }
+
+  private byte[] readKey(SlotKey key) {
+    final byte[] result = new byte[keySize];
+    final long stamp = lock.readLock();
+    try {
+      if (closed || slotGenerations[key.slot] != key.generation) {
+        throw new IllegalStateException("Key '" + key.id + "' has been removed from the keyring.");
+      }
+      readSlot(key.slot, result);
+      return result;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * A view of a slot, valid until the key is removed or replaced.
+   */
+  private class SlotKey implements Key {
+    private final String id;
+    private final int slot;
+    private final int generation;
+
+    private SlotKey(String id, int slot, int generation) {
+      this.id = id;
+      this.slot = slot;
+      this.generation = generation;
+    }
+
+    @Override
+    public String id() {
+      return id;
+    }
+
+    @Override
+    public byte[] bytes() {
+      return readKey(this);
+    }
+
+    @Override
+    public String toString() {
+      return "Key{" +
+          "id='" + id + '\'' +
+          ", length=" + keySize +
+          '}';
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "OffHeapKeyring{" +
+        "keySize=" + keySize +
+        ", size=" + size() +
+        '}';
+  }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.internal.ChangeListeners;
+import com.couchbase.client.encryption.internal.CryptoEvents;
+import com.couchbase.client.encryption.internal.TimedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A keyring wrapper whose backing keyring is periodically replaced
+ * by calling a loader function, without ever blocking a lookup.
+ * <p>
+ * The first backing keyring is loaded when this keyring is built.
+ * After that, the first lookup following each reload interval schedules a
+ * reload on the configured executor, and continues using the current backing
+ * keyring. When the reload finishes, the new backing keyring is swapped in
+ * atomically. If the reload fails, the current backing keyring is kept
+ * and the failure is logged; the next attempt happens after another interval.
+ * <p>
+ * If a superseded backing keyring implements {@link AutoCloseable}
+ * (and is not the same instance as its replacement), it is closed.
+ * <p>
+ * Create new instances by calling {@link #builder()}.
+ *
+ * @see Keyring#reloading(Duration, Supplier)
+ */
+public class ReloadingKeyring implements ObservableKeyring {
+  private static final Logger log = LoggerFactory.getLogger(ReloadingKeyring.class);
+
+  private final Supplier<Keyring> loader;
+  private final long reloadIntervalNanos;
+  private final Executor executor;
+  private final LongSupplier ticker;
+
+  private final ChangeListeners changeListeners = new ChangeListeners();
+  private final AtomicBoolean reloadInProgress = new AtomicBoolean();
+  private volatile Keyring current;
+  private volatile long nextReloadNanos;
+
+  private final AtomicLong reloadCount = new AtomicLong();
+  private final AtomicLong reloadFailureCount = new AtomicLong();
+  private volatile long lastReloadNanos;
+  private volatile long lastReloadDurationNanos;
+  private volatile Throwable lastReloadFailure;
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private Duration reloadInterval = Duration.ofMinutes(1);
+    private Executor executor = ForkJoinPool.commonPool();
+    private LongSupplier ticker = System::nanoTime;
+
+    /**
+     * Sets how often to replace the backing keyring.
+     * <p>
+     * Optional. If not called, defaults to 1 minute.
+     */
+    public Builder reloadInterval(Duration reloadInterval) {
+      requireNonNull(reloadInterval);
+      if (reloadInterval.isNegative() || reloadInterval.isZero()) {
+        throw new IllegalArgumentException("Reload interval must be positive, but got " + reloadInterval);
+      }
+      this.reloadInterval = reloadInterval;
+      return this;
+    }
+
+    /**
+     * Sets the executor that calls the loader function.
+     * <p>
+     * Optional. If not called, defaults to {@link ForkJoinPool#commonPool()}.
+     * If the loader is slow (for example, because it unlocks a large password-protected
+     * key store), consider using a dedicated executor.
+     */
+    public Builder executor(Executor executor) {
+      this.executor = requireNonNull(executor);
+      return this;
+    }
+
+    /**
+     * Sets the source of {@link System#nanoTime()}-style readings, so tests can control time.
+     */
+    Builder ticker(LongSupplier ticker) {
+      this.ticker = requireNonNull(ticker);
+      return this;
+    }
+
+    /**
+     * Returns a new keyring backed by keyrings obtained from the given loader.
+     * Calls the loader once before returning, and propagates any exception it throws.
+     */
+    public ReloadingKeyring build(Supplier<Keyring> loader) {
+      return new ReloadingKeyring(loader, reloadInterval, executor, ticker);
+    }
+  }
+
+  private ReloadingKeyring(Supplier<Keyring> loader, Duration reloadInterval, Executor executor, LongSupplier ticker) {
+    this.loader = requireNonNull(loader);
+    this.reloadIntervalNanos = reloadInterval.toNanos();
+    this.executor = requireNonNull(executor);
+    this.ticker = requireNonNull(ticker);
+
+    final long startNanos = ticker.getAsLong();
+    this.current = load();
+    recordSuccess(startNanos);
+  }
+
+  @Override
+  public Optional<Key> get(String keyId) {
+    return currentKeyring().get(keyId);
+  }
+
+  @Override
+  public Optional<Key> acquire(String keyId) {
+    return currentKeyring().acquire(keyId);
+  }
+
+  private Keyring currentKeyring() {
+    if (ticker.getAsLong() - nextReloadNanos >= 0) {
+      scheduleReload();
+    }
+    return current;
+  }
+
+  private void scheduleReload() {
+    if (reloadInProgress.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::reload);
+      } catch (RejectedExecutionException e) {
+        reloadInProgress.set(false);
+        log.warn("Failed to schedule keyring reload; will retry on next lookup.", e);
+      }
+    }
+  }
+
+  private void reload() {
+    final long startNanos = ticker.getAsLong();
+    try {
+      final Keyring previous = current;
+      current = load();
+      recordSuccess(startNanos);
+      closeIfSuperseded(previous);
+      changeListeners.notifyChanged();
+
+    } catch (Throwable t) {
+      reloadFailureCount.incrementAndGet();
+      lastReloadFailure = t;
+      nextReloadNanos = ticker.getAsLong() + reloadIntervalNanos;
+      log.warn("Keyring reload failed after {}; will keep using previous keyring.",
+          Duration.ofNanos(ticker.getAsLong() - startNanos), t);
+
+    } finally {
+      reloadInProgress.set(false);
+    }
+  }
+
+  private Keyring load() {
+    final TimedEvent event = CryptoEvents.beginKeyringLoad(this);
+    boolean loaded = false;
+    try {
+      final Keyring result = requireNonNull(loader.get(), "Keyring loader returned null");
+      loaded = true;
+      return result;
+    } finally {
+      event.complete(loaded);
+    }
+  }
+
+  private void recordSuccess(long startNanos) {
+    final long now = ticker.getAsLong();
+    lastReloadNanos = now;
+    lastReloadDurationNanos = now - startNanos;
+    nextReloadNanos = now + reloadIntervalNanos;
+    reloadCount.incrementAndGet();
+    log.debug("Keyring reload took {}", Duration.ofNanos(lastReloadDurationNanos));
+  }
+
+  private void closeIfSuperseded(Keyring previous) {
+    if (previous != current && previous instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) previous).close();
+      } catch (Exception e) {
+        log.warn("Failed to close superseded keyring {}", previous, e);
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Listeners are called after each successful reload.
+   */
+  @Override
+  public void addChangeListener(Runnable listener) {
+    changeListeners.add(listener);
+  }
+
+  /**
+   * Returns a snapshot of the reload statistics.
+   */
+  public Stats stats() {
+    return new Stats(
+        reloadCount.get(),
+        reloadFailureCount.get(),
+        Duration.ofNanos(lastReloadDurationNanos),
+        Duration.ofNanos(ticker.getAsLong() - lastReloadNanos),
+        Optional.ofNullable(lastReloadFailure));
+  }
+
+  /**
+   * A point-in-time snapshot of reload statistics.
+   */
+  public static class Stats {
+    private final long reloadCount;
+    private final long reloadFailureCount;
+    private final Duration lastReloadDuration;
+    private final Duration age;
+    private final Optional<Throwable> lastReloadFailure;
+
+    private Stats(long reloadCount, long reloadFailureCount, Duration lastReloadDuration, Duration age, Optional<Throwable> lastReloadFailure) {
+      this.reloadCount = reloadCount;
+      this.reloadFailureCount = reloadFailureCount;
+      this.lastReloadDuration = lastReloadDuration;
+      this.age = age;
+      this.lastReloadFailure = lastReloadFailure;
+    }
+
+    /**
+     * Number of successful loads, including the initial load.
+     */
+    public long reloadCount() {
+      return reloadCount;
+    }
+
+    /**
+     * Number of times the loader threw an exception.
+     */
+    public long reloadFailureCount() {
+      return reloadFailureCount;
+    }
+
+    /**
+     * How long the most recent successful load took.
+     */
+    public Duration lastReloadDuration() {
+      return lastReloadDuration;
+    }
+
+    /**
+     * Time elapsed since the current backing keyring was loaded.
+     */
+    public Duration age() {
+      return age;
+    }
+
+    /**
+     * The exception thrown by the most recent failed load, if any.
+     */
+    public Optional<Throwable> lastReloadFailure() {
+      return lastReloadFailure;
+    }
+
+    @Override
+    public String toString() {
+      return "Stats{" +
+          "reloadCount=" + reloadCount +
+          ", reloadFailureCount=" + reloadFailureCount +
+          ", lastReloadDuration=" + lastReloadDuration +
+          ", age=" + age +
+          ", lastReloadFailure=" + lastReloadFailure +
+          '}';
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ReloadingKeyring{" +
+        "current=" + current +
+        ", reloadInterval=" + Duration.ofNanos(reloadIntervalNanos) +
+        '}';
+  }
+}
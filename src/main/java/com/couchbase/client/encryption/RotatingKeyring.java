@@ -7,30 +7,78 @@
 
 package com.couchbase.client.encryption;
 
+import com.couchbase.client.encryption.internal.KeyImpl;
+import com.couchbase.client.encryption.internal.Zeroizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
 import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * Base class for implementing Keyrings that support key rotation.
+ * <p>
+ * Parsed versioned key IDs are cached, so repeated lookups of the same
+ * versioned key (typical when decrypting) do not split and re-format the ID.
+ * <p>
+ * Subclasses whose {@link #getPrimaryVersion(String)} is expensive can also
+ * cache the primary version of each key by calling
+ * {@link #RotatingKeyring(String, Duration)}. A subclass that knows when
+ * the primary version changes should call {@link #invalidatePrimaryVersions()}
+ * or {@link #refreshPrimaryVersion(String)}.
  */
 public abstract class RotatingKeyring implements Keyring {
+  private static final int PARSED_KEY_ID_CACHE_SIZE = 1024;
+
   protected final String versionDelimiter;
 
+  private final Cache<String, KeyNameAndVersion> parsedKeyIds;
+  private final Cache<String, KeyNameAndVersion> primaryVersions; // null if disabled
+
   /**
    * @param versionDelimiter separates a key ID's base name component from the version component.
    */
   protected RotatingKeyring(String versionDelimiter) {
+    this(versionDelimiter, Duration.ZERO);
+  }
+
+  /**
+   * @param versionDelimiter separates a key ID's base name component from the version component.
+   * @param primaryVersionExpiry How long to remember the primary version of a key.
+   * {@link Duration#ZERO} disables caching, so {@link #getPrimaryVersion(String)} is called
+   * on every lookup by base name.
+   */
+  protected RotatingKeyring(String versionDelimiter, Duration primaryVersionExpiry) {
     this.versionDelimiter = requireNonNull(versionDelimiter);
+    requireNonNull(primaryVersionExpiry);
+    if (primaryVersionExpiry.isNegative()) {
+      throw new IllegalArgumentException("Primary version expiry must not be negative, but got " + primaryVersionExpiry);
+    }
+
+    this.parsedKeyIds = Caffeine.newBuilder()
+        .maximumSize(PARSED_KEY_ID_CACHE_SIZE)
+        .build();
+
+    this.primaryVersions = primaryVersionExpiry.isZero() ? null : Caffeine.newBuilder()
+        .expireAfterWrite(primaryVersionExpiry)
+        .build();
   }
 
   protected class KeyNameAndVersion {
     private final String name;
     private final String version;
+    private final String formatted;
 
     public KeyNameAndVersion(String name, String version) {
+      this(name, version, name + versionDelimiter + version);
+    }
+
+    private KeyNameAndVersion(String name, String version, String formatted) {
       this.name = requireNonNull(name);
       this.version = requireNonNull(version);
+      this.formatted = formatted;
     }
 
     public String name() {
@@ -42,7 +90,7 @@ public abstract class RotatingKeyring implements Keyring {
     }
 
     public String format() {
-      return name + versionDelimiter + version;
+      return formatted;
     }
 
     @Override
@@ -52,9 +100,25 @@ public abstract class RotatingKeyring implements Keyring {
   }
 
   public Optional<Key> get(String keyId) {
+    return lookup(keyId, false);
+  }
+
+  @Override
+  public Optional<Key> acquire(String keyId) {
+    return lookup(keyId, true);
+  }
+
+  private Optional<Key> lookup(String keyId, boolean closeable) {
     KeyNameAndVersion nameAndVersion = parseKeyNameAndVersion(keyId);
     return getKeyBytes(nameAndVersion)
-        .map(bytes -> Key.create(nameAndVersion.format(), bytes));
+        .<Key>map(bytes -> {
+          try (Zeroizer zeroizer = new Zeroizer()) {
+            final byte[] keyBytes = zeroizer.add(bytes);
+            return closeable
+                ? KeyImpl.closeable(nameAndVersion.format(), keyBytes)
+                : new KeyImpl(nameAndVersion.format(), keyBytes);
+          }
+        });
   }
 
   protected abstract String getPrimaryVersion(String baseName);
@@ -63,8 +127,38 @@ public abstract class RotatingKeyring implements Keyring {
 
   protected KeyNameAndVersion parseKeyNameAndVersion(String keyId) {
     int i = keyId.indexOf(versionDelimiter);
-    return i == -1
-        ? new KeyNameAndVersion(keyId, getPrimaryVersion(keyId))
-        : new KeyNameAndVersion(keyId.substring(0, i), keyId.substring(i + versionDelimiter.length()));
+    if (i == -1) {
+      return primaryVersions == null
+          ? new KeyNameAndVersion(keyId, getPrimaryVersion(keyId))
+          : primaryVersions.get(keyId, baseName -> new KeyNameAndVersion(baseName, getPrimaryVersion(baseName)));
+    }
+
+    KeyNameAndVersion result = parsedKeyIds.getIfPresent(keyId);
+    if (result == null) {
+      result = new KeyNameAndVersion(keyId.substring(0, i), keyId.substring(i + versionDelimiter.length()), keyId);
+      parsedKeyIds.put(keyId, result);
+    }
+    return result;
+  }
+
+  /**
+   * Forgets the cached primary version of every key.
+   * Has no effect if primary version caching is disabled.
+   */
+  public void invalidatePrimaryVersions() {
+    if (primaryVersions != null) {
+      primaryVersions.invalidateAll();
+    }
+  }
+
+  /**
+   * Immediately looks up the primary version of the given key,
+   * and caches it if primary version caching is enabled.
+   */
+  public void refreshPrimaryVersion(String baseName) {
+    final KeyNameAndVersion primary = new KeyNameAndVersion(baseName, getPrimaryVersion(baseName));
+    if (primaryVersions != null) {
+      primaryVersions.put(baseName, primary);
+    }
   }
 }
@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.errors.CryptoException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.couchbase.client.encryption.internal.LangHelper.copyToUnmodifiableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A composite keyring that remembers which member keyring holds each key.
+ * <p>
+ * Like {@link Keyring#composite(List)}, the first lookup for a key consults
+ * the member keyrings in order, and returns the key from the first member that has it.
+ * The index of that member is remembered, so later lookups for the same key go
+ * straight to that member. If the member no longer has the key, the route is
+ * discarded and the other members are consulted in order. The fact that no member has a key can be
+ * remembered too, for a limited time.
+ * <p>
+ * Remembered routes are discarded whenever a member that implements
+ * {@link ObservableKeyring} reports a change, or when {@link #invalidateAll()} is called.
+ * Otherwise, a route remains in effect even if a key with the same ID is later
+ * added to an earlier member.
+ * <p>
+ * By default, members are consulted one at a time. If some members are slow,
+ * they can be consulted concurrently; see {@link Builder#parallelProbing(Executor)}
+ * and {@link Builder#hedgedProbing(Duration, Executor)}. Either way, a key from
+ * an earlier member takes precedence over a key from a later member.
+ * <p>
+ * Concurrent probing applies to every member of the keyring. To consult fast
+ * (for example, in-memory) members on the calling thread and only the slow ones
+ * concurrently, nest a routing keyring for the slow members inside one for the fast members:
+ * <pre>
+ * Keyring slowMembers = RoutingKeyring.builder()
+ *     .parallelProbing(executor)
+ *     .build(vaultKeyring, kmsKeyring);
+ * Keyring keyring = RoutingKeyring.builder()
+ *     .build(localKeyring, slowMembers);
+ * </pre>
+ * <p>
+ * Create new instances by calling {@link #builder()}.
+ */
+public class RoutingKeyring implements Keyring {
+  private static final Integer NO_MEMBER = -1;
+
+  private final List<Keyring> members;
+  private final Cache<String, Integer> routes;
+  private final boolean cacheMissingKeys;
+  private final Executor executor; // null means sequential probing
+  private final long hedgeDelayNanos;
+
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder routedLookups = new LongAdder();
+  private final LongAdder probes = new LongAdder();
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private long maximumRoutes = 10_000;
+    private Duration missingKeyExpiry = Duration.ofSeconds(10);
+    private Executor executor;
+    private Duration hedgeDelay = Duration.ZERO;
+
+    /**
+     * Limits the number of remembered routes.
+     * <p>
+     * Optional. If not called, defaults to 10,000.
+     */
+    public Builder maximumRoutes(long maximumRoutes) {
+      if (maximumRoutes < 0) {
+        throw new IllegalArgumentException("Maximum routes must be non-negative, but got " + maximumRoutes);
+      }
+      this.maximumRoutes = maximumRoutes;
+      return this;
+    }
+
+    /**
+     * Sets how long to remember that no member has a key.
+     * <p>
+     * Optional. If not called, defaults to 10 seconds.
+     * Use {@link Duration#ZERO} to always consult every member when a key is missing.
+     */
+    public Builder missingKeyExpiry(Duration missingKeyExpiry) {
+      requireNonNull(missingKeyExpiry);
+      if (missingKeyExpiry.isNegative()) {
+        throw new IllegalArgumentException("Missing key expiry must not be negative, but got " + missingKeyExpiry);
+      }
+      this.missingKeyExpiry = missingKeyExpiry;
+      return this;
+    }
+
+    /**
+     * When a key's route is unknown, consult all members at once
+     * using the given executor.
+     * <p>
+     * Optional. If neither this method nor {@link #hedgedProbing} is called,
+     * members are consulted one at a time on the calling thread.
+     */
+    public Builder parallelProbing(Executor executor) {
+      this.executor = requireNonNull(executor);
+      this.hedgeDelay = Duration.ZERO;
+      return this;
+    }
+
+    /**
+     * When a key's route is unknown, consult the members in order using the given executor,
+     * but don't wait longer than {@code delay} for a member before also consulting the next one.
+     * <p>
+     * Optional. If neither this method nor {@link #parallelProbing} is called,
+     * members are consulted one at a time on the calling thread.
+     */
+    public Builder hedgedProbing(Duration delay, Executor executor) {
+      requireNonNull(delay);
+      if (delay.isNegative()) {
+        throw new IllegalArgumentException("Hedge delay must not be negative, but got " + delay);
+      }
+      this.executor = requireNonNull(executor);
+      this.hedgeDelay = delay;
+      return this;
+    }
+
+    public RoutingKeyring build(Keyring... members) {
+      return build(Arrays.asList(members));
+    }
+
+    public RoutingKeyring build(List<Keyring> members) {
+      if (members.stream().anyMatch(Objects::isNull)) {
+        throw new IllegalArgumentException("Keyring chain may not contain null keyring.");
+      }
+      return new RoutingKeyring(copyToUnmodifiableList(members), this);
+    }
+  }
+
+  private RoutingKeyring(List<Keyring> members, Builder builder) {
+    this.members = requireNonNull(members);
+    this.executor = builder.executor;
+    this.hedgeDelayNanos = builder.hedgeDelay.toNanos();
+    this.cacheMissingKeys = !builder.missingKeyExpiry.isZero();
+
+    final long missingKeyExpiryNanos = builder.missingKeyExpiry.toNanos();
+    this.routes = Caffeine.newBuilder()
+        .maximumSize(builder.maximumRoutes)
+        .expireAfter(new Expiry<String, Integer>() {
+          @Override
+          public long expireAfterCreate(String key, Integer value, long currentTime) {
+            return NO_MEMBER.equals(value) ? missingKeyExpiryNanos : Long.MAX_VALUE;
+          }
+
+          @Override
+          public long expireAfterUpdate(String key, Integer value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(String key, Integer value, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .build();
+
+    for (Keyring member : members) {
+      if (member instanceof ObservableKeyring) {
+        ((ObservableKeyring) member).addChangeListener(this::invalidateAll);
+      }
+    }
+  }
+
+  @Override
+  public Optional<Key> get(String keyId) {
+    return lookup(keyId, false);
+  }
+
+  @Override
+  public Optional<Key> acquire(String keyId) {
+    return lookup(keyId, true);
+  }
+
+  private Optional<Key> lookup(String keyId, boolean acquire) {
+    lookups.increment();
+
+    final Integer route = routes.getIfPresent(keyId);
+    int staleMember = NO_MEMBER;
+    if (route != null) {
+      if (route.equals(NO_MEMBER)) {
+        routedLookups.increment();
+        return Optional.empty();
+      }
+
+      probes.increment();
+      final Optional<Key> key = lookup(members.get(route), keyId, acquire);
+      if (key.isPresent()) {
+        routedLookups.increment();
+        return key;
+      }
+      // Stale route. The member just said it doesn't have the key, so don't ask it again.
+      routes.invalidate(keyId);
+      staleMember = route;
+    }
+
+    return executor == null
+        ? probeSequentially(keyId, acquire, staleMember)
+        : probeConcurrently(keyId, acquire, staleMember);
+  }
+
+  private static Optional<Key> lookup(Keyring member, String keyId, boolean acquire) {
+    return acquire ? member.acquire(keyId) : member.get(keyId);
+  }
+
+  private Optional<Key> probeSequentially(String keyId, boolean acquire, int skippedMember) {
+    for (int i = 0; i < members.size(); i++) {
+      if (i == skippedMember) {
+        continue;
+      }
+      probes.increment();
+      final Optional<Key> key = lookup(members.get(i), keyId, acquire);
+      if (key.isPresent()) {
+        routes.put(keyId, i);
+        return key;
+      }
+    }
+    return notFound(keyId);
+  }
+
+  private Optional<Key> probeConcurrently(String keyId, boolean acquire, int skippedMember) {
+    final int memberCount = members.size();
+    final List<CompletableFuture<Optional<Key>>> launched = new ArrayList<>(memberCount);
+
+    int i = 0;
+    while (i < memberCount) {
+      if (launched.size() == i) {
+        launched.add(launch(i, keyId, acquire, skippedMember));
+      }
+      if (hedgeDelayNanos == 0) {
+        while (launched.size() < memberCount) {
+          launched.add(launch(launched.size(), keyId, acquire, skippedMember));
+        }
+      }
+
+      final Optional<Key> key;
+      try {
+        if (launched.size() < memberCount) {
+          key = launched.get(i).get(hedgeDelayNanos, NANOSECONDS);
+        } else {
+          key = launched.get(i).get();
+        }
+
+      } catch (TimeoutException e) {
+        // Member is slow; start consulting the next one too.
+        launched.add(launch(launched.size(), keyId, acquire, skippedMember));
+        continue;
+
+      } catch (ExecutionException e) {
+        if (acquire) {
+          closeLaterResults(launched, i);
+        }
+        final Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new CryptoException("Keyring lookup failed for key '" + keyId + "'", cause);
+
+      } catch (InterruptedException e) {
+        if (acquire) {
+          closeLaterResults(launched, i - 1);
+        }
+        Thread.currentThread().interrupt();
+        throw new CryptoException("Interrupted while looking up key '" + keyId + "'", e);
+      }
+
+      if (key.isPresent()) {
+        routes.put(keyId, i);
+        if (acquire) {
+          closeLaterResults(launched, i);
+        }
+        return key;
+      }
+      i++;
+    }
+
+    return notFound(keyId);
+  }
+
+  /**
+   * Closes keys acquired from members after the given index, whenever those lookups complete.
+   */
+  private static void closeLaterResults(List<CompletableFuture<Optional<Key>>> launched, int index) {
+    for (int j = index + 1; j < launched.size(); j++) {
+      launched.get(j).thenAccept(key -> key.ifPresent(Key::close));
+    }
+  }
+
+  private CompletableFuture<Optional<Key>> launch(int memberIndex, String keyId, boolean acquire, int skippedMember) {
+    if (memberIndex == skippedMember) {
+      return CompletableFuture.completedFuture(Optional.empty());
+    }
+    probes.increment();
+    final Keyring member = members.get(memberIndex);
+    return CompletableFuture.supplyAsync(() -> lookup(member, keyId, acquire), executor);
+  }
+
+  private Optional<Key> notFound(String keyId) {
+    if (cacheMissingKeys) {
+      routes.put(keyId, NO_MEMBER);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Forgets the route for the given key.
+   */
+  public void invalidate(String keyId) {
+    routes.invalidate(keyId);
+  }
+
+  /**
+   * Forgets all routes.
+   */
+  public void invalidateAll() {
+    routes.invalidateAll();
+  }
+
+  /**
+   * Returns a snapshot of the lookup statistics.
+   */
+  public Stats stats() {
+    return new Stats(lookups.sum(), routedLookups.sum(), probes.sum());
+  }
+
+  /**
+   * A point-in-time snapshot of lookup statistics.
+   */
+  public static class Stats {
+    private final long lookups;
+    private final long routedLookups;
+    private final long probes;
+
+    private Stats(long lookups, long routedLookups, long probes) {
+      this.lookups = lookups;
+      this.routedLookups = routedLookups;
+      this.probes = probes;
+    }
+
+    /**
+     * Number of calls to {@link RoutingKeyring#get(String)} and {@link RoutingKeyring#acquire(String)}.
+     */
+    public long lookups() {
+      return lookups;
+    }
+
+    /**
+     * Number of lookups answered using a remembered route.
+     */
+    public long routedLookups() {
+      return routedLookups;
+    }
+
+    /**
+     * Number of times a member keyring was consulted.
+     */
+    public long probes() {
+      return probes;
+    }
+
+    /**
+     * Average number of member keyrings consulted per lookup, or zero if there were no lookups.
+     */
+    public double probesPerLookup() {
+      return lookups == 0 ? 0 : (double) probes / lookups;
+    }
+
+    @Override
+    public String toString() {
+      return "Stats{" +
+          "lookups=" + lookups +
+          ", routedLookups=" + routedLookups +
+          ", probes=" + probes +
+          ", probesPerLookup=" + probesPerLookup() +
+          '}';
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "RoutingKeyring{" +
+        "members=" + members +
+        '}';
+  }
+}
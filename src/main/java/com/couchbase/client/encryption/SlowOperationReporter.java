@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.core.json.Mapper;
+import com.couchbase.client.encryption.internal.DaemonThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Periodically reports the slowest encryptions, decryptions, and key lookups,
+ * similar to the SDK's threshold logging tracer.
+ * <p>
+ * An operation is a candidate for the report if it takes longer than the threshold
+ * for its type. For each type, only the slowest operations since the previous report
+ * are kept, so memory use is bounded no matter how many operations are slow.
+ * Operations faster than the threshold are not recorded anywhere, so this is cheap
+ * enough to leave enabled in production.
+ * <p>
+ * Reports are JSON. Each reported encryption or decryption includes the algorithm,
+ * key ID, payload size, and how its duration splits between key lookup and everything
+ * else (mostly the cipher). Key lookup time is only known for lookups made through
+ * a keyring returned by {@link #timed(Keyring)}.
+ * <p>
+ * Failed encryptions and decryptions are reported separately, in the
+ * {@code encrypt_failure} and {@code decrypt_failure} sections, so a burst of
+ * failures does not crowd successful operations out of the report.
+ * <p>
+ * To enable reporting, pass an instance to {@link DefaultCryptoManager.Builder#slowOperationReporter}.
+ * Call {@link #close()} to stop reporting.
+ * <p>
+ * Create new instances by calling {@link #builder()}.
+ */
+public class SlowOperationReporter implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(SlowOperationReporter.class);
+
+  static final String ENCRYPT = "encrypt";
+  static final String DECRYPT = "decrypt";
+  static final String ENCRYPT_FAILURE = "encrypt_failure";
+  static final String DECRYPT_FAILURE = "decrypt_failure";
+  static final String KEY_LOOKUP = "key_lookup";
+
+  private static final Comparator<SlowOperation> FASTEST_FIRST = Comparator.comparingLong(op -> op.durationNanos);
+
+  /**
+   * Total time spent in timed key lookups on a thread. The key lookup time
+   * of an operation is the difference between readings at its start and end.
+   */
+  private static class PhaseTimer {
+    long keyLookupNanos;
+  }
+
+  private static final ThreadLocal<PhaseTimer> phaseTimer = ThreadLocal.withInitial(PhaseTimer::new);
+
+  private final long encryptThresholdNanos;
+  private final long decryptThresholdNanos;
+  private final long keyLookupThresholdNanos;
+  private final Consumer<String> reportConsumer;
+
+  private final Slowest slowestEncryptions;
+  private final Slowest slowestDecryptions;
+  private final Slowest slowestFailedEncryptions;
+  private final Slowest slowestFailedDecryptions;
+  private final Slowest slowestKeyLookups;
+
+  private final ScheduledExecutorService executor;
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private Duration encryptThreshold = Duration.ofMillis(10);
+    private Duration decryptThreshold = Duration.ofMillis(10);
+    private Duration keyLookupThreshold = Duration.ofMillis(10);
+    private int sampleSize = 10;
+    private Duration emitInterval = Duration.ofSeconds(10);
+    private Consumer<String> reportConsumer = report -> log.warn("Slow crypto operations: {}", report);
+
+    /**
+     * Optional. If not called, defaults to 10 milliseconds.
+     */
+    public Builder encryptThreshold(Duration encryptThreshold) {
+      this.encryptThreshold = requireNonNull(encryptThreshold);
+      return this;
+    }
+
+    /**
+     * Optional. If not called, defaults to 10 milliseconds.
+     */
+    public Builder decryptThreshold(Duration decryptThreshold) {
+      this.decryptThreshold = requireNonNull(decryptThreshold);
+      return this;
+    }
+
+    /**
+     * Optional. If not called, defaults to 10 milliseconds.
+     */
+    public Builder keyLookupThreshold(Duration keyLookupThreshold) {
+      this.keyLookupThreshold = requireNonNull(keyLookupThreshold);
+      return this;
+    }
+
+    /**
+     * Sets how many of the slowest operations of each type to include in each report.
+     * <p>
+     * Optional. If not called, defaults to 10.
+     */
+    public Builder sampleSize(int sampleSize) {
+      if (sampleSize < 1) {
+        throw new IllegalArgumentException("Sample size must be positive, but got " + sampleSize);
+      }
+      this.sampleSize = sampleSize;
+      return this;
+    }
+
+    /**
+     * Sets how often to report. Nothing is reported for an interval with no slow operations.
+     * <p>
+     * Optional. If not called, defaults to 10 seconds.
+     */
+    public Builder emitInterval(Duration emitInterval) {
+      requireNonNull(emitInterval);
+      if (emitInterval.isNegative() || emitInterval.isZero()) {
+        throw new IllegalArgumentException("Emit interval must be positive, but got " + emitInterval);
+      }
+      this.emitInterval = emitInterval;
+      return this;
+    }
+
+    /**
+     * Sets the consumer of JSON reports.
+     * <p>
+     * Optional. If not called, reports are logged at WARN level.
+     */
+    public Builder reportConsumer(Consumer<String> reportConsumer) {
+      this.reportConsumer = requireNonNull(reportConsumer);
+      return this;
+    }
+
+    public SlowOperationReporter build() {
+      return new SlowOperationReporter(this);
+    }
+  }
+
+  private SlowOperationReporter(Builder builder) {
+    this.encryptThresholdNanos = builder.encryptThreshold.toNanos();
+    this.decryptThresholdNanos = builder.decryptThreshold.toNanos();
+    this.keyLookupThresholdNanos = builder.keyLookupThreshold.toNanos();
+    this.reportConsumer = builder.reportConsumer;
+    this.slowestEncryptions = new Slowest(builder.sampleSize);
+    this.slowestDecryptions = new Slowest(builder.sampleSize);
+    this.slowestFailedEncryptions = new Slowest(builder.sampleSize);
+    this.slowestFailedDecryptions = new Slowest(builder.sampleSize);
+    this.slowestKeyLookups = new Slowest(builder.sampleSize);
+
+    this.executor = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("slow-crypto-operation-reporter"));
+    final long intervalNanos = builder.emitInterval.toNanos();
+    executor.scheduleAtFixedRate(this::emit, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the given keyring decorated to report slow lookups,
+   * and to measure lookup time for the encryption or decryption in progress.
+   * <p>
+   * If the keyring is also decorated with caching, apply this decorator
+   * outside the cache so cache hits are counted as key lookup time too.
+   */
+  public Keyring timed(Keyring wrapped) {
+    requireNonNull(wrapped);
+    return new Keyring() {
+      @Override
+      public Optional<Key> get(String keyId) {
+        return lookup(keyId, false);
+      }
+
+      @Override
+      public Optional<Key> acquire(String keyId) {
+        return lookup(keyId, true);
+      }
+
+      private Optional<Key> lookup(String keyId, boolean acquire) {
+        final long startNanos = System.nanoTime();
+        Optional<Key> result = null;
+        try {
+          result = acquire ? wrapped.acquire(keyId) : wrapped.get(keyId);
+          return result;
+        } finally {
+          final long elapsedNanos = System.nanoTime() - startNanos;
+          phaseTimer.get().keyLookupNanos += elapsedNanos;
+          if (elapsedNanos > keyLookupThresholdNanos) {
+            final String resolvedKeyId = result != null && result.isPresent() ? result.get().id() : keyId;
+            slowestKeyLookups.offer(new SlowOperation(KEY_LOOKUP, elapsedNanos, 0, null, resolvedKeyId, -1));
+          }
+        }
+      }
+    };
+  }
+
+  /**
+   * Called by the crypto manager before each encryption or decryption.
+   *
+   * @return a value to pass to {@link #end}
+   */
+  long begin() {
+    return phaseTimer.get().keyLookupNanos;
+  }
+
+  /**
+   * Called by the crypto manager after each encryption or decryption, whether or not it succeeded.
+   *
+   * @param operation {@link #ENCRYPT} or {@link #DECRYPT}
+   * @param keyLookupBaseline the value returned by {@link #begin()}
+   * @param payloadSize plaintext length for encryption, or ciphertext length for decryption
+   * @param succeeded false if the operation threw an exception
+   */
+  void end(String operation, long startNanos, long keyLookupBaseline, String algorithm, String keyId, long payloadSize, boolean succeeded) {
+    final long elapsedNanos = System.nanoTime() - startNanos;
+    final boolean encrypt = operation.equals(ENCRYPT);
+    if (elapsedNanos > (encrypt ? encryptThresholdNanos : decryptThresholdNanos)) {
+      final long keyLookupNanos = phaseTimer.get().keyLookupNanos - keyLookupBaseline;
+      final Slowest slowest = encrypt
+          ? (succeeded ? slowestEncryptions : slowestFailedEncryptions)
+          : (succeeded ? slowestDecryptions : slowestFailedDecryptions);
+      final String reportedOperation = succeeded ? operation : (encrypt ? ENCRYPT_FAILURE : DECRYPT_FAILURE);
+      slowest.offer(new SlowOperation(reportedOperation, elapsedNanos, keyLookupNanos, algorithm, keyId, payloadSize));
+    }
+  }
+
+  /**
+   * Reports the slow operations recorded since the previous report, if any.
+   */
+  void emit() {
+    try {
+      final Map<String, Object> report = new LinkedHashMap<>();
+      slowestEncryptions.drainInto(report, ENCRYPT);
+      slowestDecryptions.drainInto(report, DECRYPT);
+      slowestFailedEncryptions.drainInto(report, ENCRYPT_FAILURE);
+      slowestFailedDecryptions.drainInto(report, DECRYPT_FAILURE);
+      slowestKeyLookups.drainInto(report, KEY_LOOKUP);
+      if (!report.isEmpty()) {
+        reportConsumer.accept(Mapper.encodeAsString(report));
+      }
+    } catch (Throwable t) {
+      log.error("Failed to report slow crypto operations", t);
+    }
+  }
+
+  /**
+   * Stops reporting, after reporting any slow operations not yet reported.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    emit();
+  }
+
+  private static class SlowOperation {
+    private final String operation;
+    private final long durationNanos;
+    private final long keyLookupNanos;
+    private final String algorithm;
+    private final String keyId;
+    private final long payloadSize;
+
+    SlowOperation(String operation, long durationNanos, long keyLookupNanos, String algorithm, String keyId, long payloadSize) {
+      this.operation = operation;
+      this.durationNanos = durationNanos;
+      this.keyLookupNanos = keyLookupNanos;
+      this.algorithm = algorithm;
+      this.keyId = keyId;
+      this.payloadSize = payloadSize;
+    }
+
+    Map<String, Object> toMap() {
+      final Map<String, Object> result = new LinkedHashMap<>();
+      result.put("operation_name", operation);
+      result.put("total_duration_us", TimeUnit.NANOSECONDS.toMicros(durationNanos));
+      if (!operation.equals(KEY_LOOKUP)) {
+        result.put("key_lookup_duration_us", TimeUnit.NANOSECONDS.toMicros(keyLookupNanos));
+        result.put("cipher_duration_us", TimeUnit.NANOSECONDS.toMicros(durationNanos - keyLookupNanos));
+      }
+      if (algorithm != null) {
+        result.put("algorithm", algorithm);
+      }
+      if (keyId != null) {
+        result.put("key_id", keyId);
+      }
+      if (payloadSize >= 0) {
+        result.put("payload_size", payloadSize);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * The slowest operations of one type, and how many operations exceeded the threshold.
+   */
+  private static class Slowest {
+    private final int capacity;
+    private final PriorityQueue<SlowOperation> queue;
+    private long totalCount;
+
+    Slowest(int capacity) {
+      this.capacity = capacity;
+      this.queue = new PriorityQueue<>(capacity + 1, FASTEST_FIRST);
+    }
+
+    synchronized void offer(SlowOperation op) {
+      totalCount++;
+      if (queue.size() < capacity) {
+        queue.add(op);
+      } else if (op.durationNanos > queue.peek().durationNanos) {
+        queue.poll();
+        queue.add(op);
+      }
+    }
+
+    synchronized void drainInto(Map<String, Object> report, String operation) {
+      if (totalCount == 0) {
+        return;
+      }
+
+      final List<SlowOperation> slowestFirst = new ArrayList<>(queue);
+      slowestFirst.sort(FASTEST_FIRST.reversed());
+      final List<Map<String, Object>> top = new ArrayList<>(slowestFirst.size());
+      slowestFirst.forEach(op -> top.add(op.toMap()));
+
+      final Map<String, Object> section = new LinkedHashMap<>();
+      section.put("total_count", totalCount);
+      section.put("top_requests", top);
+      report.put(operation, section);
+
+      queue.clear();
+      totalCount = 0;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "SlowOperationReporter{" +
+        "encryptThreshold=" + Duration.ofNanos(encryptThresholdNanos) +
+        ", decryptThreshold=" + Duration.ofNanos(decryptThresholdNanos) +
+        ", keyLookupThreshold=" + Duration.ofNanos(keyLookupThresholdNanos) +
+        ", sampleSize=" + slowestEncryptions.capacity +
+        '}';
+  }
+}
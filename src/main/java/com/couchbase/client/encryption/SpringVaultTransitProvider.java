@@ -7,7 +7,10 @@
 
 package com.couchbase.client.encryption;
 
+import com.couchbase.client.core.cnc.RequestTracer;
+import com.couchbase.client.core.cnc.tracing.NoopRequestTracer;
 import com.couchbase.client.encryption.errors.InvalidCiphertextException;
+import com.couchbase.client.encryption.internal.CryptoTracing;
 import org.springframework.vault.VaultException;
 import org.springframework.vault.core.VaultTemplate;
 import org.springframework.vault.core.VaultTransitOperations;
@@ -51,13 +54,29 @@ import static java.util.Objects.requireNonNull;
 public class SpringVaultTransitProvider {
   private static final String ALGORITHM = "HASHICORP_VAULT_TRANSIT";
 
+  private static final String SPAN_VAULT_ENCRYPT = "vault_transit_encrypt";
+  private static final String SPAN_VAULT_DECRYPT = "vault_transit_decrypt";
+
   private final VaultTransitOperations transitOps;
+  private final CryptoTracing tracing;
 
   /**
    * @param vaultTransitOps Obtained from {@link VaultTemplate#opsForTransit()}
    */
   public SpringVaultTransitProvider(VaultTransitOperations vaultTransitOps) {
+    this(vaultTransitOps, NoopRequestTracer.INSTANCE);
+  }
+
+  /**
+   * Like {@link #SpringVaultTransitProvider(VaultTransitOperations)}, but also
+   * opens a request span around each call to Vault, tagged with the key name and payload size.
+   *
+   * @param vaultTransitOps Obtained from {@link VaultTemplate#opsForTransit()}
+   * @param requestTracer Typically {@code cluster.environment().requestTracer()}
+   */
+  public SpringVaultTransitProvider(VaultTransitOperations vaultTransitOps, RequestTracer requestTracer) {
     this.transitOps = requireNonNull(vaultTransitOps);
+    this.tracing = CryptoTracing.create(requestTracer);
   }
 
   public Decrypter decrypter() {
@@ -69,16 +88,21 @@ public class SpringVaultTransitProvider {
 
       @Override
       public byte[] decrypt(EncryptionResult encrypted) throws Exception {
-        try {
-          String keyName = encrypted.getString("kid");
-          String ciphertext = encrypted.getString("ciphertext");
-          return transitOps.decrypt(keyName, Ciphertext.of(ciphertext)).getPlaintext();
+        try (CryptoTracing.Scope scope = tracing.start(SPAN_VAULT_DECRYPT)) {
+          try {
+            String keyName = encrypted.getString("kid");
+            String ciphertext = encrypted.getString("ciphertext");
+            scope.attribute(CryptoTracing.ATTR_KEY_ID, keyName);
+            scope.attribute(CryptoTracing.ATTR_PAYLOAD_SIZE, nullToEmpty(ciphertext).length());
+            return transitOps.decrypt(keyName, Ciphertext.of(ciphertext)).getPlaintext();
 
-        } catch (VaultException e) {
-          if (nullToEmpty(e.getMessage()).contains("invalid ciphertext")) {
-            throw new InvalidCiphertextException("Decryption failed.", e);
+          } catch (VaultException e) {
+            scope.failed(e);
+            if (nullToEmpty(e.getMessage()).contains("invalid ciphertext")) {
+              throw new InvalidCiphertextException("Decryption failed.", e);
+            }
+            throw e;
           }
-          throw e;
         }
       }
     };
@@ -86,10 +110,19 @@ public class SpringVaultTransitProvider {
 
   public Encrypter encrypterForKey(String keyName) {
     return plaintext -> {
-      Ciphertext ciphertext = transitOps.encrypt(keyName, Plaintext.of(plaintext));
-      return EncryptionResult.forAlgorithm(ALGORITHM)
-          .put("kid", keyName)
-          .put("ciphertext", ciphertext.getCiphertext());
+      try (CryptoTracing.Scope scope = tracing.start(SPAN_VAULT_ENCRYPT)) {
+        scope.attribute(CryptoTracing.ATTR_KEY_ID, keyName);
+        scope.attribute(CryptoTracing.ATTR_PAYLOAD_SIZE, plaintext.length);
+        try {
+          Ciphertext ciphertext = transitOps.encrypt(keyName, Plaintext.of(plaintext));
+          return EncryptionResult.forAlgorithm(ALGORITHM)
+              .put("kid", keyName)
+              .put("ciphertext", ciphertext.getCiphertext());
+        } catch (VaultException e) {
+          scope.failed(e);
+          throw e;
+        }
+      }
     };
   }
 }
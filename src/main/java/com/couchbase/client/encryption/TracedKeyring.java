@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.internal.CryptoTracing;
+
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Opens a request span around each lookup in the wrapped keyring.
+ * <p>
+ * Implements {@link ObservableKeyring} and {@link AutoCloseable} so decorators like
+ * {@link RoutingKeyring} and {@link ReloadingKeyring} still see the wrapped keyring's
+ * change notifications and can close it. Both are forwarded only if the wrapped
+ * keyring supports them.
+ *
+ * @see Keyring#traced
+ */
+class TracedKeyring implements ObservableKeyring, AutoCloseable {
+  private final CryptoTracing tracing;
+  private final Keyring wrapped;
+
+  TracedKeyring(CryptoTracing tracing, Keyring wrapped) {
+    this.tracing = requireNonNull(tracing);
+    this.wrapped = requireNonNull(wrapped);
+  }
+
+  @Override
+  public Optional<Key> get(String keyId) {
+    return lookup(keyId, false);
+  }
+
+  @Override
+  public Optional<Key> acquire(String keyId) {
+    return lookup(keyId, true);
+  }
+
+  private Optional<Key> lookup(String keyId, boolean acquire) {
+    try (CryptoTracing.Scope scope = tracing.start(CryptoTracing.SPAN_KEY_LOOKUP)) {
+      try {
+        final Optional<Key> result = acquire ? wrapped.acquire(keyId) : wrapped.get(keyId);
+        scope.keyLookup(keyId, result);
+        return result;
+      } catch (RuntimeException e) {
+        scope.failed(e);
+        throw e;
+      }
+    }
+  }
+
+  @Override
+  public void addChangeListener(Runnable listener) {
+    if (wrapped instanceof ObservableKeyring) {
+      ((ObservableKeyring) wrapped).addChangeListener(listener);
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (wrapped instanceof AutoCloseable) {
+      ((AutoCloseable) wrapped).close();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "TracedKeyring{" +
+        "wrapped=" + wrapped +
+        '}';
+  }
+}
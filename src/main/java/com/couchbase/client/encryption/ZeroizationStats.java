@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.internal.Jdk8Cleaner;
+import com.couchbase.client.encryption.internal.Zeroizer;
+
+/**
+ * A point-in-time snapshot of key material zeroization statistics,
+ * for all keys in the JVM.
+ * <p>
+ * Key material is zeroized either when the last handle to it is closed
+ * (see {@link Keyring.Key#close()}), or as a fallback after the key is
+ * garbage collected. A large or growing {@link #pending()} count means
+ * keys are being created faster than they are closed or collected.
+ */
+public final class ZeroizationStats {
+  private final long registered;
+  private final long zeroizedOnClose;
+  private final long zeroizedAfterCollection;
+  private final long pending;
+
+  private ZeroizationStats(long registered, long zeroizedOnClose, long zeroizedAfterCollection, long pending) {
+    this.registered = registered;
+    this.zeroizedOnClose = zeroizedOnClose;
+    this.zeroizedAfterCollection = zeroizedAfterCollection;
+    this.pending = pending;
+  }
+
+  /**
+   * Returns the current statistics.
+   */
+  public static ZeroizationStats snapshot() {
+    final Jdk8Cleaner cleaner = Zeroizer.cleaner();
+    return new ZeroizationStats(
+        cleaner.registeredCount(),
+        cleaner.cleanedExplicitlyCount(),
+        cleaner.cleanedAfterCollectionCount(),
+        cleaner.pendingCount());
+  }
+
+  /**
+   * Number of key materials registered for zeroization since the JVM started.
+   */
+  public long registered() {
+    return registered;
+  }
+
+  /**
+   * Number of key materials zeroized because every handle was closed.
+   */
+  public long zeroizedOnClose() {
+    return zeroizedOnClose;
+  }
+
+  /**
+   * Number of key materials zeroized after being garbage collected.
+   */
+  public long zeroizedAfterCollection() {
+    return zeroizedAfterCollection;
+  }
+
+  /**
+   * Number of key materials not yet zeroized.
+   */
+  public long pending() {
+    return pending;
+  }
+
+  @Override
+  public String toString() {
+    return "ZeroizationStats{" +
+        "registered=" + registered +
+        ", zeroizedOnClose=" + zeroizedOnClose +
+        ", zeroizedAfterCollection=" + zeroizedAfterCollection +
+        ", pending=" + pending +
+        '}';
+  }
+}
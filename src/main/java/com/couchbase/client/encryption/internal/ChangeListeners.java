@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A thread-safe list of change listeners.
+ */
+public class ChangeListeners {
+  private static final Logger log = LoggerFactory.getLogger(ChangeListeners.class);
+
+  private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+  public void add(Runnable listener) {
+    listeners.add(requireNonNull(listener));
+  }
+
+  /**
+   * Calls every registered listener. A listener that throws an exception
+   * does not prevent the others from being called.
+   */
+  public void notifyChanged() {
+    for (Runnable listener : listeners) {
+      try {
+        listener.run();
+      } catch (Throwable t) {
+        log.error("Change listener threw exception", t);
+      }
+    }
+  }
+}
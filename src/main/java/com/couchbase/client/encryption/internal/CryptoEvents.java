@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption.internal;
+
+/**
+ * Creates JDK Flight Recorder events.
+ * <p>
+ * This is the Java 8 version, which never records anything. The JAR also contains
+ * a Java 11 version of this class (in {@code META-INF/versions/11}) which creates
+ * real JFR events. Both versions must have the same public methods.
+ * <p>
+ * Each method returns a no-op event unless JFR is recording that event type,
+ * so callers can create events unconditionally.
+ */
+public class CryptoEvents {
+  private CryptoEvents() {
+    throw new AssertionError("not instantiable");
+  }
+
+  public static CryptoOperationEvent beginEncrypt(String alias) {
+    return CryptoOperationEvent.NOOP;
+  }
+
+  public static CryptoOperationEvent beginDecrypt() {
+    return CryptoOperationEvent.NOOP;
+  }
+
+  /**
+   * Call {@link TimedEvent#complete(boolean)} with true if the keyring was loaded.
+   */
+  public static TimedEvent beginKeyringLoad(Object keyring) {
+    return TimedEvent.NOOP;
+  }
+
+  /**
+   * Call {@link TimedEvent#complete(boolean)} with true if the key was found.
+   *
+   * @param backingKeyring the keyring consulted because the key was not in the cache
+   */
+  public static TimedEvent beginKeyCacheMiss(Object backingKeyring, String keyId) {
+    return TimedEvent.NOOP;
+  }
+
+  /**
+   * Call {@link TimedEvent#complete(boolean)} with true if this call performed the cleanup
+   * (as opposed to finding it had already been done).
+   *
+   * @param afterCollection true if the cleanup was triggered by garbage collection,
+   * or false if it was triggered by closing the key
+   */
+  public static TimedEvent beginZeroization(boolean afterCollection) {
+    return TimedEvent.NOOP;
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption.internal;
+
+import com.couchbase.client.core.cnc.Counter;
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.ValueRecorder;
+import com.couchbase.client.encryption.EncryptionResult;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records encryption and decryption metrics using a core-io {@link Meter}.
+ * <p>
+ * Instruments are created once per tag set and reused, so recording an operation
+ * does not allocate. The meter implementation is responsible for making the
+ * instruments themselves cheap to update from many threads.
+ * <p>
+ * Tag values come only from the registered encrypter aliases and decrypter
+ * algorithms. Unrecognized values (for example, an algorithm name read from
+ * a document) are reported as {@value #UNRECOGNIZED}, so a malformed document
+ * cannot create new time series.
+ */
+public class CryptoMetrics {
+  public static final String METER_OPERATIONS = "db.couchbase.encryption.operations";
+  public static final String METER_DURATION = "db.couchbase.encryption.duration";
+  public static final String METER_BYTES_IN = "db.couchbase.encryption.bytes_in";
+  public static final String METER_BYTES_OUT = "db.couchbase.encryption.bytes_out";
+  public static final String METER_FAILURES = "db.couchbase.encryption.failures";
+
+  public static final String ATTR_OPERATION = "db.operation";
+  public static final String ATTR_ALGORITHM = "db.couchbase.encryption.algorithm";
+  public static final String ATTR_ALIAS = "db.couchbase.encryption.alias";
+  public static final String ATTR_ERROR_TYPE = "error.type";
+
+  public static final String UNRECOGNIZED = "unrecognized";
+
+  private final Meter meter;
+  private final Map<String, EncrypterMetrics> aliasToMetrics;
+  private final EncrypterMetrics unrecognizedAlias;
+  private final Map<String, Instruments> algorithmToDecryptMetrics;
+  private final Instruments unrecognizedAlgorithm;
+
+  public CryptoMetrics(Meter meter, Collection<String> aliases, Collection<String> algorithms) {
+    this.meter = requireNonNull(meter);
+
+    final Map<String, EncrypterMetrics> aliasMetrics = new HashMap<>();
+    aliases.forEach(alias -> aliasMetrics.put(alias, new EncrypterMetrics(alias)));
+    this.aliasToMetrics = unmodifiableMap(aliasMetrics);
+    this.unrecognizedAlias = new EncrypterMetrics(UNRECOGNIZED);
+
+    final Map<String, Instruments> decryptMetrics = new HashMap<>();
+    algorithms.forEach(alg -> decryptMetrics.put(alg, decryptInstruments(alg)));
+    this.algorithmToDecryptMetrics = unmodifiableMap(decryptMetrics);
+    this.unrecognizedAlgorithm = decryptInstruments(UNRECOGNIZED);
+  }
+
+  public void encrypted(String alias, long startNanos, byte[] plaintext, EncryptionResult encrypted) {
+    encrypterMetrics(alias)
+        .forAlgorithm(encrypted.getAlgorithm())
+        .success(startNanos, plaintext.length, ciphertextLength(encrypted.getString("ciphertext")));
+  }
+
+  public void encryptionFailed(String alias, long startNanos, Throwable t) {
+    encrypterMetrics(alias).current().failure(startNanos, t);
+  }
+
+  public void decrypted(String algorithm, long startNanos, Map<String, Object> encryptedNode, byte[] plaintext) {
+    decryptMetrics(algorithm).success(startNanos, ciphertextLength(encryptedNode.get("ciphertext")), plaintext.length);
+  }
+
+  public void decryptionFailed(String algorithm, long startNanos, Throwable t) {
+    decryptMetrics(algorithm).failure(startNanos, t);
+  }
+
+  private EncrypterMetrics encrypterMetrics(String alias) {
+    final EncrypterMetrics result = aliasToMetrics.get(alias);
+    return result != null ? result : unrecognizedAlias;
+  }
+
+  private Instruments decryptMetrics(String algorithm) {
+    final Instruments result = algorithm == null ? null : algorithmToDecryptMetrics.get(algorithm);
+    return result != null ? result : unrecognizedAlgorithm;
+  }
+
+  private Instruments decryptInstruments(String algorithm) {
+    final Map<String, String> tags = new LinkedHashMap<>();
+    tags.put(ATTR_OPERATION, "decrypt");
+    tags.put(ATTR_ALGORITHM, algorithm);
+    return new Instruments(tags);
+  }
+
+  private static long ciphertextLength(Object ciphertext) {
+    return ciphertext instanceof String ? ((String) ciphertext).length() : 0;
+  }
+
+  /**
+   * Encryption metrics for one alias. The algorithm tag is not known until
+   * the encrypter returns its first result, so the instruments are created then,
+   * and replaced if the algorithm ever changes.
+   */
+  private class EncrypterMetrics {
+    private final String alias;
+    private volatile Instruments current;
+
+    EncrypterMetrics(String alias) {
+      this.alias = alias;
+    }
+
+    Instruments forAlgorithm(String algorithm) {
+      if (algorithm == null) {
+        algorithm = UNRECOGNIZED;
+      }
+      Instruments result = current;
+      if (result == null || !result.algorithm.equals(algorithm)) {
+        result = current = newInstruments(algorithm);
+      }
+      return result;
+    }
+
+    /**
+     * Returns the instruments for the most recently seen algorithm,
+     * or for {@value #UNRECOGNIZED} if the encrypter has not succeeded yet.
+     */
+    Instruments current() {
+      final Instruments result = current;
+      return result != null ? result : forAlgorithm(UNRECOGNIZED);
+    }
+
+    private Instruments newInstruments(String algorithm) {
+      final Map<String, String> tags = new LinkedHashMap<>();
+      tags.put(ATTR_OPERATION, "encrypt");
+      tags.put(ATTR_ALGORITHM, algorithm);
+      tags.put(ATTR_ALIAS, alias);
+      return new Instruments(tags);
+    }
+  }
+
+  private class Instruments {
+    private final Map<String, String> tags;
+    private final String algorithm;
+    private final Counter operations;
+    private final ValueRecorder durationMicros;
+    private final Counter bytesIn;
+    private final Counter bytesOut;
+    private final ConcurrentMap<Class<?>, Counter> failures = new ConcurrentHashMap<>();
+
+    Instruments(Map<String, String> tags) {
+      this.tags = unmodifiableMap(tags);
+      this.algorithm = tags.get(ATTR_ALGORITHM);
+      this.operations = meter.counter(METER_OPERATIONS, tags);
+      this.durationMicros = meter.valueRecorder(METER_DURATION, tags);
+      this.bytesIn = meter.counter(METER_BYTES_IN, tags);
+      this.bytesOut = meter.counter(METER_BYTES_OUT, tags);
+    }
+
+    void success(long startNanos, long in, long out) {
+      durationMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+      operations.incrementBy(1);
+      bytesIn.incrementBy(in);
+      bytesOut.incrementBy(out);
+    }
+
+    void failure(long startNanos, Throwable t) {
+      durationMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+      operations.incrementBy(1);
+
+      Counter counter = failures.get(t.getClass());
+      if (counter == null) {
+        counter = failures.computeIfAbsent(t.getClass(), type -> {
+          final Map<String, String> failureTags = new LinkedHashMap<>(tags);
+          failureTags.put(ATTR_ERROR_TYPE, type.getSimpleName());
+          return meter.counter(METER_FAILURES, failureTags);
+        });
+      }
+      counter.incrementBy(1);
+    }
+  }
+}
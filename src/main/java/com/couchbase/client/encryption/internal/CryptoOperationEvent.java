@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption.internal;
+
+/**
+ * A JDK Flight Recorder event for an encryption or decryption in progress.
+ *
+ * @see CryptoEvents
+ */
+public interface CryptoOperationEvent {
+  /**
+   * Returned when the event type is not being recorded.
+   */
+  CryptoOperationEvent NOOP = (algorithm, keyId, inputSize, outputSize, succeeded) -> {
+  };
+
+  /**
+   * Ends the event and commits it.
+   *
+   * @param inputSize plaintext length when encrypting, or ciphertext length when decrypting; -1 if unknown
+   * @param outputSize ciphertext length when encrypting, or plaintext length when decrypting; -1 if unknown
+   */
+  void complete(String algorithm, String keyId, long inputSize, long outputSize, boolean succeeded);
+}
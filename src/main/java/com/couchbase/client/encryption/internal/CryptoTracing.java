@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption.internal;
+
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.RequestTracer;
+import com.couchbase.client.core.cnc.tracing.NoopRequestTracer;
+import com.couchbase.client.encryption.EncryptionResult;
+import com.couchbase.client.encryption.Keyring;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Opens request spans around crypto operations using a core-io {@link RequestTracer}.
+ * <p>
+ * The span of the operation in progress on the current thread becomes the parent
+ * of spans opened while it is in progress, so a key lookup performed by a decrypter
+ * shows up as a child of the decryption span. Callers that know the parent span
+ * (for example, the span of an SDK request on a reactive pipeline, where
+ * thread-local state is not reliable) can pass it to {@link #start(String, RequestSpan)}.
+ * <p>
+ * When the tracer is the {@link NoopRequestTracer}, {@link #start(String)} returns
+ * a shared no-op scope without consulting the tracer, so disabled tracing does
+ * not allocate or touch thread-local state.
+ * <p>
+ * If the tracer fails to open or end a span, the failure is logged
+ * and the traced operation carries on without that span.
+ */
+public class CryptoTracing {
+  private static final Logger log = LoggerFactory.getLogger(CryptoTracing.class);
+
+  public static final String SPAN_ENCRYPT = "encrypt";
+  public static final String SPAN_DECRYPT = "decrypt";
+  public static final String SPAN_KEY_LOOKUP = "key_lookup";
+
+  public static final String ATTR_ALGORITHM = CryptoMetrics.ATTR_ALGORITHM;
+  public static final String ATTR_ALIAS = CryptoMetrics.ATTR_ALIAS;
+  public static final String ATTR_KEY_ID = "db.couchbase.encryption.key_id";
+  public static final String ATTR_PAYLOAD_SIZE = "db.couchbase.encryption.payload_size";
+  public static final String ATTR_KEY_FOUND = "db.couchbase.encryption.key_found";
+
+  private static final CryptoTracing DISABLED = new CryptoTracing(null);
+  private static final Scope NOOP_SCOPE = new Scope(null, null);
+
+  private static final ThreadLocal<RequestSpan> currentSpan = new ThreadLocal<>();
+
+  private final RequestTracer tracer; // null if disabled
+
+  private CryptoTracing(RequestTracer tracer) {
+    this.tracer = tracer;
+  }
+
+  public static CryptoTracing create(RequestTracer tracer) {
+    requireNonNull(tracer);
+    return tracer instanceof NoopRequestTracer ? DISABLED : new CryptoTracing(tracer);
+  }
+
+  public boolean enabled() {
+    return tracer != null;
+  }
+
+  /**
+   * Opens a span whose parent is the crypto span currently in progress on this thread, if any.
+   * The caller must close the returned scope on the same thread.
+   */
+  public Scope start(String spanName) {
+    return start(spanName, null);
+  }
+
+  /**
+   * Opens a span with the given parent. If the parent is null, uses the crypto span
+   * currently in progress on this thread, if any.
+   * While the scope is open, the new span is the parent of spans opened on this thread.
+   * The caller must close the returned scope on the same thread.
+   */
+  public Scope start(String spanName, RequestSpan parent) {
+    if (tracer == null) {
+      return NOOP_SCOPE;
+    }
+    final RequestSpan previous = currentSpan.get();
+    final RequestSpan span;
+    try {
+      span = tracer.requestSpan(spanName, parent != null ? parent : previous);
+    } catch (RuntimeException e) {
+      log.warn("Failed to start {} span; continuing without it.", spanName, e);
+      return NOOP_SCOPE;
+    }
+    currentSpan.set(span);
+    return new Scope(span, previous);
+  }
+
+  public static class Scope implements AutoCloseable {
+    private final RequestSpan span; // null if disabled
+    private final RequestSpan previous; // restored as the current span on close
+
+    private Scope(RequestSpan span, RequestSpan previous) {
+      this.span = span;
+      this.previous = previous;
+    }
+
+    public void attribute(String name, String value) {
+      if (span != null && value != null) {
+        span.attribute(name, value);
+      }
+    }
+
+    public void attribute(String name, long value) {
+      if (span != null) {
+        span.attribute(name, value);
+      }
+    }
+
+    public void encrypted(String alias, byte[] plaintext, EncryptionResult encrypted) {
+      if (span != null) {
+        attribute(ATTR_ALIAS, alias);
+        attribute(ATTR_ALGORITHM, encrypted.getAlgorithm());
+        attribute(ATTR_KEY_ID, encrypted.getString("kid"));
+        attribute(ATTR_PAYLOAD_SIZE, plaintext.length);
+      }
+    }
+
+    public void decrypting(Map<String, Object> encryptedNode) {
+      if (span != null && encryptedNode != null) {
+        attribute(ATTR_ALGORITHM, stringOrNull(encryptedNode.get("alg")));
+        attribute(ATTR_KEY_ID, stringOrNull(encryptedNode.get("kid")));
+        final String ciphertext = stringOrNull(encryptedNode.get("ciphertext"));
+        if (ciphertext != null) {
+          attribute(ATTR_PAYLOAD_SIZE, ciphertext.length());
+        }
+      }
+    }
+
+    public void keyLookup(String requestedKeyId, Optional<Keyring.Key> result) {
+      if (span != null) {
+        attribute(ATTR_KEY_ID, result.isPresent() ? result.get().id() : requestedKeyId);
+        span.attribute(ATTR_KEY_FOUND, result.isPresent());
+      }
+    }
+
+    public void failed(Throwable t) {
+      if (span != null) {
+        span.recordException(t);
+        span.status(RequestSpan.StatusCode.ERROR);
+      }
+    }
+
+    @Override
+    public void close() {
+      if (span == null) {
+        return;
+      }
+      if (previous == null) {
+        currentSpan.remove();
+      } else {
+        currentSpan.set(previous);
+      }
+      try {
+        span.end();
+      } catch (RuntimeException e) {
+        log.warn("Failed to end span.", e);
+      }
+    }
+
+    private static String stringOrNull(Object o) {
+      return o instanceof String ? (String) o : null;
+    }
+  }
+}
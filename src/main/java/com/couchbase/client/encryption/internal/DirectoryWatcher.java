@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs a callback on a daemon thread whenever the contents of a directory change.
+ * <p>
+ * Uses a {@link WatchService} if the filesystem supports it. Otherwise, or if the
+ * watch is cancelled (for example, because the directory was deleted), falls back to
+ * periodically comparing the modification times and sizes of the directory entries.
+ * <p>
+ * Bursts of changes are coalesced: the callback runs only after the directory has
+ * been quiet for the debounce interval.
+ */
+public class DirectoryWatcher implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(DirectoryWatcher.class);
+
+  private final Path directory;
+  private final Duration debounce;
+  private final Duration pollInterval;
+  private final Runnable onChange;
+  private final Thread thread;
+
+  private volatile boolean closed;
+  private volatile WatchService watchService;
+  private final long initialFingerprint;
+
+  /**
+   * Starts watching the given directory.
+   *
+   * @param debounce how long the directory must be quiet before the callback runs
+   * @param pollInterval how often to check for changes if a watch service is not available
+   * @param onChange called from the watcher thread after the directory changes
+   */
+  public static DirectoryWatcher start(Path directory, Duration debounce, Duration pollInterval, Runnable onChange) {
+    DirectoryWatcher watcher = new DirectoryWatcher(directory, debounce, pollInterval, onChange);
+    watcher.thread.start();
+    return watcher;
+  }
+
+  private DirectoryWatcher(Path directory, Duration debounce, Duration pollInterval, Runnable onChange) {
+    this.directory = requireNonNull(directory);
+    this.debounce = requireNonNull(debounce);
+    this.pollInterval = requireNonNull(pollInterval);
+    this.onChange = requireNonNull(onChange);
+    this.thread = new DaemonThreadFactory("directory-watcher").newThread(this::run);
+
+    // Register before returning, so no change made after this point is missed.
+    this.watchService = register();
+    this.initialFingerprint = watchService == null ? fingerprint() : 0;
+  }
+
+  private WatchService register() {
+    WatchService ws = null;
+    try {
+      ws = directory.getFileSystem().newWatchService();
+      directory.register(ws, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+      return ws;
+
+    } catch (IOException | UnsupportedOperationException e) {
+      log.info("Can't watch directory {} ; will poll for changes every {} instead. Reason: {}", directory, pollInterval, e.toString());
+      closeQuietly(ws);
+      return null;
+    }
+  }
+
+  private void run() {
+    try {
+      if (watchService == null) {
+        poll(initialFingerprint);
+      } else {
+        watch();
+      }
+
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // closed
+    } finally {
+      closeQuietly(watchService);
+    }
+  }
+
+  private void watch() throws InterruptedException {
+    while (!closed) {
+      WatchKey key = watchService.take();
+      if (!drain(key)) {
+        log.info("Watch for directory {} was cancelled; will poll for changes every {} instead.", directory, pollInterval);
+        closeQuietly(watchService);
+        watchService = null;
+        long fingerprint = fingerprint();
+        notifyChanged();
+        poll(fingerprint);
+        return;
+      }
+
+      // Wait for things to settle down.
+      while ((key = watchService.poll(debounce.toNanos(), TimeUnit.NANOSECONDS)) != null) {
+        drain(key);
+      }
+
+      notifyChanged();
+    }
+  }
+
+  /**
+   * Discards the key's pending events and resets it.
+   *
+   * @return true if the key is still valid
+   */
+  private static boolean drain(WatchKey key) {
+    key.pollEvents();
+    return key.reset();
+  }
+
+  private void poll(long fingerprint) throws InterruptedException {
+    while (!closed) {
+      TimeUnit.NANOSECONDS.sleep(pollInterval.toNanos());
+      long current = fingerprint();
+      if (current != fingerprint) {
+        fingerprint = current;
+        TimeUnit.NANOSECONDS.sleep(debounce.toNanos());
+        notifyChanged();
+      }
+    }
+  }
+
+  /**
+   * Returns a value that changes (with high probability) whenever an entry
+   * in the directory is added, removed, renamed, or modified.
+   */
+  private long fingerprint() {
+    try (Stream<Path> paths = Files.list(directory)) {
+      return paths
+          .mapToLong(path -> {
+            long result = path.getFileName().hashCode();
+            try {
+              // Follows symbolic links, so a re-pointed link counts as a change.
+              result = 31 * result + Files.getLastModifiedTime(path).toMillis();
+              result = 31 * result + Files.size(path);
+            } catch (IOException e) {
+              // Dangling link, or removed while listing. The next listing will tell.
+            }
+            return result;
+          })
+          .sum();
+
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private void notifyChanged() {
+    if (closed) {
+      return;
+    }
+    try {
+      onChange.run();
+    } catch (Throwable t) {
+      log.error("Directory change callback threw exception", t);
+    }
+  }
+
+  /**
+   * Stops watching the directory.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    thread.interrupt();
+    closeQuietly(watchService);
+  }
+
+  private static void closeQuietly(Closeable c) {
+    if (c != null) {
+      try {
+        c.close();
+      } catch (IOException e) {
+        log.debug("Failed to close {}", c, e);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "DirectoryWatcher{" +
+        "directory=" + directory +
+        ", polling=" + (watchService == null) +
+        '}';
+  }
+}
@@ -16,6 +16,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import static java.util.Collections.newSetFromMap;
 import static java.util.Objects.requireNonNull;
@@ -24,22 +25,48 @@ import static java.util.Objects.requireNonNull;
  * Approximates Java 9's <a href="https://docs.oracle.com/javase/9/docs/api/java/lang/ref/Cleaner.html">
  * java.lang.ref.Cleaner
  * </a>
+ * <p>
+ * Registrations are spread across one or more stripes, each with its own
+ * reference queue and cleaner thread.
  */
 public class Jdk8Cleaner {
   private static final Logger log = LoggerFactory.getLogger(Jdk8Cleaner.class);
 
-  private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+  private final Stripe[] stripes;
 
-  // Only purpose is to prevent its contents from being prematurely garbage collected.
-  private final Set<CleanableImpl> references = newSetFromMap(new ConcurrentHashMap<>());
+  private final LongAdder registered = new LongAdder();
+  private final LongAdder cleanedExplicitly = new LongAdder();
+  private final LongAdder cleanedAfterCollection = new LongAdder();
 
   public static Jdk8Cleaner create(ThreadFactory factory) {
-    return new Jdk8Cleaner(factory);
+    return create(factory, 1);
   }
 
-  private Jdk8Cleaner(ThreadFactory factory) {
-    Thread thread = factory.newThread(this::doRun);
-    thread.start();
+  /**
+   * Returns a new cleaner that uses the given number of threads.
+   */
+  public static Jdk8Cleaner create(ThreadFactory factory, int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Thread count must be positive, but got " + threads);
+    }
+    return new Jdk8Cleaner(factory, threads);
+  }
+
+  private Jdk8Cleaner(ThreadFactory factory, int threads) {
+    this.stripes = new Stripe[threads];
+    for (int i = 0; i < threads; i++) {
+      Stripe stripe = new Stripe();
+      stripes[i] = stripe;
+      Thread thread = factory.newThread(() -> doRun(stripe));
+      thread.start();
+    }
+  }
+
+  private static class Stripe {
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    // Only purpose is to prevent its contents from being prematurely garbage collected.
+    private final Set<CleanableImpl> references = newSetFromMap(new ConcurrentHashMap<>());
   }
 
   /**
@@ -49,17 +76,23 @@ public class Jdk8Cleaner {
    * capture a reference to the object, preventing it from ever becoming phantom reachable.
    */
   public Cleanable register(Object obj, Runnable cleaningAction) {
-    CleanableImpl cleanable = new CleanableImpl(obj, queue, cleaningAction);
-    references.add(cleanable);
+    Stripe stripe = stripes[stripes.length == 1 ? 0 : (int) (Thread.currentThread().getId() % stripes.length)];
+    CleanableImpl cleanable = new CleanableImpl(obj, stripe, cleaningAction);
+    stripe.references.add(cleanable);
+    registered.increment();
     return cleanable;
   }
 
-  private void doRun() {
+  private void doRun(Stripe stripe) {
     while (true) {
       try {
-        CleanableImpl r = (CleanableImpl) queue.remove();
-        references.remove(r);
-        r.clean();
+        CleanableImpl r = (CleanableImpl) stripe.queue.remove();
+        final TimedEvent event = CryptoEvents.beginZeroization(true);
+        final boolean cleaned = r.doClean();
+        event.complete(cleaned);
+        if (cleaned) {
+          cleanedAfterCollection.increment();
+        }
 
       } catch (InterruptedException e) {
         log.info("Cleaner thread interrupted; exiting.");
@@ -68,6 +101,39 @@ public class Jdk8Cleaner {
     }
   }
 
+  /**
+   * Returns the number of cleaning actions registered so far.
+   */
+  public long registeredCount() {
+    return registered.sum();
+  }
+
+  /**
+   * Returns the number of cleaning actions invoked by calling {@link Cleanable#clean()}.
+   */
+  public long cleanedExplicitlyCount() {
+    return cleanedExplicitly.sum();
+  }
+
+  /**
+   * Returns the number of cleaning actions invoked because the object
+   * became phantom reachable.
+   */
+  public long cleanedAfterCollectionCount() {
+    return cleanedAfterCollection.sum();
+  }
+
+  /**
+   * Returns the number of registered cleaning actions not yet invoked.
+   */
+  public long pendingCount() {
+    long pending = 0;
+    for (Stripe stripe : stripes) {
+      pending += stripe.references.size();
+    }
+    return pending;
+  }
+
   /**
    * An object and a cleaning action registered in a Cleaner.
    */
@@ -80,24 +146,42 @@ public class Jdk8Cleaner {
     void clean();
   }
 
-  private static class CleanableImpl extends PhantomReference<Object> implements Cleanable {
+  private class CleanableImpl extends PhantomReference<Object> implements Cleanable {
+    private final Stripe stripe;
     private final Runnable cleaningAction;
     private final AtomicBoolean alreadyCleaned = new AtomicBoolean();
 
-    CleanableImpl(Object referent, ReferenceQueue<Object> q, Runnable cleaningAction) {
-      super(referent, q);
+    CleanableImpl(Object referent, Stripe stripe, Runnable cleaningAction) {
+      super(referent, stripe.queue);
+      this.stripe = stripe;
       this.cleaningAction = requireNonNull(cleaningAction);
     }
 
     @Override
     public void clean() {
-      if (alreadyCleaned.compareAndSet(false, true)) {
-        try {
-          cleaningAction.run();
-        } catch (Throwable t) {
-          log.error("Cleaning action threw exception", t);
-        }
+      final TimedEvent event = CryptoEvents.beginZeroization(false);
+      final boolean cleaned = doClean();
+      event.complete(cleaned);
+      if (cleaned) {
+        cleanedExplicitly.increment();
+      }
+    }
+
+    /**
+     * @return true if this call invoked the cleaning action
+     */
+    private boolean doClean() {
+      if (!alreadyCleaned.compareAndSet(false, true)) {
+        return false;
+      }
+      stripe.references.remove(this);
+      clear();
+      try {
+        cleaningAction.run();
+      } catch (Throwable t) {
+        log.error("Cleaning action threw exception", t);
       }
+      return true;
     }
   }
 }
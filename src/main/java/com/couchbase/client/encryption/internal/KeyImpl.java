@@ -9,6 +9,9 @@ package com.couchbase.client.encryption.internal;
 
 import com.couchbase.client.encryption.Keyring;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static com.couchbase.client.encryption.internal.Zeroizer.zeroizeWhenUnreachable;
 import static java.util.Objects.requireNonNull;
 
@@ -16,6 +19,19 @@ import static java.util.Objects.requireNonNull;
  * The standard key implementation.
  * <p>
  * Zeroizes itself prior to being garbage collected.
+ * <p>
+ * Key material is reference counted, and shared by all handles obtained
+ * by calling {@link #retain()}. The material is zeroized when the last
+ * closeable handle is closed, or when all handles become unreachable,
+ * whichever comes first.
+ * <p>
+ * Keys created with the public constructor (and {@link Keyring.Key#create})
+ * are not closeable, since callers may share them freely; their {@link #close()}
+ * method does nothing. Keys created with {@link #closeable(String, byte[])},
+ * and all handles returned by {@link #retain()}, are closeable.
+ * Handles returned by {@link #tryPin()} are not closeable, and are not counted:
+ * they do not keep the material from being zeroized when the last closeable handle
+ * is closed, after which using them throws IllegalStateException.
  *
  * @implNote This class makes defensive copies of the byte array in order
  * to guarantee immutability, which is important since keys may be cached.
@@ -23,11 +39,93 @@ import static java.util.Objects.requireNonNull;
 public class KeyImpl implements Keyring.Key {
   private final String id;
   private final byte[] bytes;
+  private final Material material;
+  private final boolean closeable;
+  private final AtomicBoolean closed = new AtomicBoolean();
 
   public KeyImpl(String id, byte[] bytes) {
+    this(id, new Material(bytes.clone()), false);
+  }
+
+  private KeyImpl(String id, Material material, boolean closeable) {
     this.id = requireNonNull(id);
-    this.bytes = bytes.clone();
-    zeroizeWhenUnreachable(this, this.bytes);
+    this.material = requireNonNull(material);
+    this.bytes = material.bytes;
+    this.closeable = closeable;
+  }
+
+  /**
+   * Returns a new key that zeroizes its material when closed.
+   * Caller is responsible for zeroizing the given byte array.
+   */
+  public static KeyImpl closeable(String id, byte[] bytes) {
+    return new KeyImpl(id, new Material(bytes.clone()), true);
+  }
+
+  /**
+   * Returns a new closeable handle that shares this key's material.
+   *
+   * @throws IllegalStateException if this handle is closed, or the material has been zeroized.
+   */
+  public KeyImpl retain() {
+    final KeyImpl handle = tryRetain();
+    if (handle == null) {
+      throw new IllegalStateException("Key '" + id + "' has been closed.");
+    }
+    return handle;
+  }
+
+  /**
+   * Like {@link #retain()}, but returns null instead of throwing.
+   */
+  public KeyImpl tryRetain() {
+    return !closed.get() && material.tryRetain() ? new KeyImpl(id, material, true) : null;
+  }
+
+  /**
+   * Returns a new handle that shares this key's material, but is not closeable,
+   * or null if this handle is closed or the material has been zeroized.
+   * <p>
+   * For keyrings that own a closeable key, and need to give it to a caller
+   * from {@link Keyring#get(String)}, where the caller does not own the result.
+   * The returned handle does not add to the reference count, so the material is still
+   * zeroized when the keyring closes its own handle.
+   */
+  public KeyImpl tryPin() {
+    return !isClosed() ? new KeyImpl(id, material, false) : null;
+  }
+
+  /**
+   * Returns a new handle with the given ID that shares this key's material, and is not closeable.
+   * Like a handle returned by {@link #tryPin()}, it does not add to the reference count.
+   *
+   * @throws IllegalStateException if this handle is closed, or the material has been zeroized.
+   */
+  public KeyImpl withId(String id) {
+    if (isClosed()) {
+      throw new IllegalStateException("Key '" + this.id + "' has been closed.");
+    }
+    return new KeyImpl(id, material, false);
+  }
+
+  /**
+   * If the given key is a {@code KeyImpl}, returns a new handle for it (or null if it has been closed).
+   * Otherwise returns the given key.
+   * <p>
+   * Intended for keyrings that hand out the same key more than once, from {@link Keyring#acquire(String)}.
+   */
+  public static Keyring.Key tryRetain(Keyring.Key key) {
+    return key instanceof KeyImpl ? ((KeyImpl) key).tryRetain() : key;
+  }
+
+  /**
+   * If the given key is a {@code KeyImpl}, returns a new non-closeable handle for it
+   * (or null if it has been closed). Otherwise returns the given key.
+   * <p>
+   * Intended for keyrings that hand out the same key more than once, from {@link Keyring#get(String)}.
+   */
+  public static Keyring.Key tryPin(Keyring.Key key) {
+    return key instanceof KeyImpl ? ((KeyImpl) key).tryPin() : key;
   }
 
   public String id() {
@@ -35,7 +133,51 @@ public class KeyImpl implements Keyring.Key {
   }
 
   public byte[] bytes() {
-    return bytes.clone();
+    final byte[] result = bytes.clone();
+    if (isClosed()) {
+      Zeroizer.zeroize(result);
+      throw new IllegalStateException("Key '" + id + "' has been closed.");
+    }
+    return result;
+  }
+
+  /**
+   * Passes the internal array to the function, without copying it.
+   *
+   * @throws IllegalStateException if the key is closed before or during the call.
+   */
+  @Override
+  public <R, E extends Exception> R withBytes(BytesFunction<R, E> function) throws E {
+    checkNotClosed();
+    final R result = function.apply(bytes);
+    // If the key was closed while the function was running,
+    // the result may have been computed from zeroized material.
+    checkNotClosed();
+    return result;
+  }
+
+  private void checkNotClosed() {
+    if (isClosed()) {
+      throw new IllegalStateException("Key '" + id + "' has been closed.");
+    }
+  }
+
+  /**
+   * If this key is closeable, releases this handle's reference to the key material,
+   * and zeroizes the material if no other handles refer to it.
+   * Subsequent calls to {@link #bytes()} on this handle throw IllegalStateException.
+   * <p>
+   * Does nothing if the key is not closeable, or if this handle is already closed.
+   */
+  @Override
+  public void close() {
+    if (closeable && closed.compareAndSet(false, true)) {
+      material.release();
+    }
+  }
+
+  public boolean isClosed() {
+    return closed.get() || material.released;
   }
 
   @Override
@@ -45,4 +187,35 @@ public class KeyImpl implements Keyring.Key {
         ", length=" + bytes.length +
         '}';
   }
+
+  private static class Material {
+    private final byte[] bytes;
+    private final AtomicInteger refCount = new AtomicInteger(1);
+    private final Jdk8Cleaner.Cleanable cleanable;
+    private volatile boolean released;
+
+    Material(byte[] bytes) {
+      this.bytes = bytes;
+      this.cleanable = zeroizeWhenUnreachable(this, bytes);
+    }
+
+    boolean tryRetain() {
+      while (true) {
+        final int count = refCount.get();
+        if (count == 0) {
+          return false;
+        }
+        if (refCount.compareAndSet(count, count + 1)) {
+          return true;
+        }
+      }
+    }
+
+    void release() {
+      if (refCount.decrementAndGet() == 0) {
+        released = true;
+        cleanable.clean();
+      }
+    }
+  }
 }
@@ -13,15 +13,24 @@ import com.couchbase.client.encryption.Keyring;
 import com.couchbase.client.encryption.errors.CryptoKeyNotFoundException;
 import com.couchbase.client.encryption.errors.InvalidCiphertextException;
 import com.couchbase.client.encryption.errors.InvalidCryptoKeyException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import javax.crypto.Cipher;
 import javax.crypto.Mac;
 import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.function.Function;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -29,16 +38,58 @@ import static java.util.Objects.requireNonNull;
  * and {@code Aes128CryptoProvider} classes.
  * <p>
  * Construct new instances with the static factory methods.
+ * <p>
+ * Prepared AES keys and initialized signing MACs are cached per key name
+ * for a while, so changes to these keys in the keyring are not seen immediately.
+ * Cached AES keys are zeroized when evicted, but an initialized MAC
+ * holds a copy of the signing key that cannot be zeroized.
  *
  * @see #aes128
  * @see #aes256
  */
 public class LegacyAesDecrypter implements Decrypter {
+  private static final int KEY_CACHE_SIZE = 100;
+  private static final Duration KEY_CACHE_EXPIRY = Duration.ofMinutes(10);
+
+  private static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+  private static final String MAC_ALGORITHM = "HmacSHA256";
+
+  // The legacy signature covers a string encoded with the platform default charset.
+  // For these charsets, encoding the components separately yields the same bytes
+  // as encoding their concatenation, so the MAC can be fed one component at a time.
+  private static final boolean STREAMING_SIGNATURE = isAsciiCompatibleWithoutState(Charset.defaultCharset());
+
+  // Cipher instances are not thread-safe, and are re-initialized for each message.
+  // After each message the cipher is re-initialized with a blank key, so an idle thread
+  // does not keep the expanded schedule of a real key (which might since have been zeroized).
+  private static final SecretKeySpec BLANK_KEY = new SecretKeySpec(new byte[16], "AES");
+  private static final IvParameterSpec BLANK_IV = new IvParameterSpec(new byte[16]);
+
+  private static final ThreadLocal<Cipher> cipher = ThreadLocal.withInitial(() -> {
+    try {
+      return Cipher.getInstance(TRANSFORMATION);
+    } catch (GeneralSecurityException e) {
+      throw new RuntimeException("Security provider does not support " + TRANSFORMATION, e);
+    }
+  });
+
   private final String algorithmName;
   private final int encryptionKeySize;
   private final Keyring keyring;
   private final Function<String, String> encryptionKeyNameToSigningKeyName;
 
+  private final Cache<String, ZeroizableSecretKey> aesKeys = Caffeine.newBuilder()
+      .maximumSize(KEY_CACHE_SIZE)
+      .expireAfterWrite(KEY_CACHE_EXPIRY)
+      .<String, ZeroizableSecretKey>removalListener((keyName, key, cause) -> key.destroy())
+      .build();
+
+  // Initialized prototypes; each message is signed with a clone.
+  private final Cache<String, Mac> signingMacs = Caffeine.newBuilder()
+      .maximumSize(KEY_CACHE_SIZE)
+      .expireAfterWrite(KEY_CACHE_EXPIRY)
+      .build();
+
   private LegacyAesDecrypter(String algorithmName, int encryptionKeySize, Keyring keyring, Function<String, String> encryptionKeyNameToSigningKeyName) {
     this.keyring = requireNonNull(keyring);
     this.encryptionKeyNameToSigningKeyName = requireNonNull(encryptionKeyNameToSigningKeyName);
@@ -94,29 +145,66 @@ public class LegacyAesDecrypter implements Decrypter {
     final byte[] ciphertext = encrypted.getBytes("ciphertext");
     final byte[] sig = encrypted.getBytes("sig");
 
+    final byte[] calculatedSignature = STREAMING_SIGNATURE
+        ? signComponents(kid, alg, encrypted)
+        : signConcatenation(kid, alg, encrypted);
+
+    if (!MessageDigest.isEqual(sig, calculatedSignature)) {
+      throw new InvalidCiphertextException("Signature does not match.");
+    }
+
+    final Cipher c = cipher.get();
+    initCipher(c, kid, new IvParameterSpec(iv));
+    try {
+      return c.doFinal(ciphertext);
+    } finally {
+      c.init(Cipher.DECRYPT_MODE, BLANK_KEY, BLANK_IV);
+    }
+  }
+
+  private byte[] signComponents(String kid, String alg, EncryptionResult encrypted) throws Exception {
+    final Charset charset = Charset.defaultCharset();
+    final Mac mac = getSigningMac(kid);
+    mac.update(kid.getBytes(charset));
+    mac.update(alg.getBytes(charset));
+    mac.update(encrypted.getString("iv").getBytes(charset)); // [sic] Yes, the Base64-encoded version.
+    mac.update(encrypted.getString("ciphertext").getBytes(charset)); // [sic] Yes, the Base64-encoded version.
+    return mac.doFinal();
+  }
+
+  private byte[] signConcatenation(String kid, String alg, EncryptionResult encrypted) throws Exception {
     final String signMe = kid + alg +
         encrypted.getString("iv") +  // [sic] Yes, the Base64-encoded version.
         encrypted.getString("ciphertext"); // [sic] Yes, the Base64-encoded version.
 
-    final byte[] calculatedSignature = sign(getSigningKeyName(kid),
-        signMe.getBytes(Charset.defaultCharset())); // [sic] Yes, the default charset.
+    final Mac mac = getSigningMac(kid);
+    mac.update(signMe.getBytes(Charset.defaultCharset())); // [sic] Yes, the default charset.
+    return mac.doFinal();
+  }
 
-    if (!MessageDigest.isEqual(sig, calculatedSignature)) {
-      throw new InvalidCiphertextException("Signature does not match.");
-    }
+  private static boolean isAsciiCompatibleWithoutState(Charset charset) {
+    return charset.equals(UTF_8) || charset.equals(US_ASCII) || charset.equals(ISO_8859_1);
+  }
 
-    try (ZeroizableSecretKey key = getAesKey(kid)) {
-      final IvParameterSpec ivParameterSpec = new IvParameterSpec(iv);
-      final Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-      cipher.init(Cipher.DECRYPT_MODE, key, ivParameterSpec);
-      return cipher.doFinal(ciphertext);
+  private void initCipher(Cipher c, String keyName, IvParameterSpec iv) throws GeneralSecurityException {
+    while (true) {
+      final ZeroizableSecretKey key = aesKeys.get(keyName, this::getAesKey);
+      try {
+        c.init(Cipher.DECRYPT_MODE, key, iv);
+        return;
+      } catch (IllegalStateException e) {
+        if (!key.isDestroyed()) {
+          throw e;
+        }
+        // evicted (and destroyed) since we looked it up
+        aesKeys.asMap().remove(keyName, key);
+      }
     }
   }
 
   private ZeroizableSecretKey getKey(String keyId, String algorithm) {
-    try (Zeroizer zeroizer = new Zeroizer()) {
-      final byte[] keyBytes = zeroizer.add(keyring.getOrThrow(keyId).bytes());
-      return new ZeroizableSecretKey(keyBytes, algorithm);
+    try (Keyring.Key key = keyring.acquireOrThrow(keyId)) {
+      return key.withBytes(keyBytes -> new ZeroizableSecretKey(keyBytes, algorithm));
     }
   }
 
@@ -137,14 +225,30 @@ public class LegacyAesDecrypter implements Decrypter {
         .orElseThrow(() -> new CryptoKeyNotFoundException("No mapping to signature key name found for encryption key '" + encryptionKeyName + "'"));
   }
 
-  private byte[] sign(String signingKeyName, byte[]... signMe) throws Exception {
+  /**
+   * Returns a MAC initialized with the signing key associated with the given
+   * encryption key, ready for use by the calling thread.
+   */
+  private Mac getSigningMac(String encryptionKeyName) throws GeneralSecurityException {
+    final String signingKeyName = getSigningKeyName(encryptionKeyName);
+    Mac prototype = signingMacs.getIfPresent(signingKeyName);
+    if (prototype == null) {
+      prototype = newSigningMac(signingKeyName);
+      signingMacs.put(signingKeyName, prototype);
+    }
+
+    try {
+      return (Mac) prototype.clone();
+    } catch (CloneNotSupportedException e) {
+      return newSigningMac(signingKeyName);
+    }
+  }
+
+  private Mac newSigningMac(String signingKeyName) throws GeneralSecurityException {
     try (ZeroizableSecretKey key = getKey(signingKeyName, "HMAC")) {
-      final Mac mac = Mac.getInstance("HmacSHA256");
+      final Mac mac = Mac.getInstance(MAC_ALGORITHM);
       mac.init(key);
-      for (byte[] array : signMe) {
-        mac.update(array);
-      }
-      return mac.doFinal();
+      return mac;
     }
   }
 }
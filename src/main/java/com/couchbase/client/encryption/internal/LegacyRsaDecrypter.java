@@ -11,6 +11,8 @@ import com.couchbase.client.encryption.Decrypter;
 import com.couchbase.client.encryption.EncryptionResult;
 import com.couchbase.client.encryption.Keyring;
 import com.couchbase.client.encryption.errors.CryptoKeyNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import javax.crypto.Cipher;
 import javax.crypto.spec.OAEPParameterSpec;
@@ -19,6 +21,7 @@ import java.security.KeyFactory;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.spec.MGF1ParameterSpec;
 import java.security.spec.PKCS8EncodedKeySpec;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -26,10 +29,29 @@ import static java.util.Objects.requireNonNull;
 
 /**
  * Decrypts messages encrypted by the legacy {@code RsaCryptoProvider} class.
+ * <p>
+ * Parsing a private key is expensive, so parsed keys are cached for a while.
+ * Unlike raw key material, a parsed private key cannot be zeroized.
+ * <p>
+ * Instances are thread-safe. To spread RSA decryption across cores,
+ * call {@link #decrypt} from several threads; {@code LegacyFieldMigrator}
+ * does this for you.
  */
 public class LegacyRsaDecrypter implements Decrypter {
+  private static final int PRIVATE_KEY_CACHE_SIZE = 100;
+  private static final Duration PRIVATE_KEY_CACHE_EXPIRY = Duration.ofMinutes(10);
+
+  private static final String TRANSFORMATION = "RSA/ECB/OAEPWithSHA-1AndMGF1Padding";
+
+  private static final OAEPParameterSpec OAEP_PARAMS =
+      new OAEPParameterSpec("SHA-1", "MGF1", new MGF1ParameterSpec("SHA-1"), PSource.PSpecified.DEFAULT);
+
   private final Function<String, String> publicKeyNameToPrivateKeyName;
   private final Keyring keyring;
+  private final Cache<String, RSAPrivateKey> privateKeys = Caffeine.newBuilder()
+      .maximumSize(PRIVATE_KEY_CACHE_SIZE)
+      .expireAfterWrite(PRIVATE_KEY_CACHE_EXPIRY)
+      .build();
 
   public LegacyRsaDecrypter(Keyring keyring, Function<String, String> publicKeyNameToPrivateKeyName) {
     this.keyring = requireNonNull(keyring);
@@ -46,9 +68,11 @@ public class LegacyRsaDecrypter implements Decrypter {
     final String kid = encrypted.getString("kid");
     final byte[] ciphertext = encrypted.getBytes("ciphertext");
 
-    OAEPParameterSpec oaepParams = new OAEPParameterSpec("SHA-1", "MGF1", new MGF1ParameterSpec("SHA-1"), PSource.PSpecified.DEFAULT);
-    Cipher cipher = Cipher.getInstance("RSA/ECB/OAEPWithSHA-1AndMGF1Padding");
-    cipher.init(Cipher.DECRYPT_MODE, getPrivateKey(kid), oaepParams);
+    final RSAPrivateKey privateKey = getPrivateKey(kid);
+    // A new Cipher for each message, so no thread keeps a private key reachable
+    // after it leaves the cache. The RSA operation costs far more than creating it.
+    final Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+    cipher.init(Cipher.DECRYPT_MODE, privateKey, OAEP_PARAMS);
     return cipher.doFinal(ciphertext);
   }
 
@@ -58,12 +82,21 @@ public class LegacyRsaDecrypter implements Decrypter {
   }
 
   private RSAPrivateKey getPrivateKey(String publicKeyName) throws Exception {
-    try (Zeroizer zeroizer = new Zeroizer()) {
-      String privateKeyName = getPrivateKeyName(publicKeyName);
-      byte[] keyBytes = zeroizer.add(keyring.getOrThrow(privateKeyName).bytes());
-      KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-      PKCS8EncodedKeySpec privateKeySpec = new PKCS8EncodedKeySpec(keyBytes);
-      return (RSAPrivateKey) keyFactory.generatePrivate(privateKeySpec);
+    final String privateKeyName = getPrivateKeyName(publicKeyName);
+    final RSAPrivateKey cached = privateKeys.getIfPresent(privateKeyName);
+    if (cached != null) {
+      return cached;
+    }
+
+    final RSAPrivateKey privateKey;
+    try (Keyring.Key key = keyring.acquireOrThrow(privateKeyName)) {
+      privateKey = key.withBytes(keyBytes -> {
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        PKCS8EncodedKeySpec privateKeySpec = new PKCS8EncodedKeySpec(keyBytes);
+        return (RSAPrivateKey) keyFactory.generatePrivate(privateKeySpec);
+      });
     }
+    privateKeys.put(privateKeyName, privateKey);
+    return privateKey;
   }
 }
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption.internal;
+
+/**
+ * A JDK Flight Recorder event for some other activity in progress,
+ * like loading a keyring.
+ *
+ * @see CryptoEvents
+ */
+public interface TimedEvent {
+  /**
+   * Returned when the event type is not being recorded.
+   */
+  TimedEvent NOOP = succeeded -> {
+  };
+
+  /**
+   * Ends the event and commits it.
+   */
+  void complete(boolean succeeded);
+}
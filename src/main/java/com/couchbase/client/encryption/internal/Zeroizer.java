@@ -23,8 +23,11 @@ import static java.util.Objects.requireNonNull;
 public class Zeroizer implements Closeable {
   private final List<byte[]> zeroizeMe = new ArrayList<>();
 
+  // Zeroization on garbage collection is a fallback for keys that are never closed,
+  // but under heavy key churn a single thread can fall behind.
   private static final Jdk8Cleaner cleaner = Jdk8Cleaner.create(
-      new DaemonThreadFactory("zeroizer"));
+      new DaemonThreadFactory("zeroizer"),
+      Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 4)));
 
   private static class ZeriozationTask implements Runnable {
     private final byte[] bytes;
@@ -44,12 +47,21 @@ public class Zeroizer implements Closeable {
    * becomes eligible for garbage collection.
    * <p>
    * Finalizers are deprecated in Java 9. This is a forward-compatible alternative.
+   *
+   * @return a handle for zeroizing the array immediately (and unregistering it)
    */
-  public static void zeroizeWhenUnreachable(Object referent, byte[] bytes) {
+  public static Jdk8Cleaner.Cleanable zeroizeWhenUnreachable(Object referent, byte[] bytes) {
     requireNonNull(referent);
     // Don't use a lambda because that would capture a reference to the object
     // and prevent it from becoming unreachable.
-    cleaner.register(referent, new ZeriozationTask(bytes));
+    return cleaner.register(referent, new ZeriozationTask(bytes));
+  }
+
+  /**
+   * Returns the cleaner used by {@link #zeroizeWhenUnreachable(Object, byte[])}.
+   */
+  public static Jdk8Cleaner cleaner() {
+    return cleaner;
   }
 
   /**
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2026 Couchbase, Inc.
+ *
+ * Use of this software is subject to the Couchbase Inc. Enterprise Subscription License Agreement v7
+ * which may be found at https://www.couchbase.com/ESLA01162020.
+ */
+
+package com.couchbase.client.encryption.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Creates JDK Flight Recorder events.
+ * <p>
+ * This is the Java 11 version. It must have the same public methods as the Java 8 version.
+ * <p>
+ * Each method returns a no-op event unless JFR is recording that event type,
+ * so nothing is allocated when JFR is not recording. If the runtime does not
+ * include the {@code jdk.jfr} module, every method returns a no-op event.
+ */
+public class CryptoEvents {
+  private static final boolean JFR_AVAILABLE = isJfrAvailable();
+
+  private CryptoEvents() {
+    throw new AssertionError("not instantiable");
+  }
+
+  private static boolean isJfrAvailable() {
+    try {
+      Class.forName("jdk.jfr.Event");
+      return true;
+    } catch (Throwable t) {
+      return false;
+    }
+  }
+
+  public static CryptoOperationEvent beginEncrypt(String alias) {
+    return JFR_AVAILABLE ? Jfr.beginEncrypt(alias) : CryptoOperationEvent.NOOP;
+  }
+
+  public static CryptoOperationEvent beginDecrypt() {
+    return JFR_AVAILABLE ? Jfr.beginDecrypt() : CryptoOperationEvent.NOOP;
+  }
+
+  /**
+   * Call {@link TimedEvent#complete(boolean)} with true if the keyring was loaded.
+   */
+  public static TimedEvent beginKeyringLoad(Object keyring) {
+    return JFR_AVAILABLE ? Jfr.beginKeyringLoad(keyring) : TimedEvent.NOOP;
+  }
+
+  /**
+   * Call {@link TimedEvent#complete(boolean)} with true if the key was found.
+   *
+   * @param backingKeyring the keyring consulted because the key was not in the cache
+   */
+  public static TimedEvent beginKeyCacheMiss(Object backingKeyring, String keyId) {
+    return JFR_AVAILABLE ? Jfr.beginKeyCacheMiss(backingKeyring, keyId) : TimedEvent.NOOP;
+  }
+
+  /**
+   * Call {@link TimedEvent#complete(boolean)} with true if this call performed the cleanup
+   * (as opposed to finding it had already been done).
+   *
+   * @param afterCollection true if the cleanup was triggered by garbage collection,
+   * or false if it was triggered by closing the key
+   */
+  public static TimedEvent beginZeroization(boolean afterCollection) {
+    return JFR_AVAILABLE ? Jfr.beginZeroization(afterCollection) : TimedEvent.NOOP;
+  }
+
+  /**
+   * Refers to JFR classes, so it's only loaded if JFR is available.
+   */
+  private static class Jfr {
+    private static final EventType ENCRYPT = EventType.getEventType(EncryptEvent.class);
+    private static final EventType DECRYPT = EventType.getEventType(DecryptEvent.class);
+    private static final EventType KEYRING_LOAD = EventType.getEventType(KeyringLoadEvent.class);
+    private static final EventType KEY_CACHE_MISS = EventType.getEventType(KeyCacheMissEvent.class);
+    private static final EventType ZEROIZATION = EventType.getEventType(ZeroizationEvent.class);
+
+    static CryptoOperationEvent beginEncrypt(String alias) {
+      if (!ENCRYPT.isEnabled()) {
+        return CryptoOperationEvent.NOOP;
+      }
+      final EncryptEvent event = new EncryptEvent();
+      event.alias = alias;
+      event.begin();
+      return event;
+    }
+
+    static CryptoOperationEvent beginDecrypt() {
+      if (!DECRYPT.isEnabled()) {
+        return CryptoOperationEvent.NOOP;
+      }
+      final DecryptEvent event = new DecryptEvent();
+      event.begin();
+      return event;
+    }
+
+    static TimedEvent beginKeyringLoad(Object keyring) {
+      if (!KEYRING_LOAD.isEnabled()) {
+        return TimedEvent.NOOP;
+      }
+      final KeyringLoadEvent event = new KeyringLoadEvent();
+      event.keyring = keyring.getClass().getName();
+      event.begin();
+      return event;
+    }
+
+    static TimedEvent beginKeyCacheMiss(Object backingKeyring, String keyId) {
+      if (!KEY_CACHE_MISS.isEnabled()) {
+        return TimedEvent.NOOP;
+      }
+      final KeyCacheMissEvent event = new KeyCacheMissEvent();
+      event.backingKeyring = backingKeyring.getClass().getName();
+      event.keyId = keyId;
+      event.begin();
+      return event;
+    }
+
+    static TimedEvent beginZeroization(boolean afterCollection) {
+      if (!ZEROIZATION.isEnabled()) {
+        return TimedEvent.NOOP;
+      }
+      final ZeroizationEvent event = new ZeroizationEvent();
+      event.afterCollection = afterCollection;
+      event.begin();
+      return event;
+    }
+  }
+
+  @Category({"Couchbase", "Encryption"})
+  @StackTrace(false)
+  @Threshold("1 ms") // these are frequent; by default, record only the slow ones
+  private abstract static class OperationEvent extends Event implements CryptoOperationEvent {
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Key ID")
+    String keyId;
+
+    @Label("Input Size")
+    @DataAmount
+    long inputSize;
+
+    @Label("Output Size")
+    @DataAmount
+    long outputSize;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    @Override
+    public void complete(String algorithm, String keyId, long inputSize, long outputSize, boolean succeeded) {
+      end();
+      if (shouldCommit()) {
+        this.algorithm = algorithm;
+        this.keyId = keyId;
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+        this.succeeded = succeeded;
+        commit();
+      }
+    }
+  }
+
+  @Name("com.couchbase.encryption.Encrypt")
+  @Label("Encrypt")
+  @Description("Encryption of a field. Input size is the plaintext length; output size is the Base64 ciphertext length.")
+  private static class EncryptEvent extends OperationEvent {
+    @Label("Encrypter Alias")
+    String alias;
+  }
+
+  @Name("com.couchbase.encryption.Decrypt")
+  @Label("Decrypt")
+  @Description("Decryption of a field. Input size is the Base64 ciphertext length; output size is the plaintext length.")
+  private static class DecryptEvent extends OperationEvent {
+  }
+
+  @Category({"Couchbase", "Encryption"})
+  private abstract static class CompletableEvent extends Event implements TimedEvent {
+    @Label("Succeeded")
+    boolean succeeded;
+
+    @Override
+    public void complete(boolean succeeded) {
+      end();
+      if (shouldCommit()) {
+        this.succeeded = succeeded;
+        commit();
+      }
+    }
+  }
+
+  @Name("com.couchbase.encryption.KeyringLoad")
+  @Label("Keyring Load")
+  @Description("Loading or reloading the backing keyring of a reloading keyring.")
+  private static class KeyringLoadEvent extends CompletableEvent {
+    @Label("Keyring Class")
+    String keyring;
+  }
+
+  @Name("com.couchbase.encryption.KeyCacheMiss")
+  @Label("Key Cache Miss")
+  @Description("Looking up a key that was not in a caching keyring. Succeeded means the key was found.")
+  @StackTrace(false)
+  private static class KeyCacheMissEvent extends CompletableEvent {
+    @Label("Backing Keyring Class")
+    String backingKeyring;
+
+    @Label("Key ID")
+    String keyId;
+  }
+
+  @Name("com.couchbase.encryption.Zeroization")
+  @Label("Key Material Zeroization")
+  @Description("Zeroizing key material, either because every handle was closed or after garbage collection.")
+  @StackTrace(false)
+  // Zeroizing is fast and frequent, so a threshold would hide every event.
+  // Instead, the event is disabled unless a recording enables it.
+  @Enabled(false)
+  @Threshold("0 ms")
+  private static class ZeroizationEvent extends CompletableEvent {
+    @Label("After Collection")
+    boolean afterCollection;
+  }
+}
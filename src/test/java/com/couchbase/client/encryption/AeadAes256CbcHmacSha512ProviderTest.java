@@ -3,7 +3,9 @@ package com.couchbase.client.encryption;
 import com.couchbase.client.core.encryption.CryptoManager;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import static com.couchbase.client.core.util.CbCollections.mapOf;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -30,5 +32,37 @@ class AeadAes256CbcHmacSha512ProviderTest {
     assertEquals(encrypted, cryptoManager.encrypt(plaintext, null));
     assertArrayEquals(plaintext, cryptoManager.decrypt(encrypted));
   }
-}
 
+  @Test
+  void doesNotCloseKeysCachedByCustomDecorator() {
+    final byte[] keyBytes = EncryptionTestHelper.keyring().getOrThrow("test-key").bytes();
+    RotatingKeyring rotating = new RotatingKeyring("--") {
+      @Override
+      protected String getPrimaryVersion(String baseName) {
+        return "1";
+      }
+
+      @Override
+      protected Optional<byte[]> getKeyBytes(KeyNameAndVersion keyNameAndVersion) {
+        return Optional.of(keyBytes.clone());
+      }
+    };
+
+    // A decorator written before keys were closeable, which shares key instances between lookups.
+    Map<String, Keyring.Key> cache = new HashMap<>();
+    Keyring caching = keyId -> Optional.of(cache.computeIfAbsent(keyId, rotating::getOrThrow));
+
+    AeadAes256CbcHmacSha512Provider provider = AeadAes256CbcHmacSha512Provider.builder()
+        .keyring(caching)
+        .build();
+    CryptoManager cryptoManager = DefaultCryptoManager.builder()
+        .decrypter(provider.decrypter())
+        .defaultEncrypter(provider.encrypterForKey("test-key"))
+        .build();
+
+    final byte[] plaintext = "xyzzy".getBytes(UTF_8);
+    for (int i = 0; i < 3; i++) {
+      assertArrayEquals(plaintext, cryptoManager.decrypt(cryptoManager.encrypt(plaintext, null)));
+    }
+  }
+}
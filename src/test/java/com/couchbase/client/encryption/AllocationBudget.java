@@ -0,0 +1,83 @@
+package com.couchbase.client.encryption;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures how many bytes an operation allocates on the heap,
+ * using the per-thread allocation counter of HotSpot-based JVMs.
+ * <p>
+ * The operation is run enough times first for the JIT compiler to optimize it,
+ * since escape analysis can eliminate allocations in compiled code.
+ * <p>
+ * Allocation counts differ between JDK releases (the JCE classes especially),
+ * so budgets are only checked on the release they were calibrated on.
+ * Tests are skipped on other releases. The CI workflow
+ * ({@code .github/workflows/run-tests.yml}) has a Java 17 leg so the budgets
+ * are enforced there; keep it in step with {@link #CALIBRATED_JAVA_VERSION}.
+ */
+class AllocationBudget {
+  private AllocationBudget() {
+    throw new AssertionError("not instantiable");
+  }
+
+  private static final int WARMUP_ITERATIONS = 10_000;
+  private static final int MEASURED_ITERATIONS = 5_000;
+
+  /**
+   * The {@code java.specification.version} the budgets were measured on.
+   */
+  static final String CALIBRATED_JAVA_VERSION = "17";
+
+  @FunctionalInterface
+  interface Operation {
+    void run() throws Exception;
+  }
+
+  /**
+   * Fails if the operation allocates more than the given number of bytes, on average.
+   * Skips the test if the JVM can't count allocated bytes,
+   * or is not the release the budgets were calibrated on.
+   */
+  static void assertAllocatesAtMost(String description, long budgetBytesPerOp, Operation operation) throws Exception {
+    final String javaVersion = System.getProperty("java.specification.version");
+    assumeTrue(CALIBRATED_JAVA_VERSION.equals(javaVersion),
+        "Allocation budgets were calibrated on Java " + CALIBRATED_JAVA_VERSION + ", not " + javaVersion);
+
+    final long actual = bytesPerOp(operation);
+    if (actual > budgetBytesPerOp) {
+      fail("Expected " + description + " to allocate at most " + budgetBytesPerOp + " bytes per operation, but was " + actual);
+    }
+  }
+
+  static long bytesPerOp(Operation operation) throws Exception {
+    final com.sun.management.ThreadMXBean threads = threadMXBean();
+    final long threadId = Thread.currentThread().getId();
+
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      operation.run();
+    }
+
+    final long before = threads.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      operation.run();
+    }
+    final long after = threads.getThreadAllocatedBytes(threadId);
+
+    return (after - before) / MEASURED_ITERATIONS;
+  }
+
+  private static com.sun.management.ThreadMXBean threadMXBean() {
+    final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "JVM does not support allocation counting");
+
+    final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+    assumeTrue(threads.isThreadAllocatedMemorySupported(), "JVM does not support allocation counting");
+    if (!threads.isThreadAllocatedMemoryEnabled()) {
+      threads.setThreadAllocatedMemoryEnabled(true);
+    }
+    return threads;
+  }
+}
@@ -0,0 +1,145 @@
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.core.encryption.CryptoManager;
+import com.couchbase.client.encryption.internal.AeadAes256CbcHmacSha512Cipher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.couchbase.client.core.util.CbCollections.mapOf;
+import static com.couchbase.client.encryption.AllocationBudget.assertAllocatesAtMost;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Guards against changes that add garbage to the hot paths.
+ * <p>
+ * Budgets are about 20% above what was measured on JDK 17, the only release
+ * they are checked on (see {@link AllocationBudget#CALIBRATED_JAVA_VERSION}).
+ * When moving to a newer JDK, re-measure and update them together.
+ * Most of the cost of encryption and decryption is in the JCE Cipher and Mac
+ * instances. Keyrings that read and decode key material on every lookup
+ * have their own, larger budgets.
+ * If a change legitimately needs more, raise the budget in the same commit
+ * and say why.
+ */
+class AllocationBudgetTest {
+  private static final byte[] NO_ASSOCIATED_DATA = new byte[0];
+  private static final byte[] plaintext = new byte[512];
+  private static final byte[] keyBytes = new byte[64];
+
+  private static final long CRYPTO_BUDGET = 14 * 1024;
+  private static final long KEY_LOOKUP_BUDGET = 128;
+  private static final long KEY_READ_BUDGET = 896;
+  private static final long FILE_READ_BUDGET = 1536;
+
+  private static final String TEST_KEY_VARIABLE = "COUCHBASE_ENCRYPTION_TEST_KEY";
+
+  private final AeadAes256CbcHmacSha512Provider provider = EncryptionTestHelper.provider();
+  private final Encrypter encrypter = provider.encrypterForKey("test-key");
+  private final Decrypter decrypter = provider.decrypter();
+
+  @Test
+  void cipher() throws Exception {
+    AeadAes256CbcHmacSha512Cipher cipher = new AeadAes256CbcHmacSha512Cipher();
+    byte[] ciphertext = cipher.encrypt(keyBytes, plaintext, NO_ASSOCIATED_DATA);
+
+    assertAllocatesAtMost("cipher encrypt", CRYPTO_BUDGET, () -> cipher.encrypt(keyBytes, plaintext, NO_ASSOCIATED_DATA));
+    assertAllocatesAtMost("cipher decrypt", CRYPTO_BUDGET, () -> cipher.decrypt(keyBytes, ciphertext, NO_ASSOCIATED_DATA));
+  }
+
+  @Test
+  void provider() throws Exception {
+    EncryptionResult encrypted = encrypter.encrypt(plaintext);
+
+    assertAllocatesAtMost("provider encrypt", CRYPTO_BUDGET, () -> encrypter.encrypt(plaintext));
+    assertAllocatesAtMost("provider decrypt", CRYPTO_BUDGET, () -> decrypter.decrypt(encrypted));
+  }
+
+  @Test
+  void cryptoManager() throws Exception {
+    CryptoManager cryptoManager = DefaultCryptoManager.builder()
+        .decrypter(decrypter)
+        .defaultEncrypter(encrypter)
+        .build();
+    Map<String, Object> encrypted = cryptoManager.encrypt(plaintext, null);
+
+    assertAllocatesAtMost("crypto manager encrypt", CRYPTO_BUDGET, () -> cryptoManager.encrypt(plaintext, null));
+    assertAllocatesAtMost("crypto manager decrypt", CRYPTO_BUDGET, () -> cryptoManager.decrypt(encrypted));
+  }
+
+  @Test
+  void keyLookups() throws Exception {
+    ListableKeyring fromMap = Keyring.fromMap(mapOf("my-key", keyBytes));
+    Keyring other = Keyring.fromMap(mapOf("other-key", keyBytes));
+
+    assertLookupWithinBudget("fromMap", fromMap);
+    assertLookupWithinBudget("caching", Keyring.caching(Duration.ofMinutes(1), 10, fromMap));
+    assertLookupWithinBudget("CachingKeyring", CachingKeyring.builder().build(fromMap));
+    assertLookupWithinBudget("composite", Keyring.composite(other, fromMap));
+    assertLookupWithinBudget("RoutingKeyring", RoutingKeyring.builder().build(other, fromMap));
+
+    try (OffHeapKeyring offHeap = OffHeapKeyring.builder().build()) {
+      offHeap.put("my-key", keyBytes.clone());
+      assertLookupWithinBudget("OffHeapKeyring", offHeap);
+    }
+
+    assertLookupWithinBudget("reloading", Keyring.reloading(Duration.ofMinutes(1), () -> fromMap));
+    assertLookupWithinBudget("EnvironmentVariableKeyring snapshot", EnvironmentVariableKeyring.snapshot(
+        mapOf(TEST_KEY_VARIABLE, Base64.getEncoder().encodeToString(keyBytes)), singletonList("my-key"), keyName -> TEST_KEY_VARIABLE));
+
+    KeyStore keyStore = KeyStore.getInstance("PKCS12");
+    keyStore.load(null, null);
+    KeyStoreKeyring.setSecretKey(keyStore, "my-key", keyBytes, "secret".toCharArray());
+    assertLookupWithinBudget("KeyStoreKeyring", KeyStoreKeyring.builder().build(keyStore, keyName -> "secret"));
+    assertLookupWithinBudget("lazy KeyStoreKeyring", KeyStoreKeyring.builder().lazy().build(keyStore, keyName -> "secret"));
+  }
+
+  @Test
+  void keyLookupsThatReadKeyMaterial() throws Exception {
+    assertLookupWithinBudget("RotatingKeyring", KEY_READ_BUDGET, new RotatingKeyring("--") {
+      @Override
+      protected String getPrimaryVersion(String baseName) {
+        return "1";
+      }
+
+      @Override
+      protected Optional<byte[]> getKeyBytes(KeyNameAndVersion keyNameAndVersion) {
+        return Optional.of(keyBytes.clone());
+      }
+    });
+
+    // Set by the surefire configuration in pom.xml.
+    assumeTrue(System.getenv(TEST_KEY_VARIABLE) != null, TEST_KEY_VARIABLE + " is not set");
+    assertLookupWithinBudget("EnvironmentVariableKeyring", KEY_READ_BUDGET, new EnvironmentVariableKeyring(keyName -> TEST_KEY_VARIABLE));
+  }
+
+  @Test
+  void filesystemKeyLookups(@TempDir Path dir) throws Exception {
+    Files.write(dir.resolve("my-key"), keyBytes);
+
+    assertLookupWithinBudget("FilesystemKeyring", FILE_READ_BUDGET, new FilesystemKeyring(dir, FilesystemKeyring.KeyFileFormat.RAW));
+    try (FilesystemKeyring hotReloading = FilesystemKeyring.hotReloading(dir, FilesystemKeyring.KeyFileFormat.RAW)) {
+      assertLookupWithinBudget("hot reloading FilesystemKeyring", hotReloading);
+    }
+  }
+
+  private static void assertLookupWithinBudget(String keyringName, Keyring keyring) throws Exception {
+    assertLookupWithinBudget(keyringName, KEY_LOOKUP_BUDGET, keyring);
+  }
+
+  private static void assertLookupWithinBudget(String keyringName, long budget, Keyring keyring) throws Exception {
+    assertAllocatesAtMost("lookup in " + keyringName, budget, () -> {
+      try (Keyring.Key key = keyring.acquireOrThrow("my-key")) {
+        key.id();
+      }
+    });
+  }
+}
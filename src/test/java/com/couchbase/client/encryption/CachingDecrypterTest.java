@@ -0,0 +1,94 @@
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.errors.InvalidCiphertextException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingDecrypterTest {
+  private static final byte[] plaintext = "\"The enemy knows the system.\"".getBytes(UTF_8);
+
+  private static EncryptionResult encrypted() {
+    return EncryptionResult.forAlgorithm("AEAD_AES_256_CBC_HMAC_SHA512")
+        .put("kid", "test-key")
+        .put("ciphertext", "GvOMLcK5b/3YZpQJI0G8BLm98oj20ZLdqKDV3MfTuGlWL4R5p5Deykuv2XLW4LcDvnOkmhuUSRbQ8QVEmbjq43XHdOm3ColJ6LzoaAtJihk=");
+  }
+
+  @Test
+  void decryptsOnlyOnce() throws Exception {
+    for (boolean offHeap : new boolean[]{false, true}) {
+      CountingDecrypter counter = new CountingDecrypter(EncryptionTestHelper.provider().decrypter());
+      Decrypter decrypter = CachingDecrypter.builder()
+          .offHeap(offHeap)
+          .build(counter);
+
+      byte[] first = decrypter.decrypt(encrypted());
+      byte[] second = decrypter.decrypt(encrypted());
+
+      assertArrayEquals(plaintext, first);
+      assertArrayEquals(plaintext, second);
+      assertNotSame(first, second);
+      assertEquals(1, counter.invocations.get());
+    }
+  }
+
+  @Test
+  void callerCannotCorruptCachedPlaintext() throws Exception {
+    Decrypter decrypter = CachingDecrypter.builder()
+        .build(EncryptionTestHelper.provider().decrypter());
+
+    byte[] first = decrypter.decrypt(encrypted());
+    first[0] = 0;
+
+    assertArrayEquals(plaintext, decrypter.decrypt(encrypted()));
+  }
+
+  @Test
+  void failuresAreNotCached() throws Exception {
+    CountingDecrypter counter = new CountingDecrypter(EncryptionTestHelper.provider().decrypter());
+    Decrypter decrypter = CachingDecrypter.builder()
+        .maximumWeight(1024)
+        .build(counter);
+
+    EncryptionResult tampered = encrypted()
+        .put("ciphertext", "AAAALcK5b/3YZpQJI0G8BLm98oj20ZLdqKDV3MfTuGlWL4R5p5Deykuv2XLW4LcDvnOkmhuUSRbQ8QVEmbjq43XHdOm3ColJ6LzoaAtJihk=");
+
+    assertThrows(InvalidCiphertextException.class, () -> decrypter.decrypt(tampered));
+    assertThrows(InvalidCiphertextException.class, () -> decrypter.decrypt(tampered));
+    assertEquals(2, counter.invocations.get());
+  }
+
+  @Test
+  void sizeAndWeightAreMutuallyExclusive() {
+    assertThrows(IllegalStateException.class, () -> CachingDecrypter.builder()
+        .maximumSize(1)
+        .maximumWeight(1)
+        .build(EncryptionTestHelper.provider().decrypter()));
+  }
+
+  private static class CountingDecrypter implements Decrypter {
+    private final Decrypter wrapped;
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    CountingDecrypter(Decrypter wrapped) {
+      this.wrapped = wrapped;
+    }
+
+    @Override
+    public String algorithm() {
+      return wrapped.algorithm();
+    }
+
+    @Override
+    public byte[] decrypt(EncryptionResult encrypted) throws Exception {
+      invocations.incrementAndGet();
+      return wrapped.decrypt(encrypted);
+    }
+  }
+}
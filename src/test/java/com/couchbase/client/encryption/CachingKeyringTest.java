@@ -0,0 +1,103 @@
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.internal.KeyImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingKeyringTest {
+  private final Map<String, byte[]> backing = new HashMap<>();
+  private final AtomicInteger lookups = new AtomicInteger();
+  private final Keyring wrapped = keyId -> {
+    lookups.incrementAndGet();
+    return Optional.ofNullable(backing.get(keyId)).map(bytes -> Keyring.Key.create(keyId, bytes.clone()));
+  };
+
+  @Test
+  void servesStaleKeyWhileRefreshing() throws Exception {
+    Queue<Runnable> refreshes = new ConcurrentLinkedQueue<>();
+    CachingKeyring keyring = CachingKeyring.builder()
+        .refreshAfterWrite(Duration.ofMillis(50))
+        .executor(refreshes::add)
+        .recordStats()
+        .build(wrapped);
+
+    backing.put("a", new byte[]{1});
+    assertArrayEquals(new byte[]{1}, keyring.getOrThrow("a").bytes());
+    assertEquals(1, lookups.get());
+
+    backing.put("a", new byte[]{2});
+    Thread.sleep(100);
+
+    // refresh is pending, so the stale key is returned without blocking
+    assertArrayEquals(new byte[]{1}, keyring.getOrThrow("a").bytes());
+    assertFalse(refreshes.isEmpty());
+
+    refreshes.forEach(Runnable::run);
+    assertArrayEquals(new byte[]{2}, keyring.getOrThrow("a").bytes());
+
+    assertEquals(2, lookups.get());
+    assertEquals(1, keyring.stats().missCount());
+    assertEquals(2, keyring.stats().hitCount());
+  }
+
+  @Test
+  void zeroizesEvictedKeyAfterManyLookups() throws Exception {
+    byte[][] material = new byte[1][];
+    Keyring closeableKeys = new Keyring() {
+      @Override
+      public Optional<Key> get(String keyId) {
+        throw new UnsupportedOperationException("caching keyring should acquire");
+      }
+
+      @Override
+      public Optional<Key> acquire(String keyId) {
+        KeyImpl key = KeyImpl.closeable(keyId, new byte[]{1, 2, 3});
+        material[0] = key.withBytes(bytes -> bytes);
+        return Optional.of(key);
+      }
+    };
+    CachingKeyring keyring = CachingKeyring.builder()
+        .executor(Runnable::run) // so eviction closes the key before invalidate returns
+        .build(closeableKeys);
+
+    Keyring.Key key = null;
+    for (int i = 0; i < 100_000; i++) {
+      key = keyring.getOrThrow("a");
+    }
+    assertArrayEquals(new byte[]{1, 2, 3}, key.bytes());
+
+    keyring.invalidate("a");
+    assertArrayEquals(new byte[]{0, 0, 0}, material[0]);
+    assertThrows(IllegalStateException.class, key::bytes);
+  }
+
+  @Test
+  void cachesMissingKeysSeparately() throws Exception {
+    CachingKeyring keyring = CachingKeyring.builder()
+        .negativeExpireAfterWrite(Duration.ofMillis(50))
+        .build(wrapped);
+
+    assertFalse(keyring.get("a").isPresent());
+    assertFalse(keyring.get("a").isPresent());
+    assertEquals(1, lookups.get());
+
+    backing.put("a", new byte[]{1});
+    Thread.sleep(100);
+    assertTrue(keyring.get("a").isPresent());
+    assertTrue(keyring.get("a").isPresent());
+    assertEquals(2, lookups.get());
+  }
+}
@@ -0,0 +1,374 @@
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.core.cnc.Counter;
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.RequestTracer;
+import com.couchbase.client.core.cnc.ValueRecorder;
+import com.couchbase.client.core.cnc.tracing.NoopRequestTracer;
+import com.couchbase.client.core.msg.RequestContext;
+import com.couchbase.client.encryption.errors.DecryptionFailureException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.couchbase.client.core.util.CbCollections.listOf;
+import static com.couchbase.client.core.util.CbCollections.mapOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DefaultCryptoManagerTest {
+
+  private static class InMemoryRotatingKeyring extends RotatingKeyring {
+    private volatile String primaryVersion = "1";
+
+    InMemoryRotatingKeyring() {
+      super("--");
+    }
+
+    @Override
+    protected String getPrimaryVersion(String baseName) {
+      return primaryVersion;
+    }
+
+    @Override
+    protected Optional<byte[]> getKeyBytes(KeyNameAndVersion keyNameAndVersion) {
+      byte[] bytes = new byte[64];
+      bytes[0] = (byte) Integer.parseInt(keyNameAndVersion.version());
+      return Optional.of(bytes);
+    }
+  }
+
+  private static class RecordingMeter implements Meter {
+    private final Map<String, AtomicLong> totals = new ConcurrentHashMap<>();
+
+    @Override
+    public Counter counter(String name, Map<String, String> tags) {
+      AtomicLong total = totals.computeIfAbsent(key(name, tags), k -> new AtomicLong());
+      return total::addAndGet;
+    }
+
+    @Override
+    public ValueRecorder valueRecorder(String name, Map<String, String> tags) {
+      AtomicLong count = totals.computeIfAbsent(key(name, tags), k -> new AtomicLong());
+      return value -> count.incrementAndGet();
+    }
+
+    long get(String name, Map<String, String> tags) {
+      AtomicLong total = totals.get(key(name, tags));
+      return total == null ? 0 : total.get();
+    }
+
+    private static String key(String name, Map<String, String> tags) {
+      return name + new TreeMap<>(tags);
+    }
+  }
+
+  private static class RecordingTracer implements RequestTracer {
+    private final List<RecordedSpan> spans = new ArrayList<>();
+
+    @Override
+    public RequestSpan requestSpan(String name, RequestSpan parent) {
+      RecordedSpan span = new RecordedSpan(name, (RecordedSpan) parent);
+      spans.add(span);
+      return span;
+    }
+
+    @Override
+    public Mono<Void> start() {
+      return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> stop(Duration timeout) {
+      return Mono.empty();
+    }
+  }
+
+  private static class RecordedSpan implements RequestSpan {
+    private final String name;
+    private final RecordedSpan parent;
+    private final Map<String, Object> attributes = new HashMap<>();
+    private boolean ended;
+
+    RecordedSpan(String name, RecordedSpan parent) {
+      this.name = name;
+      this.parent = parent;
+    }
+
+    @Override
+    public void attribute(String key, String value) {
+      attributes.put(key, value);
+    }
+
+    @Override
+    public void attribute(String key, boolean value) {
+      attributes.put(key, value);
+    }
+
+    @Override
+    public void attribute(String key, long value) {
+      attributes.put(key, value);
+    }
+
+    @Override
+    public void event(String name, Instant timestamp) {
+    }
+
+    @Override
+    public void status(StatusCode status) {
+    }
+
+    @Override
+    public void end() {
+      ended = true;
+    }
+
+    @Override
+    public void requestContext(RequestContext requestContext) {
+    }
+  }
+
+  private final InMemoryRotatingKeyring keyring = new InMemoryRotatingKeyring();
+  private final AeadAes256CbcHmacSha512Provider provider = AeadAes256CbcHmacSha512Provider.builder()
+      .keyring(keyring)
+      .build();
+  private final DefaultCryptoManager cryptoManager = DefaultCryptoManager.builder()
+      .decrypter(provider.decrypter())
+      .defaultEncrypter(provider.encrypterForKey("my-key"))
+      .build();
+
+  @Test
+  void reencryptSkipsCurrentNodes() {
+    Map<String, Object> node = cryptoManager.encrypt("hello".getBytes(UTF_8), null);
+    assertEquals("my-key--1", node.get("kid"));
+    assertSame(node, cryptoManager.reencrypt(node, null));
+
+    keyring.primaryVersion = "2";
+    Map<String, Object> reencrypted = cryptoManager.reencrypt(node, null);
+    assertEquals("my-key--2", reencrypted.get("kid"));
+    assertEquals("hello", new String(cryptoManager.decrypt(reencrypted), UTF_8));
+  }
+
+  @Test
+  void reencryptAllPreservesOrder() {
+    Map<String, Object> a = cryptoManager.encrypt("a".getBytes(UTF_8), null);
+    keyring.primaryVersion = "2";
+    Map<String, Object> b = cryptoManager.encrypt("b".getBytes(UTF_8), null);
+    Map<String, Object> c = cryptoManager.encrypt("c".getBytes(UTF_8), null);
+    keyring.primaryVersion = "1";
+    Map<String, Object> d = cryptoManager.encrypt("d".getBytes(UTF_8), null);
+    keyring.primaryVersion = "2";
+
+    List<Map<String, Object>> result = cryptoManager.reencryptAll(listOf(a, b, c, d), null);
+    assertEquals(4, result.size());
+    assertSame(b, result.get(1));
+    assertSame(c, result.get(2));
+
+    String[] expected = {"a", "b", "c", "d"};
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals("my-key--2", result.get(i).get("kid"));
+      assertEquals(expected[i], new String(cryptoManager.decrypt(result.get(i)), UTF_8));
+    }
+  }
+
+  @Test
+  void recordsMetrics() {
+    RecordingMeter meter = new RecordingMeter();
+    DefaultCryptoManager cryptoManager = DefaultCryptoManager.builder()
+        .decrypter(provider.decrypter())
+        .encrypter("my-alias", provider.encrypterForKey("my-key"))
+        .meter(meter)
+        .build();
+
+    Map<String, Object> node = cryptoManager.encrypt("hello".getBytes(UTF_8), "my-alias");
+    cryptoManager.decrypt(node);
+
+    Map<String, Object> corrupt = new HashMap<>(node);
+    String ciphertext = (String) node.get("ciphertext");
+    corrupt.put("ciphertext", (ciphertext.charAt(0) == 'A' ? "B" : "A") + ciphertext.substring(1));
+    assertThrows(DecryptionFailureException.class, () -> cryptoManager.decrypt(corrupt));
+    assertThrows(DecryptionFailureException.class, () -> cryptoManager.decrypt(mapOf("alg", "bogus")));
+
+    String alg = (String) node.get("alg");
+    long ciphertextLength = ((String) node.get("ciphertext")).length();
+    Map<String, String> encryptTags = new HashMap<>();
+    encryptTags.put("db.operation", "encrypt");
+    encryptTags.put("db.couchbase.encryption.algorithm", alg);
+    encryptTags.put("db.couchbase.encryption.alias", "my-alias");
+    Map<String, String> decryptTags = new HashMap<>();
+    decryptTags.put("db.operation", "decrypt");
+    decryptTags.put("db.couchbase.encryption.algorithm", alg);
+
+    assertEquals(1, meter.get("db.couchbase.encryption.operations", encryptTags));
+    assertEquals(1, meter.get("db.couchbase.encryption.duration", encryptTags));
+    assertEquals(5, meter.get("db.couchbase.encryption.bytes_in", encryptTags));
+    assertEquals(ciphertextLength, meter.get("db.couchbase.encryption.bytes_out", encryptTags));
+
+    assertEquals(2, meter.get("db.couchbase.encryption.operations", decryptTags));
+    assertEquals(ciphertextLength, meter.get("db.couchbase.encryption.bytes_in", decryptTags));
+    assertEquals(5, meter.get("db.couchbase.encryption.bytes_out", decryptTags));
+
+    decryptTags.put("error.type", "InvalidCiphertextException");
+    assertEquals(1, meter.get("db.couchbase.encryption.failures", decryptTags));
+
+    decryptTags.put("db.couchbase.encryption.algorithm", "unrecognized");
+    decryptTags.put("error.type", "DecrypterNotFoundException");
+    assertEquals(1, meter.get("db.couchbase.encryption.failures", decryptTags));
+  }
+
+  @Test
+  void failingTelemetryDoesNotFailOperations() {
+    IllegalStateException telemetryFailure = new IllegalStateException("telemetry is broken");
+    Meter brokenMeter = new Meter() {
+      @Override
+      public Counter counter(String name, Map<String, String> tags) {
+        return amount -> {
+          throw telemetryFailure;
+        };
+      }
+
+      @Override
+      public ValueRecorder valueRecorder(String name, Map<String, String> tags) {
+        return value -> {
+          throw telemetryFailure;
+        };
+      }
+    };
+    RequestTracer brokenTracer = new RecordingTracer() {
+      @Override
+      public RequestSpan requestSpan(String name, RequestSpan parent) {
+        throw telemetryFailure;
+      }
+    };
+    DefaultCryptoManager cryptoManager = DefaultCryptoManager.builder()
+        .decrypter(provider.decrypter())
+        .defaultEncrypter(provider.encrypterForKey("my-key"))
+        .meter(brokenMeter)
+        .requestTracer(brokenTracer)
+        .build();
+
+    Map<String, Object> node = cryptoManager.encrypt("hello".getBytes(UTF_8), null);
+    assertEquals("hello", new String(cryptoManager.decrypt(node), UTF_8));
+
+    // Crypto failures still surface, with the crypto failure as the cause.
+    DecryptionFailureException e = assertThrows(DecryptionFailureException.class,
+        () -> cryptoManager.decrypt(mapOf("alg", "bogus")));
+    assertNotSame(telemetryFailure, e.getCause());
+  }
+
+  @Test
+  void recordsSpans() {
+    RecordingTracer tracer = new RecordingTracer();
+    AeadAes256CbcHmacSha512Provider tracedProvider = AeadAes256CbcHmacSha512Provider.builder()
+        .keyring(Keyring.traced(tracer, keyring))
+        .build();
+    DefaultCryptoManager cryptoManager = DefaultCryptoManager.builder()
+        .decrypter(tracedProvider.decrypter())
+        .defaultEncrypter(tracedProvider.encrypterForKey("my-key"))
+        .requestTracer(tracer)
+        .build();
+
+    Map<String, Object> node = cryptoManager.encrypt("hello".getBytes(UTF_8), null);
+    cryptoManager.decrypt(node);
+
+    assertEquals(listOf("encrypt", "key_lookup", "decrypt", "key_lookup"), tracer.spans.stream().map(s -> s.name).collect(toList()));
+    assertTrue(tracer.spans.stream().allMatch(s -> s.ended));
+
+    RecordedSpan encrypt = tracer.spans.get(0);
+    assertNull(encrypt.parent);
+    assertEquals("my-key--1", encrypt.attributes.get("db.couchbase.encryption.key_id"));
+    assertEquals(5L, encrypt.attributes.get("db.couchbase.encryption.payload_size"));
+    assertSame(encrypt, tracer.spans.get(1).parent);
+    assertEquals("my-key--1", tracer.spans.get(1).attributes.get("db.couchbase.encryption.key_id"));
+
+    RecordedSpan decrypt = tracer.spans.get(2);
+    assertNull(decrypt.parent);
+    assertEquals(node.get("alg"), decrypt.attributes.get("db.couchbase.encryption.algorithm"));
+    assertSame(decrypt, tracer.spans.get(3).parent);
+
+    assertSame(keyring, Keyring.traced(NoopRequestTracer.INSTANCE, keyring));
+  }
+
+  @Test
+  void recordsSpansWithExplicitParent() {
+    RecordingTracer tracer = new RecordingTracer();
+    AeadAes256CbcHmacSha512Provider tracedProvider = AeadAes256CbcHmacSha512Provider.builder()
+        .keyring(Keyring.traced(tracer, keyring))
+        .build();
+    DefaultCryptoManager cryptoManager = DefaultCryptoManager.builder()
+        .decrypter(tracedProvider.decrypter())
+        .defaultEncrypter(tracedProvider.encrypterForKey("my-key"))
+        .requestTracer(tracer)
+        .build();
+
+    RecordedSpan request = new RecordedSpan("request", null);
+    Map<String, Object> node = cryptoManager.encrypt("hello".getBytes(UTF_8), null, request);
+    cryptoManager.decrypt(node, request);
+
+    assertEquals(listOf("encrypt", "key_lookup", "decrypt", "key_lookup"), tracer.spans.stream().map(s -> s.name).collect(toList()));
+    assertSame(request, tracer.spans.get(0).parent);
+    assertSame(tracer.spans.get(0), tracer.spans.get(1).parent);
+    assertSame(request, tracer.spans.get(2).parent);
+    assertSame(tracer.spans.get(2), tracer.spans.get(3).parent);
+
+    // The explicit parent is not left behind as the thread's current span.
+    cryptoManager.encrypt("hello".getBytes(UTF_8), null);
+    assertNull(tracer.spans.get(4).parent);
+  }
+
+  private class ClosableObservableKeyring implements ObservableKeyring, AutoCloseable {
+    private final List<Runnable> listeners = new ArrayList<>();
+    private boolean closed;
+
+    @Override
+    public Optional<Key> get(String keyId) {
+      return keyring.get(keyId);
+    }
+
+    @Override
+    public void addChangeListener(Runnable listener) {
+      listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  @Test
+  void tracedKeyringForwardsChangeListenersAndClose() throws Exception {
+    ClosableObservableKeyring wrapped = new ClosableObservableKeyring();
+    Keyring traced = Keyring.traced(new RecordingTracer(), wrapped);
+
+    Runnable listener = () -> {
+    };
+    ((ObservableKeyring) traced).addChangeListener(listener);
+    assertEquals(listOf(listener), wrapped.listeners);
+
+    ((AutoCloseable) traced).close();
+    assertTrue(wrapped.closed);
+
+    // Not an error if the wrapped keyring doesn't support them.
+    Keyring tracedPlain = Keyring.traced(new RecordingTracer(), keyring);
+    ((ObservableKeyring) tracedPlain).addChangeListener(listener);
+    ((AutoCloseable) tracedPlain).close();
+  }
+}
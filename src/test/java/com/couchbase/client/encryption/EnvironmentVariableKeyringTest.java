@@ -0,0 +1,46 @@
+package com.couchbase.client.encryption;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Map;
+
+import static com.couchbase.client.core.util.CbCollections.listOf;
+import static com.couchbase.client.core.util.CbCollections.mapOf;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class EnvironmentVariableKeyringTest {
+  private static final Map<String, String> env = mapOf(
+      "my_key_1", Base64.getEncoder().encodeToString(new byte[]{1}),
+      "APP_KEY_other", Base64.getEncoder().encodeToString(new byte[]{2}),
+      "UNRELATED", "not base64!");
+
+  @Test
+  void snapshotOfNamedKeys() {
+    EnvironmentVariableKeyring keyring = EnvironmentVariableKeyring.snapshot(env,
+        listOf("my-key.1", "missing"), name -> name.replace('.', '_').replace('-', '_'));
+
+    Keyring.Key key = keyring.getOrThrow("my-key.1");
+    assertEquals("my-key.1", key.id());
+    assertArrayEquals(new byte[]{1}, key.bytes());
+    assertSame(key, keyring.getOrThrow("my-key.1"));
+
+    assertFalse(keyring.get("missing").isPresent());
+    assertFalse(keyring.get("other").isPresent());
+  }
+
+  @Test
+  void snapshotByPrefix() {
+    EnvironmentVariableKeyring keyring = EnvironmentVariableKeyring.snapshotByPrefix(env,
+        "APP_KEY_", name -> "APP_KEY_" + name);
+
+    Keyring.Key key = keyring.getOrThrow("other");
+    assertEquals("other", key.id());
+    assertArrayEquals(new byte[]{2}, key.bytes());
+    assertSame(key, keyring.getOrThrow("other"));
+    assertFalse(keyring.get("my_key_1").isPresent());
+  }
+}
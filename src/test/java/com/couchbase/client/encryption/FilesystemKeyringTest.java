@@ -0,0 +1,110 @@
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.internal.KeyImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class FilesystemKeyringTest {
+  @TempDir
+  Path dir;
+
+  @Test
+  void readsKeyOnEveryLookup() throws Exception {
+    Files.write(dir.resolve("a"), new byte[]{1});
+    FilesystemKeyring keyring = new FilesystemKeyring(dir, FilesystemKeyring.KeyFileFormat.RAW);
+    assertArrayEquals(new byte[]{1}, keyring.getOrThrow("a").bytes());
+
+    Files.write(dir.resolve("a"), new byte[]{2});
+    assertArrayEquals(new byte[]{2}, keyring.getOrThrow("a").bytes());
+    assertFalse(keyring.get("b").isPresent());
+  }
+
+  @Test
+  void hotReloadingSnapshot() throws Exception {
+    Files.write(dir.resolve("a"), new byte[]{1});
+    Files.write(dir.resolve("b"), new byte[]{2});
+    Files.write(dir.resolve(".hidden"), new byte[]{3});
+
+    try (FilesystemKeyring keyring = FilesystemKeyring.hotReloading(dir, FilesystemKeyring.KeyFileFormat.RAW)) {
+      assertEquals(2, keyring.keyIds().size());
+
+      Keyring.Key a = keyring.acquireOrThrow("a");
+      Keyring.Key b = keyring.acquireOrThrow("b");
+      Keyring.Key sharedA = keyring.getOrThrow("a");
+      assertArrayEquals(new byte[]{1}, a.bytes());
+      byte[] aMaterial = a.withBytes(bytes -> bytes);
+      byte[] bMaterial = b.withBytes(bytes -> bytes);
+
+      Files.write(dir.resolve("a"), new byte[]{4});
+      Files.write(dir.resolve("c"), new byte[]{5});
+      await(() -> keyring.get("c").isPresent()
+          && Arrays.equals(new byte[]{4}, keyring.getOrThrow("a").bytes()));
+
+      // superseded key stays usable until closed, unchanged key carries over
+      assertArrayEquals(new byte[]{1}, a.bytes());
+      // keys from get() are owned by the keyring, so closing them does nothing
+      sharedA.close();
+      assertArrayEquals(new byte[]{1}, sharedA.bytes());
+      // ...and they don't keep superseded material alive
+      a.close();
+      assertThrows(IllegalStateException.class, a::bytes);
+      assertArrayEquals(new byte[]{0}, aMaterial);
+      assertThrows(IllegalStateException.class, sharedA::bytes);
+      try (Keyring.Key sameB = keyring.acquireOrThrow("b")) {
+        assertSame(bMaterial, sameB.withBytes(bytes -> bytes));
+      }
+
+      Files.delete(dir.resolve("b"));
+      await(() -> !keyring.keyIds().contains("b"));
+      assertArrayEquals(new byte[]{2}, b.bytes());
+      b.close();
+      assertArrayEquals(new byte[]{0}, bMaterial);
+    }
+  }
+
+  @Test
+  void readsFileWhenSnapshotKeyIsClosedButNotReplaced() throws Exception {
+    Files.write(dir.resolve("a"), new byte[]{1});
+
+    try (FilesystemKeyring keyring = FilesystemKeyring.hotReloading(dir, FilesystemKeyring.KeyFileFormat.RAW)) {
+      Field f = FilesystemKeyring.class.getDeclaredField("snapshot");
+      f.setAccessible(true);
+      @SuppressWarnings("unchecked") Map<String, KeyImpl> snapshot = (Map<String, KeyImpl>) f.get(keyring);
+      snapshot.get("a").close();
+
+      assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+        assertArrayEquals(new byte[]{1}, keyring.getOrThrow("a").bytes());
+        try (Keyring.Key key = keyring.acquireOrThrow("a")) {
+          assertArrayEquals(new byte[]{1}, key.bytes());
+        }
+      });
+    }
+  }
+
+  private static void await(Supplier<Boolean> condition) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+    while (System.nanoTime() < deadline) {
+      if (condition.get()) {
+        return;
+      }
+      Thread.sleep(50);
+    }
+    fail("Failed to meet condition before deadline.");
+  }
+}
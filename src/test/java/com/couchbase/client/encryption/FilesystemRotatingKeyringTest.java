@@ -0,0 +1,99 @@
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.errors.CryptoKeyNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class FilesystemRotatingKeyringTest {
+  @TempDir
+  Path dir;
+
+  @Test
+  void primaryVersionDependsOnBaseName() throws Exception {
+    Files.write(dir.resolve("other--9.key.primary"), new byte[]{9});
+    Files.write(dir.resolve("myKey--1.key"), new byte[]{1});
+    Files.write(dir.resolve("myKey--2.key.primary"), new byte[]{2});
+
+    try (FilesystemRotatingKeyring keyring = new FilesystemRotatingKeyring(dir)) {
+      assertEquals("myKey--2", keyring.getOrThrow("myKey").id());
+      assertArrayEquals(new byte[]{2}, keyring.getOrThrow("myKey").bytes());
+      assertArrayEquals(new byte[]{1}, keyring.getOrThrow("myKey--1").bytes());
+      assertEquals("other--9", keyring.getOrThrow("other").id());
+
+      assertFalse(keyring.get("myKey--3").isPresent());
+      assertThrows(CryptoKeyNotFoundException.class, () -> keyring.get("bogus"));
+    }
+  }
+
+  @Test
+  void highestPrimaryVersionWins() throws Exception {
+    Files.write(dir.resolve("myKey--9.key.primary"), new byte[]{9});
+    Files.write(dir.resolve("myKey--10.key.primary"), new byte[]{10});
+
+    try (FilesystemRotatingKeyring keyring = new FilesystemRotatingKeyring(dir)) {
+      assertEquals("myKey--10", keyring.getOrThrow("myKey").id());
+    }
+
+    assertTrue(FilesystemRotatingKeyring.compareVersions("010", "9") > 0);
+    assertEquals(0, FilesystemRotatingKeyring.compareVersions("007", "7"));
+    assertTrue(FilesystemRotatingKeyring.compareVersions("b", "a") > 0);
+  }
+
+  @Test
+  void listsDirectoryOnEveryLookupByDefault() throws Exception {
+    Files.write(dir.resolve("myKey--1.key.primary"), new byte[]{1});
+
+    try (FilesystemRotatingKeyring keyring = new FilesystemRotatingKeyring(dir)) {
+      assertEquals("myKey--1", keyring.getOrThrow("myKey").id());
+
+      Files.move(dir.resolve("myKey--1.key.primary"), dir.resolve("myKey--1.key"));
+      Files.write(dir.resolve("myKey--2.key.primary"), new byte[]{2});
+      assertEquals("myKey--2", keyring.getOrThrow("myKey").id());
+    }
+  }
+
+  @Test
+  void picksUpRotation() throws Exception {
+    Files.write(dir.resolve("myKey--1.key.primary"), new byte[]{1});
+
+    try (FilesystemRotatingKeyring keyring = FilesystemRotatingKeyring.hotReloading(dir)) {
+      assertEquals("myKey--1", keyring.getOrThrow("myKey").id());
+
+      Files.write(dir.resolve("myKey--2.key"), new byte[]{2});
+      await(() -> keyring.get("myKey--2").isPresent());
+
+      Files.move(dir.resolve("myKey--1.key.primary"), dir.resolve("myKey--1.key"));
+      Files.move(dir.resolve("myKey--2.key"), dir.resolve("myKey--2.key.primary"));
+      await(() -> keyring.getOrThrow("myKey").id().equals("myKey--2"));
+
+      assertArrayEquals(new byte[]{1}, keyring.getOrThrow("myKey--1").bytes());
+    }
+  }
+
+  private static void await(Supplier<Boolean> condition) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+    while (System.nanoTime() < deadline) {
+      try {
+        if (condition.get()) {
+          return;
+        }
+      } catch (CryptoKeyNotFoundException e) {
+        // directory is mid-change
+      }
+      Thread.sleep(50);
+    }
+    fail("Failed to meet condition before deadline.");
+  }
+}
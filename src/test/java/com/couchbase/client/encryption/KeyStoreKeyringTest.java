@@ -0,0 +1,83 @@
+package com.couchbase.client.encryption;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static com.couchbase.client.core.util.CbCollections.setOf;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class KeyStoreKeyringTest {
+  private static final Function<String, String> passwords = alias -> alias.equals("unknown") ? null : "secret";
+
+  private static KeyStore newKeyStore() throws Exception {
+    KeyStore keyStore = KeyStore.getInstance("PKCS12");
+    keyStore.load(null, null);
+    KeyStoreKeyring.setSecretKey(keyStore, "a", new byte[]{1}, "secret".toCharArray());
+    KeyStoreKeyring.setSecretKey(keyStore, "b", new byte[]{2}, "secret".toCharArray());
+    KeyStoreKeyring.setSecretKey(keyStore, "wrong", new byte[]{3}, "other".toCharArray());
+    KeyStoreKeyring.setSecretKey(keyStore, "unknown", new byte[]{4}, "secret".toCharArray());
+    return keyStore;
+  }
+
+  @Test
+  void parallelUnlock() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      KeyStoreKeyring keyring = KeyStoreKeyring.builder()
+          .parallelUnlock(executor)
+          .build(newKeyStore(), passwords);
+
+      assertEquals(setOf("a", "b"), keyring.keyIds());
+      assertArrayEquals(new byte[]{1}, keyring.getOrThrow("a").bytes());
+      assertArrayEquals(new byte[]{2}, keyring.getOrThrow("b").bytes());
+      assertFalse(keyring.get("wrong").isPresent());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void lazyUnlock() throws Exception {
+    KeyStoreKeyring keyring = KeyStoreKeyring.builder()
+        .lazy()
+        .build(newKeyStore(), passwords);
+
+    assertEquals(setOf("a", "b", "wrong"), keyring.keyIds());
+    assertArrayEquals(new byte[]{1}, keyring.getOrThrow("a").bytes());
+    assertFalse(keyring.get("wrong").isPresent());
+    assertFalse(keyring.get("wrong").isPresent());
+    assertFalse(keyring.get("unknown").isPresent());
+  }
+
+  @Test
+  void lazyUnlockIsMemoizedAcrossThreads() throws Exception {
+    KeyStoreKeyring keyring = KeyStoreKeyring.builder()
+        .lazy()
+        .build(newKeyStore(), passwords);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Keyring.Key>> futures = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        String keyId = i % 2 == 0 ? "a" : "b";
+        futures.add(executor.submit(() -> keyring.getOrThrow(keyId)));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        assertSame(futures.get(i % 2).get(), futures.get(i).get());
+      }
+      assertArrayEquals(new byte[]{2}, futures.get(1).get().bytes());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.core.encryption.CryptoManager;
+import com.couchbase.client.core.json.Mapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.couchbase.client.core.util.CbCollections.listOf;
+import static com.couchbase.client.core.util.CbCollections.mapOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LegacyFieldMigratorTest {
+  // Generated by Java FLE version 1
+  private static final Map<String, Object> legacyNode = mapOf(
+      "sig", "TkpyZnha4xd+FsX1aEGqB235d495oOUBfC4Y+Gbic4U=",
+      "ciphertext", "MZI/xSiM7919UTM5CO/RWg==",
+      "alg", "AES-128-HMAC-SHA256",
+      "iv", "HIBdmnoQD4DUgkBj5LAMFw==",
+      "kid", "aes128Key");
+
+  private static final CryptoManager legacyCryptoManager = DefaultCryptoManager.builder()
+      .encryptedFieldNamePrefix("__crypt_")
+      .legacyAesDecrypters(Keyring.fromMap(mapOf(
+          "aes128Key", fakeKey(16),
+          "hmacKey", fakeKey(7))), keyName -> "hmacKey")
+      .build();
+
+  private static final CryptoManager cryptoManager = DefaultCryptoManager.builder()
+      .decrypter(EncryptionTestHelper.provider().decrypter())
+      .build();
+
+  private static final LegacyFieldMigrator migrator = LegacyFieldMigrator.builder()
+      .legacyCryptoManager(legacyCryptoManager)
+      .encrypter(EncryptionTestHelper.provider().encrypterForKey("test-key"))
+      .threads(2)
+      .maxDocumentsInFlight(3)
+      .checkpointInterval(2)
+      .build();
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void migratesNestedFields() {
+    Map<String, Object> doc = mapOf(
+        "plain", "hello",
+        "__crypt_one", legacyNode,
+        "nested", listOf(mapOf("__crypt_two", legacyNode)));
+
+    Map<String, Object> migrated = migrator.migrate(doc);
+    assertEquals(listOf("plain", "encrypted$one", "nested"), new ArrayList<>(migrated.keySet()));
+    assertEquals("1", new String(cryptoManager.decrypt((Map<String, Object>) migrated.get("encrypted$one")), UTF_8));
+
+    Map<String, Object> nested = ((List<Map<String, Object>>) migrated.get("nested")).get(0);
+    assertEquals("1", new String(cryptoManager.decrypt((Map<String, Object>) nested.get("encrypted$two")), UTF_8));
+
+    Map<String, Object> unchanged = mapOf("plain", "hello");
+    assertTrue(unchanged == migrator.migrate(unchanged));
+  }
+
+  @Test
+  void migratesJsonLinesAndResumes(@TempDir Path dir) throws Exception {
+    String legacyLine = Mapper.encodeAsString(mapOf("__crypt_one", legacyNode, "n", 1.10));
+    String plainLine = "{ \"unchanged\" : true }";
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      lines.add(legacyLine);
+      lines.add(plainLine);
+    }
+
+    Path input = dir.resolve("input.jsonl");
+    Path output = dir.resolve("output.jsonl");
+    Path checkpoint = dir.resolve("checkpoint");
+    Files.write(input, lines, UTF_8);
+
+    LegacyFieldMigrator.Stats first = migrator.migrateJsonLines(input, output, checkpoint);
+    List<String> expected = Files.readAllLines(output, UTF_8);
+    assertEquals(10, first.documentsWritten());
+    assertEquals(5, first.documentsMigrated());
+    assertEquals(5, first.fieldsMigrated());
+
+    // Pretend a previous run checkpointed after four lines, then wrote some more before crashing.
+    long fourLines = expected.subList(0, 4).stream().mapToLong(line -> line.getBytes(UTF_8).length + 1).sum();
+    Files.write(checkpoint, ("lines=4\noutputBytes=" + fourLines + "\n").getBytes(UTF_8));
+    Files.write(output, Collections.singletonList("garbage"), UTF_8, StandardOpenOption.APPEND);
+
+    LegacyFieldMigrator.Stats resumed = migrator.migrateJsonLines(input, output, checkpoint);
+    assertEquals(6, resumed.documentsRead());
+
+    List<String> actual = Files.readAllLines(output, UTF_8);
+    assertEquals(10, actual.size());
+    assertEquals(expected.subList(0, 4), actual.subList(0, 4));
+
+    for (int i = 0; i < actual.size(); i += 2) {
+      Map<?, ?> doc = Mapper.decodeInto(actual.get(i), Map.class);
+      assertFalse(doc.containsKey("__crypt_one"));
+      assertTrue(doc.containsKey("encrypted$one"));
+      assertTrue(actual.get(i).contains("1.1"));
+      assertEquals(plainLine, actual.get(i + 1));
+    }
+  }
+
+  private static byte[] fakeKey(int len) {
+    byte[] result = new byte[len];
+    for (int i = 0; i < len; i++) {
+      result[i] = (byte) i;
+    }
+    return result;
+  }
+}
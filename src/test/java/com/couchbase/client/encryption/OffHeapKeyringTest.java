@@ -0,0 +1,69 @@
+package com.couchbase.client.encryption;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapKeyringTest {
+
+  private static byte[] material(int i) {
+    return new byte[]{(byte) i, (byte) (i >>> 8), (byte) (i >>> 16), 42};
+  }
+
+  @Test
+  void growsAndReusesSlots() {
+    OffHeapKeyring keyring = OffHeapKeyring.builder()
+        .keySize(4)
+        .slotsPerSegment(100)
+        .expectedKeys(10)
+        .build();
+
+    int count = 1000;
+    for (int i = 0; i < count; i++) {
+      keyring.put("tenant-" + i, material(i));
+    }
+    assertEquals(count, keyring.size());
+    assertEquals(count, new HashSet<>(keyring.keyIds()).size());
+
+    for (int i = 0; i < count; i += 2) {
+      assertTrue(keyring.remove("tenant-" + i));
+    }
+    for (int i = 0; i < count; i++) {
+      assertEquals(i % 2 == 1, keyring.get("tenant-" + i).isPresent());
+    }
+
+    for (int i = 0; i < count; i += 2) {
+      keyring.put("tenant-" + i, material(i));
+    }
+    for (int i = 0; i < count; i++) {
+      assertArrayEquals(material(i), keyring.getOrThrow("tenant-" + i).bytes());
+    }
+  }
+
+  @Test
+  void staleViewThrows() {
+    OffHeapKeyring keyring = OffHeapKeyring.builder().keySize(4).build();
+    byte[] material = material(1);
+    keyring.put("a", material);
+    assertArrayEquals(new byte[4], material); // zeroized
+
+    Keyring.Key key = keyring.getOrThrow("a");
+    assertArrayEquals(material(1), key.bytes());
+
+    keyring.put("a", material(2));
+    assertThrows(IllegalStateException.class, key::bytes);
+    assertArrayEquals(material(2), keyring.getOrThrow("a").bytes());
+
+    assertThrows(IllegalArgumentException.class, () -> keyring.put("b", new byte[3]));
+    assertFalse(keyring.get("b").isPresent());
+
+    keyring.close();
+    assertThrows(IllegalStateException.class, () -> keyring.get("a"));
+  }
+}
@@ -0,0 +1,61 @@
+package com.couchbase.client.encryption;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.couchbase.client.core.util.CbCollections.mapOf;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReloadingKeyringTest {
+  @Test
+  void keepsServingPreviousKeyringUntilReloadCompletes() {
+    AtomicInteger generation = new AtomicInteger();
+    Queue<Runnable> reloads = new ConcurrentLinkedQueue<>();
+    AtomicLong nanoTime = new AtomicLong();
+
+    ReloadingKeyring keyring = ReloadingKeyring.builder()
+        .reloadInterval(Duration.ofSeconds(1))
+        .executor(reloads::add)
+        .ticker(nanoTime::get)
+        .build(() -> {
+          int g = generation.incrementAndGet();
+          if (g == 2) {
+            throw new RuntimeException("simulated failure");
+          }
+          return Keyring.fromMap(mapOf("a", new byte[]{(byte) g}));
+        });
+
+    assertArrayEquals(new byte[]{1}, keyring.getOrThrow("a").bytes());
+    nanoTime.addAndGet(Duration.ofMillis(999).toNanos());
+    assertArrayEquals(new byte[]{1}, keyring.getOrThrow("a").bytes());
+    assertTrue(reloads.isEmpty());
+
+    nanoTime.addAndGet(Duration.ofMillis(1).toNanos());
+    assertArrayEquals(new byte[]{1}, keyring.getOrThrow("a").bytes());
+    assertArrayEquals(new byte[]{1}, keyring.getOrThrow("a").bytes());
+    assertEquals(1, reloads.size()); // only one reload scheduled
+
+    reloads.remove().run(); // fails
+    assertArrayEquals(new byte[]{1}, keyring.getOrThrow("a").bytes());
+    assertEquals(1, keyring.stats().reloadFailureCount());
+    assertTrue(reloads.isEmpty()); // backs off after failure
+
+    nanoTime.addAndGet(Duration.ofMillis(999).toNanos());
+    keyring.getOrThrow("a");
+    assertTrue(reloads.isEmpty());
+
+    nanoTime.addAndGet(Duration.ofMillis(1).toNanos());
+    keyring.getOrThrow("a");
+    reloads.remove().run(); // succeeds
+    assertArrayEquals(new byte[]{3}, keyring.getOrThrow("a").bytes());
+    assertEquals(2, keyring.stats().reloadCount());
+    assertEquals(Duration.ZERO, keyring.stats().age());
+  }
+}
@@ -0,0 +1,73 @@
+package com.couchbase.client.encryption;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RotatingKeyringTest {
+  private static class InMemoryRotatingKeyring extends RotatingKeyring {
+    private final Map<String, byte[]> keys = new HashMap<>();
+    private final AtomicInteger primaryVersionLookups = new AtomicInteger();
+    private volatile String primaryVersion = "1";
+
+    InMemoryRotatingKeyring(Duration primaryVersionExpiry) {
+      super("--", primaryVersionExpiry);
+      keys.put("myKey--1", new byte[]{1});
+      keys.put("myKey--2", new byte[]{2});
+    }
+
+    @Override
+    protected String getPrimaryVersion(String baseName) {
+      primaryVersionLookups.incrementAndGet();
+      return primaryVersion;
+    }
+
+    @Override
+    protected Optional<byte[]> getKeyBytes(KeyNameAndVersion keyNameAndVersion) {
+      return Optional.ofNullable(keys.get(keyNameAndVersion.format())).map(byte[]::clone);
+    }
+  }
+
+  @Test
+  void servesCachedPrimaryVersionUntilInvalidatedOrRefreshed() {
+    InMemoryRotatingKeyring keyring = new InMemoryRotatingKeyring(Duration.ofHours(1));
+
+    assertEquals("myKey--1", keyring.getOrThrow("myKey").id());
+    assertEquals("myKey--1", keyring.getOrThrow("myKey").id());
+    assertEquals(1, keyring.primaryVersionLookups.get());
+
+    // rotated, but the cached primary version is still served
+    keyring.primaryVersion = "2";
+    assertEquals("myKey--1", keyring.getOrThrow("myKey").id());
+    assertEquals("myKey--2", keyring.getOrThrow("myKey--2").id()); // versioned lookups are unaffected
+
+    keyring.invalidatePrimaryVersions();
+    assertEquals("myKey--2", keyring.getOrThrow("myKey").id());
+    assertEquals(2, keyring.primaryVersionLookups.get());
+
+    keyring.primaryVersion = "1";
+    keyring.refreshPrimaryVersion("myKey");
+    assertEquals(3, keyring.primaryVersionLookups.get());
+    assertEquals("myKey--1", keyring.getOrThrow("myKey").id());
+    assertEquals(3, keyring.primaryVersionLookups.get());
+  }
+
+  @Test
+  void primaryVersionIsNotCachedWhenExpiryIsZero() {
+    InMemoryRotatingKeyring keyring = new InMemoryRotatingKeyring(Duration.ZERO);
+
+    assertEquals("myKey--1", keyring.getOrThrow("myKey").id());
+    keyring.primaryVersion = "2";
+    assertEquals("myKey--2", keyring.getOrThrow("myKey").id());
+    assertEquals(2, keyring.primaryVersionLookups.get());
+
+    keyring.refreshPrimaryVersion("myKey"); // nothing to refresh, but still allowed
+    assertEquals("myKey--2", keyring.getOrThrow("myKey").id());
+  }
+}
@@ -0,0 +1,150 @@
+package com.couchbase.client.encryption;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.couchbase.client.core.util.CbCollections.mapOf;
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoutingKeyringTest {
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private static Keyring counting(Keyring keyring, AtomicInteger counter) {
+    return keyId -> {
+      counter.incrementAndGet();
+      return keyring.get(keyId);
+    };
+  }
+
+  @Test
+  void remembersWhichMemberHasKey() {
+    AtomicInteger firstLookups = new AtomicInteger();
+    AtomicInteger secondLookups = new AtomicInteger();
+
+    RoutingKeyring keyring = RoutingKeyring.builder()
+        .build(
+            counting(Keyring.fromMap(mapOf("a", new byte[]{1})), firstLookups),
+            counting(Keyring.fromMap(mapOf("b", new byte[]{2})), secondLookups));
+
+    for (int i = 0; i < 3; i++) {
+      assertArrayEquals(new byte[]{2}, keyring.getOrThrow("b").bytes());
+      assertFalse(keyring.get("c").isPresent());
+    }
+
+    assertEquals(2, firstLookups.get()); // one for "b", one for "c"
+    assertEquals(4, secondLookups.get()); // three for "b", one for "c"
+    assertEquals(4, keyring.stats().routedLookups());
+
+    keyring.invalidateAll();
+    keyring.getOrThrow("b");
+    assertEquals(3, firstLookups.get());
+  }
+
+  @Test
+  void staleRouteDoesNotProbeStaleMemberTwice() {
+    AtomicInteger staleLookups = new AtomicInteger();
+    AtomicReference<Keyring> stale = new AtomicReference<>(Keyring.fromMap(mapOf("b", new byte[]{1})));
+    AtomicReference<Keyring> last = new AtomicReference<>(Keyring.fromMap(emptyMap()));
+
+    RoutingKeyring keyring = RoutingKeyring.builder()
+        .build(
+            Keyring.fromMap(mapOf("a", new byte[]{0})),
+            counting(keyId -> stale.get().get(keyId), staleLookups),
+            keyId -> last.get().get(keyId));
+
+    assertArrayEquals(new byte[]{1}, keyring.getOrThrow("b").bytes());
+    assertEquals(1, staleLookups.get());
+
+    // The key moves to a later member.
+    stale.set(Keyring.fromMap(emptyMap()));
+    last.set(Keyring.fromMap(mapOf("b", new byte[]{2})));
+    try (Keyring.Key key = keyring.acquire("b").orElseThrow(AssertionError::new)) {
+      assertArrayEquals(new byte[]{2}, key.bytes());
+    }
+    assertEquals(2, staleLookups.get()); // once for the stale route, not again while re-probing
+
+    assertArrayEquals(new byte[]{2}, keyring.getOrThrow("b").bytes());
+    assertEquals(2, staleLookups.get());
+    assertEquals(3, keyring.stats().lookups()); // get and acquire both count
+    assertEquals(6, keyring.stats().probes());
+  }
+
+  @Test
+  void earlierMemberWinsWhenProbingConcurrently() {
+    Keyring slow = keyId -> {
+      try {
+        Thread.sleep(200);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      return keyId.equals("a") ? Optional.of(Keyring.Key.create("a", new byte[]{1})) : Optional.empty();
+    };
+    Keyring fast = Keyring.fromMap(mapOf("a", new byte[]{2}, "b", new byte[]{3}));
+
+    RoutingKeyring parallel = RoutingKeyring.builder()
+        .parallelProbing(executor)
+        .build(slow, fast);
+    assertArrayEquals(new byte[]{1}, parallel.getOrThrow("a").bytes());
+    assertArrayEquals(new byte[]{3}, parallel.getOrThrow("b").bytes());
+
+    RoutingKeyring hedged = RoutingKeyring.builder()
+        .hedgedProbing(Duration.ofMillis(10), executor)
+        .build(slow, fast);
+    assertArrayEquals(new byte[]{1}, hedged.getOrThrow("a").bytes());
+    assertArrayEquals(new byte[]{3}, hedged.getOrThrow("b").bytes());
+  }
+
+  @Test
+  void closesKeysFromLaterMembersWhenEarlierMemberFails() throws Exception {
+    CountDownLatch closed = new CountDownLatch(1);
+    Keyring failing = keyId -> {
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      throw new IllegalStateException("simulated failure");
+    };
+    Keyring closeable = keyId -> Optional.of(new Keyring.Key() {
+      @Override
+      public String id() {
+        return keyId;
+      }
+
+      @Override
+      public byte[] bytes() {
+        return new byte[]{1};
+      }
+
+      @Override
+      public void close() {
+        closed.countDown();
+      }
+    });
+
+    RoutingKeyring keyring = RoutingKeyring.builder()
+        .parallelProbing(executor)
+        .build(failing, closeable);
+    assertThrows(IllegalStateException.class, () -> keyring.acquire("a"));
+    assertTrue(closed.await(30, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,98 @@
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
+import com.couchbase.client.core.json.Mapper;
+import com.couchbase.client.encryption.errors.EncryptionFailureException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowOperationReporterTest {
+
+  @Test
+  void reportsSlowestOperationsWithPhaseBreakdown() throws Exception {
+    List<String> reports = new ArrayList<>();
+    SlowOperationReporter reporter = SlowOperationReporter.builder()
+        .encryptThreshold(Duration.ofMillis(1))
+        .decryptThreshold(Duration.ofDays(1))
+        .keyLookupThreshold(Duration.ofMillis(1))
+        .sampleSize(2)
+        .emitInterval(Duration.ofDays(1))
+        .reportConsumer(reports::add)
+        .build();
+
+    Keyring slowKeyring = keyId -> {
+      sleepMillis(5);
+      return EncryptionTestHelper.keyring().get(keyId);
+    };
+    AeadAes256CbcHmacSha512Provider provider = AeadAes256CbcHmacSha512Provider.builder()
+        .keyring(reporter.timed(slowKeyring))
+        .build();
+    DefaultCryptoManager cryptoManager = DefaultCryptoManager.builder()
+        .decrypter(provider.decrypter())
+        .defaultEncrypter(provider.encrypterForKey("test-key"))
+        .encrypter("broken", provider.encrypterForKey("no-such-key"))
+        .slowOperationReporter(reporter)
+        .build();
+
+    Map<String, Object> encrypted = null;
+    for (int i = 0; i < 3; i++) {
+      encrypted = cryptoManager.encrypt("hello".getBytes(UTF_8), null);
+    }
+    cryptoManager.decrypt(encrypted);
+    // Slow, because the failed key lookup is slow.
+    assertThrows(EncryptionFailureException.class, () -> cryptoManager.encrypt(new byte[0], "broken"));
+
+    reporter.close();
+    assertEquals(1, reports.size());
+    JsonNode report = Mapper.decodeIntoTree(reports.get(0));
+
+    JsonNode encryptions = report.path("encrypt");
+    assertEquals(3, encryptions.path("total_count").asInt());
+    JsonNode top = encryptions.path("top_requests");
+    assertEquals(2, top.size());
+    assertTrue(top.get(0).path("total_duration_us").asLong() >= top.get(1).path("total_duration_us").asLong());
+
+    JsonNode slowest = top.get(0);
+    assertEquals("test-key", slowest.path("key_id").asText());
+    assertEquals(5, slowest.path("payload_size").asInt());
+    assertTrue(slowest.path("key_lookup_duration_us").asLong() >= 5000);
+    assertEquals(slowest.path("total_duration_us").asLong(),
+        slowest.path("key_lookup_duration_us").asLong() + slowest.path("cipher_duration_us").asLong(), 1);
+
+    // Failures are reported separately.
+    JsonNode failedEncryptions = report.path("encrypt_failure");
+    assertEquals(1, failedEncryptions.path("total_count").asInt());
+    JsonNode failed = failedEncryptions.path("top_requests").get(0);
+    assertEquals("encrypt_failure", failed.path("operation_name").asText());
+    assertEquals(0, failed.path("payload_size").asInt());
+    assertTrue(failed.path("key_lookup_duration_us").asLong() >= 5000);
+
+    assertFalse(report.has("decrypt"));
+    assertFalse(report.has("decrypt_failure"));
+    assertEquals(5, report.path("key_lookup").path("total_count").asInt());
+
+    // Nothing more to report.
+    reporter.emit();
+    assertEquals(1, reports.size());
+  }
+
+  private static void sleepMillis(long millis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+}
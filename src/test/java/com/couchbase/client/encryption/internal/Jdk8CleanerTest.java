@@ -5,8 +5,10 @@ import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
 class Jdk8CleanerTest {
@@ -22,6 +24,23 @@ class Jdk8CleanerTest {
     collectGarbageAndAssert(cleaned::get);
   }
 
+  @Test
+  void explicitCleanUnregisters() throws Exception {
+    Jdk8Cleaner cleaner = Jdk8Cleaner.create(new DefaultThreadFactory("jdk8cleaner"), 2);
+
+    AtomicInteger cleanCount = new AtomicInteger();
+    Object referent = new Object();
+    Jdk8Cleaner.Cleanable cleanable = cleaner.register(referent, cleanCount::incrementAndGet);
+    assertEquals(1, cleaner.pendingCount());
+
+    cleanable.clean();
+    cleanable.clean();
+    assertEquals(1, cleanCount.get());
+    assertEquals(0, cleaner.pendingCount());
+    assertEquals(1, cleaner.cleanedExplicitlyCount());
+    assertEquals(0, cleaner.cleanedAfterCollectionCount());
+  }
+
   public static void collectGarbageAndAssert(Supplier<Boolean> condition) {
     Duration timeout = Duration.ofSeconds(15);
 
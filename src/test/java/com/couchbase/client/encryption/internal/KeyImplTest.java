@@ -7,6 +7,11 @@ import java.lang.reflect.Field;
 import java.util.Arrays;
 
 import static com.couchbase.client.encryption.internal.Jdk8CleanerTest.collectGarbageAndAssert;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class KeyImplTest {
   @Test
@@ -22,4 +27,68 @@ class KeyImplTest {
 
     collectGarbageAndAssert(() -> Arrays.equals(new byte[]{0, 0, 0}, keyBytes));
   }
+
+  @Test
+  void withBytesDoesNotCopy() throws Exception {
+    KeyImpl key = KeyImpl.closeable("foo", new byte[]{1, 2, 3});
+
+    Field f = KeyImpl.class.getDeclaredField("bytes");
+    f.setAccessible(true);
+    byte[] keyBytes = (byte[]) f.get(key);
+
+    assertSame(keyBytes, key.withBytes(bytes -> bytes));
+
+    key.close();
+    assertThrows(IllegalStateException.class, () -> key.withBytes(bytes -> bytes));
+  }
+
+  @Test
+  void materialIsZeroizedWhenLastHandleIsClosed() throws Exception {
+    KeyImpl owner = KeyImpl.closeable("foo", new byte[]{1, 2, 3});
+    byte[] keyBytes = owner.withBytes(bytes -> bytes);
+
+    KeyImpl handle = owner.retain();
+    owner.close();
+    assertNull(owner.tryRetain());
+    assertArrayEquals(new byte[]{1, 2, 3}, handle.bytes());
+
+    handle.close();
+    handle.close(); // idempotent
+    assertArrayEquals(new byte[]{0, 0, 0}, keyBytes);
+    assertThrows(IllegalStateException.class, handle::bytes);
+
+    // keys from the public factory are shared, so closing them does nothing
+    Keyring.Key shared = Keyring.Key.create("bar", new byte[]{4});
+    shared.close();
+    assertArrayEquals(new byte[]{4}, shared.bytes());
+  }
+
+  @Test
+  void pinnedHandleIsNotCloseable() throws Exception {
+    KeyImpl owner = KeyImpl.closeable("foo", new byte[]{1, 2, 3});
+    KeyImpl pinned = owner.tryPin();
+
+    pinned.close(); // does nothing
+    assertArrayEquals(new byte[]{1, 2, 3}, pinned.bytes());
+    assertArrayEquals(new byte[]{1, 2, 3}, owner.bytes());
+  }
+
+  @Test
+  void pinnedHandlesDoNotDelayZeroization() throws Exception {
+    KeyImpl owner = KeyImpl.closeable("foo", new byte[]{1, 2, 3});
+    byte[] keyBytes = owner.withBytes(bytes -> bytes);
+
+    KeyImpl pinned = null;
+    for (int i = 0; i < 100_000; i++) {
+      pinned = owner.tryPin();
+    }
+    KeyImpl renamed = owner.withId("bar");
+
+    owner.close();
+    assertArrayEquals(new byte[]{0, 0, 0}, keyBytes);
+    assertNull(owner.tryPin());
+    assertTrue(pinned.isClosed());
+    assertThrows(IllegalStateException.class, pinned::bytes);
+    assertThrows(IllegalStateException.class, renamed::bytes);
+  }
 }
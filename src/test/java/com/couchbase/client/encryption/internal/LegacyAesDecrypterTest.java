@@ -8,8 +8,11 @@
 package com.couchbase.client.encryption.internal;
 
 import com.couchbase.client.core.encryption.CryptoManager;
+import com.couchbase.client.encryption.Decrypter;
 import com.couchbase.client.encryption.DefaultCryptoManager;
+import com.couchbase.client.encryption.EncryptionResult;
 import com.couchbase.client.encryption.Keyring;
+import com.couchbase.client.encryption.errors.InvalidCiphertextException;
 import com.couchbase.client.java.json.JsonObject;
 import com.couchbase.client.java.json.JsonObjectCrypto;
 import org.junit.jupiter.api.Test;
@@ -17,6 +20,7 @@ import org.junit.jupiter.api.Test;
 import java.util.HashMap;
 import java.util.Map;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.*;
 
 class LegacyAesDecrypterTest {
@@ -59,6 +63,28 @@ class LegacyAesDecrypterTest {
     assertEquals(2, crypto.getInt("two"));
   }
 
+  @Test
+  void canDecryptRepeatedlyWithCachedKeys() throws Exception {
+    Map<String, byte[]> keys = new HashMap<>();
+    keys.put("aes128Key", fakeKey(16));
+    keys.put("hmacKey", fakeKey(7));
+    Decrypter decrypter = LegacyAesDecrypter.aes128(Keyring.fromMap(keys), keyName -> "hmacKey");
+
+    Map<String, Object> encrypted = new HashMap<>();
+    encrypted.put("sig", "TkpyZnha4xd+FsX1aEGqB235d495oOUBfC4Y+Gbic4U=");
+    encrypted.put("ciphertext", "MZI/xSiM7919UTM5CO/RWg==");
+    encrypted.put("alg", "AES-128-HMAC-SHA256");
+    encrypted.put("iv", "HIBdmnoQD4DUgkBj5LAMFw==");
+    encrypted.put("kid", "aes128Key");
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals("1", new String(decrypter.decrypt(EncryptionResult.fromMap(encrypted)), UTF_8));
+    }
+
+    encrypted.put("sig", "AkpyZnha4xd+FsX1aEGqB235d495oOUBfC4Y+Gbic4U=");
+    assertThrows(InvalidCiphertextException.class, () -> decrypter.decrypt(EncryptionResult.fromMap(encrypted)));
+  }
+
   private static byte[] fakeKey(int len) {
     byte[] result = new byte[len];
     for (int i = 0; i < len; i++) {
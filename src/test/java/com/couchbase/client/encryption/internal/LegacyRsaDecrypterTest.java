@@ -0,0 +1,97 @@
+package com.couchbase.client.encryption.internal;
+
+import com.couchbase.client.encryption.EncryptionResult;
+import com.couchbase.client.encryption.Keyring;
+import com.couchbase.client.encryption.errors.CryptoKeyNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.OAEPParameterSpec;
+import javax.crypto.spec.PSource;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.MGF1ParameterSpec;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.couchbase.client.core.util.CbCollections.mapOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LegacyRsaDecrypterTest {
+  private static final KeyPair keyPair = generateKeyPair();
+
+  private static KeyPair generateKeyPair() {
+    try {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+      generator.initialize(2048);
+      return generator.generateKeyPair();
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static EncryptionResult encrypt(String plaintext) throws Exception {
+    Cipher cipher = Cipher.getInstance("RSA/ECB/OAEPWithSHA-1AndMGF1Padding");
+    cipher.init(Cipher.ENCRYPT_MODE, keyPair.getPublic(),
+        new OAEPParameterSpec("SHA-1", "MGF1", new MGF1ParameterSpec("SHA-1"), PSource.PSpecified.DEFAULT));
+    return EncryptionResult.forAlgorithm("RSA-2048-OAEP-SHA1")
+        .put("kid", "public")
+        .put("ciphertext", cipher.doFinal(plaintext.getBytes(UTF_8)));
+  }
+
+  private static LegacyRsaDecrypter decrypter() {
+    Keyring keyring = Keyring.fromMap(mapOf("private", keyPair.getPrivate().getEncoded()));
+    return new LegacyRsaDecrypter(keyring, publicKeyName -> "private");
+  }
+
+  @Test
+  void decryptsRepeatedly() throws Exception {
+    LegacyRsaDecrypter decrypter = decrypter();
+    for (int i = 0; i < 3; i++) {
+      assertEquals("hello " + i, new String(decrypter.decrypt(encrypt("hello " + i)), UTF_8));
+    }
+  }
+
+  @Test
+  void decryptsConcurrentlyWithSharedInstance() throws Exception {
+    List<EncryptionResult> messages = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      messages.add(encrypt("message " + i));
+    }
+
+    LegacyRsaDecrypter decrypter = decrypter();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<byte[]>> futures = new ArrayList<>();
+      for (EncryptionResult message : messages) {
+        futures.add(executor.submit(() -> decrypter.decrypt(message)));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        assertEquals("message " + i, new String(futures.get(i).get(), UTF_8));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void rejectsTamperedCiphertext() {
+    EncryptionResult tampered = EncryptionResult.forAlgorithm("RSA-2048-OAEP-SHA1")
+        .put("kid", "public")
+        .put("ciphertext", new byte[256]);
+    assertThrows(BadPaddingException.class, () -> decrypter().decrypt(tampered));
+  }
+
+  @Test
+  void throwsWhenPrivateKeyIsMissing() throws Exception {
+    EncryptionResult message = encrypt("hello");
+    LegacyRsaDecrypter decrypter = new LegacyRsaDecrypter(Keyring.fromMap(mapOf()), publicKeyName -> "private");
+    assertThrows(CryptoKeyNotFoundException.class, () -> decrypter.decrypt(message));
+  }
+}
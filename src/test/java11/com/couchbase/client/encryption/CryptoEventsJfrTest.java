@@ -0,0 +1,113 @@
+package com.couchbase.client.encryption;
+
+import com.couchbase.client.encryption.internal.KeyImpl;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static com.couchbase.client.core.encryption.CryptoManager.DEFAULT_ENCRYPTER_ALIAS;
+import static com.couchbase.client.core.util.CbCollections.mapOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the JFR events emitted by the Java 11 version of {@code CryptoEvents}.
+ * <p>
+ * Compiled with release 11, and run by the surefire execution that puts the
+ * Java 11 classes of the multi-release JAR ahead of the Java 8 classes.
+ */
+class CryptoEventsJfrTest {
+
+  @Test
+  void recordsEvents(@TempDir Path dir) throws Exception {
+    AeadAes256CbcHmacSha512Provider provider = EncryptionTestHelper.provider();
+    DefaultCryptoManager cryptoManager = DefaultCryptoManager.builder()
+        .decrypter(provider.decrypter())
+        .defaultEncrypter(provider.encrypterForKey("test-key"))
+        .build();
+
+    Path file = dir.resolve("recording.jfr");
+    Map<String, Object> encrypted;
+    try (Recording recording = new Recording()) {
+      // Thresholds are zero so fast operations are recorded too.
+      recording.enable("com.couchbase.encryption.Encrypt").withThreshold(Duration.ZERO);
+      recording.enable("com.couchbase.encryption.Decrypt").withThreshold(Duration.ZERO);
+      recording.enable("com.couchbase.encryption.KeyCacheMiss");
+      recording.enable("com.couchbase.encryption.KeyringLoad");
+      recording.enable("com.couchbase.encryption.Zeroization");
+      recording.start();
+
+      encrypted = cryptoManager.encrypt("hello".getBytes(UTF_8), null);
+      cryptoManager.decrypt(encrypted);
+
+      Keyring caching = CachingKeyring.builder().build(Keyring.fromMap(mapOf("my-key", new byte[64])));
+      caching.get("my-key");
+      caching.get("missing");
+
+      ReloadingKeyring.builder().build(() -> Keyring.fromMap(mapOf()));
+
+      KeyImpl.closeable("closed-key", new byte[64]).close();
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    String ciphertext = (String) encrypted.get("ciphertext");
+
+    RecordedEvent encrypt = single(events, "com.couchbase.encryption.Encrypt");
+    assertEquals(DEFAULT_ENCRYPTER_ALIAS, encrypt.getString("alias"));
+    assertEquals("AEAD_AES_256_CBC_HMAC_SHA512", encrypt.getString("algorithm"));
+    assertEquals("test-key", encrypt.getString("keyId"));
+    assertEquals(5, encrypt.getLong("inputSize"));
+    assertEquals(ciphertext.length(), encrypt.getLong("outputSize"));
+    assertTrue(encrypt.getBoolean("succeeded"));
+
+    RecordedEvent decrypt = single(events, "com.couchbase.encryption.Decrypt");
+    assertEquals("AEAD_AES_256_CBC_HMAC_SHA512", decrypt.getString("algorithm"));
+    assertEquals("test-key", decrypt.getString("keyId"));
+    assertEquals(ciphertext.length(), decrypt.getLong("inputSize"));
+    assertEquals(5, decrypt.getLong("outputSize"));
+    assertTrue(decrypt.getBoolean("succeeded"));
+
+    List<RecordedEvent> misses = named(events, "com.couchbase.encryption.KeyCacheMiss");
+    assertEquals(2, misses.size());
+    assertEquals("my-key", misses.get(0).getString("keyId"));
+    assertTrue(misses.get(0).getBoolean("succeeded"));
+    assertEquals("missing", misses.get(1).getString("keyId"));
+    assertFalse(misses.get(1).getBoolean("succeeded"));
+
+    RecordedEvent load = single(events, "com.couchbase.encryption.KeyringLoad");
+    assertEquals(ReloadingKeyring.class.getName(), load.getString("keyring"));
+    assertTrue(load.getBoolean("succeeded"));
+
+    RecordedEvent zeroization = named(events, "com.couchbase.encryption.Zeroization").stream()
+        .filter(e -> !e.getBoolean("afterCollection"))
+        .findFirst()
+        .orElseThrow(() -> new AssertionError("No zeroization event for closed key"));
+    assertTrue(zeroization.getBoolean("succeeded"));
+  }
+
+  private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+    return events.stream()
+        .filter(e -> e.getEventType().getName().equals(name))
+        .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+        .collect(toList());
+  }
+
+  private static RecordedEvent single(List<RecordedEvent> events, String name) {
+    List<RecordedEvent> matching = named(events, name);
+    assertEquals(1, matching.size(), "number of " + name + " events");
+    return matching.get(0);
+  }
+}